@@ -2,12 +2,14 @@ package com.olxapplication;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * This class serves as the main entry point for the OLX application.
  * It bootstraps the Spring Boot application context and enables its features.
  */
 @SpringBootApplication
+@EnableScheduling
 public class OlxApplication {
 	/**
 	 * The main method for launching the OLX application.
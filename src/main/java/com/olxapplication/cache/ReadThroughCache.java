@@ -0,0 +1,194 @@
+package com.olxapplication.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory read-through cache, evicting the least recently used entry once full and every entry older than its time to live.
+ * Concurrent misses for the same key are coalesced: the first caller loads the value, the others wait for its result.
+ * A key invalidated while it is being loaded is not cached, so a load that raced with an update can not bring back the old value.
+ * @param <K> the type of the keys.
+ * @param <V> the type of the cached values.
+ */
+public class ReadThroughCache<K, V> {
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReadThroughCache(int capacity, Duration ttl) {
+        this(capacity, ttl, System::nanoTime);
+    }
+
+    public ReadThroughCache(int capacity, Duration ttl, LongSupplier clock) {
+        if (capacity <= 0 || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("The capacity and the time to live of the cache must be positive");
+        }
+        this.capacity = capacity;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value of the key, loading it on a miss.
+     * @param key the key.
+     * @param loader the function loading the value of a missing key; exceptions it throws are rethrown to every waiting caller.
+     * @return the value of the key.
+     */
+    public V get(K key, Function<K, V> loader) {
+        CompletableFuture<V> future;
+        boolean owner = false;
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (clock.getAsLong() - entry.loadedAt() < ttlNanos) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            misses.increment();
+            future = loading.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                loading.put(key, future);
+                owner = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return owner ? load(key, loader, future) : await(future);
+    }
+
+    /**
+     * Removes the key from the cache and discards any load of it that is in progress.
+     * @param key the key.
+     */
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+            loading.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            loading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries in the cache, including those expired but not evicted yet.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private V load(K key, Function<K, V> loader, CompletableFuture<V> future) {
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException e) {
+            release(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        lock.lock();
+        try {
+            if (loading.get(key) == future) {
+                loading.remove(key);
+                if (value != null) {
+                    entries.put(key, new Entry<>(value, clock.getAsLong()));
+                    evictOverflow();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        future.complete(value);
+        return value;
+    }
+
+    private void release(K key, CompletableFuture<V> future) {
+        lock.lock();
+        try {
+            loading.remove(key, future);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits its capacity; called with the lock held.
+     */
+    private void evictOverflow() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
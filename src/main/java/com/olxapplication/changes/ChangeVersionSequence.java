@@ -0,0 +1,75 @@
+package com.olxapplication.changes;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+/**
+ * Hands out the change versions of the announcements from the announcement_version_seq sequence.
+ * A version is taken before the write transaction starts and released once it has committed or rolled back,
+ * so that the change feed never serves a version while a smaller one may still commit: a reader that skipped
+ * an in-flight version would otherwise miss its change for good.
+ * The bookkeeping is kept in memory and therefore assumes that a single application instance writes the announcements.
+ */
+@Component
+public class ChangeVersionSequence {
+    public static final String SEQUENCE_NAME = "announcement_version_seq";
+
+    private final EntityManager entityManager;
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+    private String nextValueSql;
+    private long lastAllocated = -1;
+
+    public ChangeVersionSequence(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Runs a write under a new change version; the work must commit its transaction before it returns.
+     * @param work the write, receiving the version to stamp on the rows it changes.
+     * @return the result of the work.
+     */
+    public <T> T write(LongFunction<T> work) {
+        long version = acquire();
+        try {
+            return work.apply(version);
+        } finally {
+            release(version);
+        }
+    }
+
+    /**
+     * @return the greatest version below which every write has completed; changes up to it can be served safely.
+     */
+    public synchronized long visibleUpTo() {
+        if (!inFlight.isEmpty()) {
+            return inFlight.first() - 1;
+        }
+        if (lastAllocated < 0) {
+            lastAllocated = nextValue();
+        }
+        return lastAllocated;
+    }
+
+    private synchronized long acquire() {
+        long version = nextValue();
+        inFlight.add(version);
+        lastAllocated = version;
+        return version;
+    }
+
+    private synchronized void release(long version) {
+        inFlight.remove(version);
+    }
+
+    private long nextValue() {
+        if (nextValueSql == null) {
+            nextValueSql = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(SEQUENCE_NAME);
+        }
+        return ((Number) entityManager.createNativeQuery(nextValueSql).getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,27 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.dtos.UserMailDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event bus that sends the events to the mail service through RabbitMQ. This is the default transport.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "event-bus.transport", havingValue = "amqp", matchIfMissing = true)
+public class AmqpEventBus implements EventBus {
+    private final RabbitMQSender rabbitMQSender;
+
+    @Override
+    public void publish(UserMailDTO event) {
+        rabbitMQSender.send(event);
+    }
+
+    @Override
+    public void publish(ReportRequestDTO request) {
+        rabbitMQSender.send(request);
+    }
+}
@@ -0,0 +1,226 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.PublisherStatsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes AMQP messages asynchronously with correlated publisher confirms.
+ * Every publish takes a slot of a bounded in-flight window, released when the broker confirms the message, so a
+ * burst makes the callers wait instead of piling up unconfirmed messages; a caller that can not get a slot in time
+ * gets a failed future. The queued messages are sent by a single thread in batches of up to batch-size messages,
+ * waiting up to linger-ms for a batch to fill, and every batch goes out on one channel checked out of the
+ * CachingConnectionFactory, so the number of channels stays flat whatever the load.
+ */
+@Component
+public class AsyncRabbitPublisher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRabbitPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long confirmTimeoutMillis;
+    private final long windowTimeoutMillis;
+    private final int windowSize;
+    private final Semaphore window;
+    private final LinkedBlockingQueue<PendingPublish> queue = new LinkedBlockingQueue<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder acked = new LongAdder();
+    private final LongAdder nacked = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder confirmNanos = new LongAdder();
+    private final AtomicLong maxConfirmNanos = new AtomicLong();
+    private long lastSampleNanos = System.nanoTime();
+    private long lastSamplePublished;
+    private volatile boolean running;
+    private Thread sender;
+
+    public AsyncRabbitPublisher(RabbitTemplate rabbitTemplate,
+                                @Value("${rabbitmq.publisher.batch-size:100}") int batchSize,
+                                @Value("${rabbitmq.publisher.linger-ms:5}") long lingerMillis,
+                                @Value("${rabbitmq.publisher.max-in-flight:1000}") int maxInFlight,
+                                @Value("${rabbitmq.publisher.window-timeout-ms:5000}") long windowTimeoutMillis,
+                                @Value("${rabbitmq.publisher.confirm-timeout-ms:10000}") long confirmTimeoutMillis) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.windowSize = maxInFlight;
+        this.window = new Semaphore(maxInFlight);
+        this.windowTimeoutMillis = windowTimeoutMillis;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        sender = Thread.ofVirtual().name("amqp-publisher").start(this::sendLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (sender != null) {
+            sender.interrupt();
+        }
+        PendingPublish pending;
+        while ((pending = queue.poll()) != null) {
+            fail(pending, new AmqpException("The publisher was stopped"));
+        }
+    }
+
+    /**
+     * Queues a message for publishing; blocks while the in-flight window is full, up to the window timeout.
+     * @param exchange the exchange to publish to.
+     * @param routingKey the routing key of the message.
+     * @param message the message.
+     * @return a future completed when the broker confirms the message, or failed if it is nacked, times out or is rejected.
+     */
+    public CompletableFuture<Void> publish(String exchange, String routingKey, Message message) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        boolean admitted;
+        try {
+            admitted = running && window.tryAcquire(windowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            future.completeExceptionally(new AmqpException("The publish window is full"));
+            return future;
+        }
+        queue.add(new PendingPublish(exchange, routingKey, message, future));
+        return future;
+    }
+
+    /**
+     * @param spoolBacklogBytes the number of bytes waiting in the spool, reported alongside.
+     * @return the counters of the publisher; the rate is measured since the previous call.
+     */
+    public synchronized PublisherStatsDTO getStats(long spoolBacklogBytes) {
+        long now = System.nanoTime();
+        long publishedNow = published.sum();
+        double seconds = Math.max(1e-9, (now - lastSampleNanos) / 1e9);
+        double rate = (publishedNow - lastSamplePublished) / seconds;
+        lastSampleNanos = now;
+        lastSamplePublished = publishedNow;
+        long confirmed = acked.sum() + nacked.sum();
+        return PublisherStatsDTO.builder()
+                .published(publishedNow)
+                .acked(acked.sum())
+                .nacked(nacked.sum())
+                .failed(failed.sum())
+                .rejected(rejected.sum())
+                .inFlight(windowSize - window.availablePermits())
+                .publishRatePerSecond(rate)
+                .averageConfirmMillis(confirmed == 0 ? 0.0 : confirmNanos.sum() / 1e6 / confirmed)
+                .maxConfirmMillis(maxConfirmNanos.get() / 1e6)
+                .spoolBacklogBytes(spoolBacklogBytes)
+                .build();
+    }
+
+    private void sendLoop() {
+        try {
+            while (running) {
+                PendingPublish first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<PendingPublish> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                fill(batch);
+                send(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fill(List<PendingPublish> batch) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingPublish next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    /**
+     * Sends a batch on a single channel; the messages that could not be sent fail right away.
+     */
+    private void send(List<PendingPublish> batch) {
+        int[] sent = {0};
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingPublish pending : batch) {
+                    CorrelationData correlation = new CorrelationData();
+                    long sentAt = System.nanoTime();
+                    operations.send(pending.exchange(), pending.routingKey(), pending.message(), correlation);
+                    sent[0]++;
+                    published.increment();
+                    correlation.getFuture()
+                            .orTimeout(confirmTimeoutMillis, TimeUnit.MILLISECONDS)
+                            .whenComplete((confirm, error) -> confirmed(pending, sentAt, confirm, error));
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            LOGGER.warn("Publishing a batch of {} messages failed after {}: {}", batch.size(), sent[0], e.getMessage());
+            for (PendingPublish pending : batch.subList(sent[0], batch.size())) {
+                fail(pending, e);
+            }
+        }
+    }
+
+    private void confirmed(PendingPublish pending, long sentAt, CorrelationData.Confirm confirm, Throwable error) {
+        window.release();
+        long latency = System.nanoTime() - sentAt;
+        if (error != null) {
+            failed.increment();
+            pending.future().completeExceptionally(error);
+            return;
+        }
+        confirmNanos.add(latency);
+        maxConfirmNanos.accumulateAndGet(latency, Math::max);
+        if (confirm.isAck()) {
+            acked.increment();
+            pending.future().complete(null);
+        } else {
+            nacked.increment();
+            pending.future().completeExceptionally(new AmqpException("Message nacked by the broker: " + confirm.getReason()));
+        }
+    }
+
+    private void fail(PendingPublish pending, Exception error) {
+        window.release();
+        failed.increment();
+        pending.future().completeExceptionally(error);
+    }
+
+    private record PendingPublish(String exchange, String routingKey, Message message, CompletableFuture<Void> future) {
+    }
+}
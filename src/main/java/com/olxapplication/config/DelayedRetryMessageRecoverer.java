@@ -0,0 +1,155 @@
+package com.olxapplication.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Recovers the messages a listener failed on without redelivering them at once.
+ * A failed message is parked in a retry queue whose message TTL is the backoff of its attempt; when the TTL expires
+ * the broker dead-letters it back to the queue it came from. The delays grow exponentially, one retry queue per delay,
+ * so that a message never waits behind a message with a longer delay. The attempts are counted in a header; after the
+ * last attempt, or at once for a message that can never succeed, the message is moved to the dead-letter queue of its
+ * queue together with the reason of the failure.
+ * Everything is routed through the default exchange, by queue name. A move counts only once the broker has confirmed
+ * it; otherwise the message is requeued, so a failed message is never acknowledged before its copy is safe.
+ */
+public class DelayedRetryMessageRecoverer implements MessageRecoverer {
+    public static final String ATTEMPT_HEADER = "x-retry-attempt";
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+    public static final String FAILED_AT_HEADER = "x-failed-at";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DelayedRetryMessageRecoverer.class);
+    private static final int MAX_EXCEPTION_LENGTH = 1000;
+
+    private final RabbitOperations rabbitOperations;
+    private final long[] delays;
+    private final long confirmTimeoutMillis;
+
+    /**
+     * @param rabbitOperations the template used to move the failed messages.
+     * @param initialDelayMillis the delay before the second attempt.
+     * @param multiplier the factor applied to the delay after every attempt.
+     * @param maxAttempts the number of deliveries of a message, the first one included.
+     * @param confirmTimeoutMillis how long to wait for the broker to confirm a moved message.
+     */
+    public DelayedRetryMessageRecoverer(RabbitOperations rabbitOperations, long initialDelayMillis, double multiplier, int maxAttempts,
+                                        long confirmTimeoutMillis) {
+        if (maxAttempts < 1 || initialDelayMillis <= 0 || multiplier < 1 || confirmTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Invalid retry policy");
+        }
+        this.rabbitOperations = rabbitOperations;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+        this.delays = new long[maxAttempts - 1];
+        double delay = initialDelayMillis;
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = Math.round(delay);
+            delay *= multiplier;
+        }
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        MessageProperties properties = message.getMessageProperties();
+        String queue = properties.getConsumerQueue();
+        Object header = properties.getHeaders().get(ATTEMPT_HEADER);
+        int attempt = header instanceof Number number ? number.intValue() + 1 : 1;
+        properties.setHeader(ATTEMPT_HEADER, attempt);
+        String target;
+        if (attempt <= delays.length && !isFatal(cause)) {
+            target = retryQueueName(queue, delays[attempt - 1]);
+            LOGGER.warn("Attempt {} of message {} from {} failed, retrying in {} ms", attempt, properties.getMessageId(),
+                    queue, delays[attempt - 1]);
+        } else {
+            target = deadLetterQueueName(queue);
+            properties.setHeader(ORIGINAL_QUEUE_HEADER, queue);
+            properties.setHeader(FAILED_AT_HEADER, Instant.now().toString());
+            properties.setHeader(EXCEPTION_HEADER, describe(cause));
+            LOGGER.error("Message {} from {} dead-lettered after {} attempts", properties.getMessageId(), queue, attempt, cause);
+        }
+        CorrelationData correlation = new CorrelationData();
+        CorrelationData.Confirm confirm;
+        try {
+            rabbitOperations.send("", target, message, correlation);
+            confirm = correlation.getFuture().get(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (AmqpException | ExecutionException | TimeoutException e) {
+            throw new ImmediateRequeueAmqpException("The failed message could not be moved to " + target, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImmediateRequeueAmqpException("The failed message could not be moved to " + target, e);
+        }
+        if (!confirm.isAck()) {
+            throw new ImmediateRequeueAmqpException("The failed message was nacked when moved to " + target + ": " + confirm.getReason());
+        }
+    }
+
+    /**
+     * Declares the retry queues and the dead-letter queue of a queue.
+     * @param queue the name of the queue whose listener is recovered by this recoverer.
+     * @return the queues to declare on the broker.
+     */
+    public Declarables topology(String queue) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (long delay : delays) {
+            declarables.add(QueueBuilder.durable(retryQueueName(queue, delay))
+                    .ttl((int) delay)
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(queue)
+                    .build());
+        }
+        declarables.add(new Queue(deadLetterQueueName(queue), true));
+        return new Declarables(declarables);
+    }
+
+    /**
+     * @return the delay before every retry, in milliseconds.
+     */
+    public long[] getDelays() {
+        return delays.clone();
+    }
+
+    public static String retryQueueName(String queue, long delayMillis) {
+        return queue + ".retry." + delayMillis;
+    }
+
+    public static String deadLetterQueueName(String queue) {
+        return queue + ".dlq";
+    }
+
+    private static boolean isFatal(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof AmqpRejectAndDontRequeueException || t instanceof MessageConversionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String description = root.getClass().getName() + ": " + root.getMessage();
+        return description.length() <= MAX_EXCEPTION_LENGTH ? description : description.substring(0, MAX_EXCEPTION_LENGTH);
+    }
+}
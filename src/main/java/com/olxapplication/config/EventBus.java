@@ -0,0 +1,25 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.dtos.UserMailDTO;
+
+/**
+ * Carries the user mail events (insert, update and report) and the report requests from the controllers to their consumers.
+ * The transport is chosen with the event-bus.transport property: "amqp" sends the events to the mail service through
+ * RabbitMQ, "ring" hands them to the in-process EventHandler beans through a ring buffer, where the MailEventForwarder
+ * passes them on to the mail service. The report requests always go to the queue of the report workers, which are
+ * shared between the instances of the application.
+ */
+public interface EventBus {
+    /**
+     * Publishes an event to the consumers of the bus.
+     * @param event the event to publish.
+     */
+    void publish(UserMailDTO event);
+
+    /**
+     * Queues a report request for the report workers.
+     * @param request the report request.
+     */
+    void publish(ReportRequestDTO request);
+}
@@ -0,0 +1,16 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.UserMailDTO;
+
+/**
+ * Consumer of the events of the in-process event bus. Every handler bean receives every event, in publishing order.
+ */
+public interface EventHandler {
+    /**
+     * Handles one event.
+     * @param event the event.
+     * @param sequence the position of the event on the bus.
+     * @param endOfBatch true for the last event of the batch available to the handler, where buffered work can be flushed.
+     */
+    void onEvent(UserMailDTO event, long sequence, boolean endOfBatch) throws Exception;
+}
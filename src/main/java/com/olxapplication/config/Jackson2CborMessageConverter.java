@@ -0,0 +1,47 @@
+package com.olxapplication.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJackson2MessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+
+/**
+ * Message converter writing the payloads as CBOR, the binary form of the JSON data model.
+ * The messages keep the structure and the type headers of the JSON converter, only their body is smaller and faster
+ * to encode and decode. The body is read as bytes: the base converter reads it as text, which only fits JSON.
+ */
+public class Jackson2CborMessageConverter extends AbstractJackson2MessageConverter {
+    public static final String CONTENT_TYPE_CBOR = "application/cbor";
+
+    public Jackson2CborMessageConverter() {
+        this(CBORMapper.builder().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build());
+    }
+
+    public Jackson2CborMessageConverter(ObjectMapper cborMapper) {
+        super(cborMapper, MimeType.valueOf(CONTENT_TYPE_CBOR), "com.olxapplication.dtos");
+    }
+
+    @Override
+    public Object fromMessage(Message message, Object conversionHint) {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties.getContentType() == null || !properties.getContentType().contains(getSupportedContentType().getSubtype())) {
+            return message.getBody();
+        }
+        JavaType targetType = conversionHint instanceof ParameterizedTypeReference<?> typeReference
+                ? objectMapper.constructType(typeReference.getType())
+                : getJavaTypeMapper().toJavaType(properties);
+        try {
+            return objectMapper.readValue(message.getBody(), targetType);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to convert the CBOR message content", e);
+        }
+    }
+}
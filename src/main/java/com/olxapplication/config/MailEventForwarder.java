@@ -0,0 +1,22 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.UserMailDTO;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handler of the in-process event bus that hands the user mail events over to the mail service, through the spool of
+ * the RabbitMQSender, so the ring transport delivers the same mails as the amqp one.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "event-bus.transport", havingValue = "ring")
+public class MailEventForwarder implements EventHandler {
+    private final RabbitMQSender rabbitMQSender;
+
+    @Override
+    public void onEvent(UserMailDTO event, long sequence, boolean endOfBatch) {
+        rabbitMQSender.send(event);
+    }
+}
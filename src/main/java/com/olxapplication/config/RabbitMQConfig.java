@@ -1,21 +1,29 @@
 package com.olxapplication.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olxapplication.spool.MessageSpool;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.rabbit.listener.ConditionalRejectingErrorHandler;
 import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.util.ErrorHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
 @EnableRabbit
 @Configuration
 public class RabbitMQConfig {
@@ -31,6 +39,8 @@ public class RabbitMQConfig {
     private String password;
     @Value("${rabbitmq.host}")
     private String host;
+    @Value("${rabbitmq.port}")
+    private Integer port;
     @Value("${rabbitmq.virtualhost}")
     private String virtualHost;
     @Value("${rabbitmq.reply.timeout}")
@@ -39,10 +49,60 @@ public class RabbitMQConfig {
     private Integer concurrentConsumers;
     @Value("${rabbitmq.max.concurrent.consumers}")
     private Integer maxConcurrentConsumers;
+    @Value("${rabbitmq.channel.cache-size}")
+    private Integer channelCacheSize;
+    @Value("${rabbitmq.channel.checkout-timeout-ms}")
+    private Long channelCheckoutTimeout;
+    @Value("${rabbitmq.content-type}")
+    private String contentType;
+    @Value("${rabbitmq.prefetch}")
+    private Integer prefetch;
+    @Value("${rabbitmq.report.queue}")
+    private String reportQueueName;
+    @Value("${rabbitmq.report.routingkey}")
+    private String reportRoutingKey;
+    @Value("${rabbitmq.report.prefetch}")
+    private Integer reportPrefetch;
+    @Value("${rabbitmq.report.concurrent.consumers}")
+    private Integer reportConcurrentConsumers;
+    @Value("${rabbitmq.report.max.concurrent.consumers}")
+    private Integer reportMaxConcurrentConsumers;
+    @Value("${rabbitmq.report.consecutive-active-trigger}")
+    private Integer reportConsecutiveActiveTrigger;
+    @Value("${rabbitmq.report.consecutive-idle-trigger}")
+    private Integer reportConsecutiveIdleTrigger;
+    @Value("${rabbitmq.retry.initial-delay-ms}")
+    private Long retryInitialDelay;
+    @Value("${rabbitmq.retry.multiplier}")
+    private Double retryMultiplier;
+    @Value("${rabbitmq.retry.max-attempts}")
+    private Integer retryMaxAttempts;
+    @Value("${rabbitmq.retry.confirm-timeout-ms}")
+    private Long retryConfirmTimeout;
     @Bean
     public Queue queue() {
         return new Queue(queueName, false);
     }
+    /**
+     * Durable work queue of the report requests, shared by the report workers of all the instances.
+     */
+    @Bean
+    public Queue reportQueue() {
+        return new Queue(reportQueueName, true);
+    }
+    /**
+     * Moves the report requests a worker failed on to the delayed retry queues, and to the dead-letter queue after
+     * the last attempt.
+     */
+    @Bean
+    public DelayedRetryMessageRecoverer reportMessageRecoverer(RabbitTemplate rabbitTemplate) {
+        return new DelayedRetryMessageRecoverer(rabbitTemplate, retryInitialDelay, retryMultiplier, retryMaxAttempts,
+                retryConfirmTimeout);
+    }
+    @Bean
+    public Declarables reportRetryTopology(DelayedRetryMessageRecoverer reportMessageRecoverer) {
+        return reportMessageRecoverer.topology(reportQueueName);
+    }
     @Bean
     public DirectExchange exchange() {
         return new DirectExchange(exchange);
@@ -52,20 +112,55 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue).to(exchange).with(routingkey);
     }
     @Bean
-    public MessageConverter jsonMessageConverter() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        return new Jackson2JsonMessageConverter(objectMapper);
+    public Binding reportBinding(Queue reportQueue, DirectExchange exchange) {
+        return BindingBuilder.bind(reportQueue).to(exchange).with(reportRoutingKey);
+    }
+    @Bean
+    public MessageConverter messageConverter() {
+        return createMessageConverter(contentType);
+    }
+
+    /**
+     * Creates the converter of the AMQP payloads. Incoming messages are decoded according to their content_type, as
+     * JSON or as CBOR, so consumers accept both while the producers are switched over; outgoing messages are encoded
+     * with the given content type unless the caller sets another supported one on the message properties.
+     * @param contentType the content type of the outgoing messages, application/json or application/cbor.
+     * @return the message converter.
+     */
+    public static MessageConverter createMessageConverter(String contentType) {
+        MessageConverter json = new Jackson2JsonMessageConverter(new ObjectMapper());
+        MessageConverter cbor = new Jackson2CborMessageConverter();
+        MessageConverter outgoing = switch (contentType) {
+            case MessageProperties.CONTENT_TYPE_JSON -> json;
+            case Jackson2CborMessageConverter.CONTENT_TYPE_CBOR -> cbor;
+            default -> throw new IllegalArgumentException("Unsupported message content type " + contentType);
+        };
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(outgoing);
+        converter.addDelegate(MessageProperties.CONTENT_TYPE_JSON, json);
+        converter.addDelegate(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR, cbor);
+        return converter;
     }
     @Bean
     public ConnectionFactory connectionFactory() {
         CachingConnectionFactory connectionFactory = new CachingConnectionFactory();
         connectionFactory.setVirtualHost(virtualHost);
         connectionFactory.setHost(host);
+        connectionFactory.setPort(port);
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        connectionFactory.setChannelCacheSize(channelCacheSize);
+        connectionFactory.setChannelCheckoutTimeout(channelCheckoutTimeout);
         connectionFactory.setUsername(username);
         connectionFactory.setPassword(password);
         return connectionFactory;
     }
 
+    @Bean(destroyMethod = "close")
+    public MessageSpool messageSpool(@Value("${rabbitmq.spool.dir}") String directory,
+                                     @Value("${rabbitmq.spool.segment-size}") Integer segmentSize,
+                                     @Value("${rabbitmq.spool.fsync}") Boolean fsync) throws IOException {
+        return new MessageSpool(Path.of(directory), segmentSize, fsync);
+    }
+
     @Bean
     public AmqpAdmin amqpAdmin() {
         return new RabbitAdmin(connectionFactory());
@@ -74,9 +169,40 @@ public class RabbitMQConfig {
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory() {
         final SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory());
-        factory.setMessageConverter(jsonMessageConverter());
+        factory.setMessageConverter(messageConverter());
         factory.setConcurrentConsumers(concurrentConsumers);
         factory.setMaxConcurrentConsumers(maxConcurrentConsumers);
+        factory.setPrefetchCount(prefetch);
+        factory.setErrorHandler(errorHandler());
+        return factory;
+    }
+
+    /**
+     * Listener containers of the report workers. Reports take long to generate, so every consumer prefetches only a few
+     * requests and the backlog stays on the broker, where an idle consumer of any instance can take it.
+     * The number of consumers grows from the minimum towards the maximum while the consumers keep finding requests
+     * and shrinks back while they keep finding the queue empty.
+     * A request is acknowledged once its listener returns. A failed request is handed to the recoverer, which parks it
+     * in a delayed retry queue or the dead-letter queue, and is then acknowledged, so a request that always fails is
+     * never redelivered in a loop. A request is only requeued at once when the recoverer cannot reach the broker.
+     * Requests prefetched but not processed when a consumer stops are returned to the queue by the broker.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory reportListenerContainerFactory(DelayedRetryMessageRecoverer reportMessageRecoverer) {
+        final SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory());
+        factory.setMessageConverter(messageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        factory.setPrefetchCount(reportPrefetch);
+        factory.setConcurrentConsumers(reportConcurrentConsumers);
+        factory.setMaxConcurrentConsumers(reportMaxConcurrentConsumers);
+        factory.setConsecutiveActiveTrigger(reportConsecutiveActiveTrigger);
+        factory.setConsecutiveIdleTrigger(reportConsecutiveIdleTrigger);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(1)
+                .recoverer(reportMessageRecoverer)
+                .build());
         factory.setErrorHandler(errorHandler());
         return factory;
     }
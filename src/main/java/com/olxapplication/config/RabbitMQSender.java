@@ -1,22 +1,34 @@
 package com.olxapplication.config;
 
+import com.olxapplication.dtos.ReportRequestDTO;
 import com.olxapplication.dtos.UserDetailsDTO;
 import com.olxapplication.dtos.UserMailDTO;
+import com.olxapplication.spool.MessageSpool;
+import com.olxapplication.spool.SpooledMessage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.springframework.amqp.core.AmqpTemplate;
-import org.springframework.amqp.core.Exchange;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
+import java.io.IOException;
 
+/**
+ * Sends the user mail events to the queue of the mail service and the report requests to the report work queue.
+ * A send only appends the converted message to the local spool; the SpoolRelay publishes it to the broker in the
+ * background, so the callers do not wait for the broker and do not lose messages while it is down.
+ */
 @Service
 public class RabbitMQSender {
     @Autowired
-    private AmqpTemplate rabbitTemplate;
+    private MessageSpool spool;
+    @Autowired
+    private MessageConverter messageConverter;
     @Autowired
     private Queue queue;
     @Value("${rabbitmq.exchange}")
@@ -24,11 +36,31 @@ public class RabbitMQSender {
 
     @Value("${rabbitmq.routingkey}")
     private String routingKey;
+    @Value("${rabbitmq.report.routingkey}")
+    private String reportRoutingKey;
 
     private static Logger logger = LogManager.getLogger(RabbitMQSender.class.toString());
 
     public void send(UserMailDTO userDto) {
-        rabbitTemplate.convertAndSend(exchange, routingKey, userDto);
-        logger.info("Sending UserDto to the Queue : " + userDto.toString());
+        spool(routingKey, userDto);
+        logger.debug("Spooled the {} event of user {}", userDto.getAction(), userDto.getId());
+    }
+
+    /**
+     * Queues a report request for the report workers.
+     * @param request the report request.
+     */
+    public void send(ReportRequestDTO request) {
+        spool(reportRoutingKey, request);
+        logger.debug("Spooled the report request {}", request.getRequestId());
+    }
+
+    private void spool(String routingKey, Object payload) {
+        Message message = messageConverter.toMessage(payload, new MessageProperties());
+        try {
+            spool.append(SpooledMessage.of(exchange, routingKey, message).encode());
+        } catch (IOException e) {
+            throw new AmqpException("The message could not be spooled", e);
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.dtos.UserMailDTO;
+import com.olxapplication.entity.User;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.service.ReportService;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+
+/**
+ * Report worker: generates the reports requested on the report work queue and emails them to their requester
+ * through the event bus.
+ */
+@Component
+@AllArgsConstructor
+public class ReportRequestListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReportRequestListener.class);
+    private final ReportService reportService;
+    private final UserRepository userRepository;
+    private final EventBus eventBus;
+
+    /**
+     * Generates one requested report. A malformed request, or one whose requester no longer exists, is moved to the
+     * dead-letter queue at once; any other failure propagates and the request is retried later with a backoff.
+     * @param request the report request.
+     */
+    @RabbitListener(queues = "${rabbitmq.report.queue}", containerFactory = "reportListenerContainerFactory")
+    public void onReportRequest(ReportRequestDTO request) {
+        User requester = request.getRequesterId() == null ? null : userRepository.findById(request.getRequesterId()).orElse(null);
+        if (requester == null) {
+            throw new AmqpRejectAndDontRequeueException("The requester of report " + request.getRequestId() + " does not exist");
+        }
+        File file;
+        try {
+            file = reportService.generateReport(request);
+        } catch (PatternNotMathcedException e) {
+            throw new AmqpRejectAndDontRequeueException("Malformed report request " + request.getRequestId(), e);
+        }
+        eventBus.publish(new UserMailDTO(requester.getId()
+                , requester.getFirstName()
+                , requester.getLastName()
+                , requester.getEmail()
+                , "report"
+                , file.getPath()));
+        LOGGER.info("Report {} generated for user {}", request.getRequestId(), requester.getId());
+    }
+}
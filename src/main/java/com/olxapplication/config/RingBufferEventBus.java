@@ -0,0 +1,204 @@
+package com.olxapplication.config;
+
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.dtos.UserMailDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Event bus that delivers the events to the in-process EventHandler beans through a preallocated ring buffer.
+ * Producers claim a sequence with one atomic increment and publish the event by marking its slot with that sequence,
+ * so no lock is taken on either side. Every handler runs on its own thread and follows the producers with its own
+ * sequence: it takes all the events published since its last pass as one batch, and a producer only waits when it
+ * would overwrite a slot that the slowest handler has not consumed yet.
+ * Report requests do not go through the ring: they are queued for the report workers by the RabbitMQSender.
+ */
+@Component
+@ConditionalOnProperty(name = "event-bus.transport", havingValue = "ring")
+public class RingBufferEventBus implements EventBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RingBufferEventBus.class);
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long DRAIN_TIMEOUT_MILLIS = 5000;
+
+    private final int mask;
+    private final UserMailDTO[] entries;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<Consumer> consumers;
+    private final RabbitMQSender reportSender;
+    private volatile long cachedGatingSequence = -1;
+    private volatile boolean running = true;
+
+    @Autowired
+    public RingBufferEventBus(@Value("${event-bus.ring.buffer-size:4096}") int bufferSize,
+                              ObjectProvider<EventHandler> handlers, RabbitMQSender reportSender) {
+        this(bufferSize, handlers.orderedStream().toList(), reportSender);
+    }
+
+    public RingBufferEventBus(int bufferSize, List<EventHandler> handlers) {
+        this(bufferSize, handlers, null);
+    }
+
+    public RingBufferEventBus(int bufferSize, List<EventHandler> handlers, RabbitMQSender reportSender) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("The size of the ring buffer must be a power of two");
+        }
+        this.mask = bufferSize - 1;
+        this.entries = new UserMailDTO[bufferSize];
+        this.published = new AtomicLongArray(bufferSize);
+        this.reportSender = reportSender;
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.consumers = handlers.stream().map(Consumer::new).toList();
+        for (Consumer consumer : consumers) {
+            consumer.thread = Thread.ofVirtual().name("event-bus-" + consumer.handler.getClass().getSimpleName())
+                    .start(consumer::run);
+        }
+        if (consumers.isEmpty()) {
+            LOGGER.warn("The in-process event bus has no handlers, its events are discarded");
+        }
+    }
+
+    /**
+     * Publishes an event, waiting while the ring buffer is full.
+     * @param event the event to publish.
+     */
+    @Override
+    public void publish(UserMailDTO event) {
+        if (!running) {
+            throw new IllegalStateException("The event bus is stopped");
+        }
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long gatingSequence;
+            while (wrapPoint > (gatingSequence = minimumConsumerSequence(sequence))) {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            cachedGatingSequence = gatingSequence;
+        }
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        published.set(index, sequence);
+    }
+
+    /**
+     * Queues a report request for the report workers.
+     * @param request the report request.
+     * @throws IllegalStateException if the bus is stopped or was built without a report sender.
+     */
+    @Override
+    public void publish(ReportRequestDTO request) {
+        if (!running || reportSender == null) {
+            throw new IllegalStateException("The event bus does not accept report requests");
+        }
+        reportSender.send(request);
+    }
+
+    /**
+     * @return the sequence of the last claimed event.
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * Waits for the handlers to consume the published events and stops them.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+        while (minimumConsumerSequence(cursor.get()) < cursor.get() && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        for (Consumer consumer : consumers) {
+            consumer.stopped = true;
+            LockSupport.unpark(consumer.thread);
+            try {
+                consumer.thread.join(DRAIN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long minimumConsumerSequence(long fallback) {
+        long minimum = fallback;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * @return the highest sequence from next on whose event, and all the events before it, are published.
+     */
+    private long highestPublished(long next) {
+        long limit = next + entries.length - 1;
+        long highest = next - 1;
+        while (highest < limit && published.get((int) (highest + 1) & mask) == highest + 1) {
+            highest++;
+        }
+        return highest;
+    }
+
+    private final class Consumer {
+        private final EventHandler handler;
+        private final AtomicLong sequence = new AtomicLong(-1);
+        private volatile boolean stopped;
+        private Thread thread;
+
+        private Consumer(EventHandler handler) {
+            this.handler = handler;
+        }
+
+        private void run() {
+            int idle = 0;
+            while (!stopped) {
+                long next = sequence.get() + 1;
+                long available = highestPublished(next);
+                if (available < next) {
+                    idle = idle(idle);
+                    continue;
+                }
+                idle = 0;
+                for (long current = next; current <= available; current++) {
+                    UserMailDTO event = entries[(int) current & mask];
+                    try {
+                        handler.onEvent(event, current, current == available);
+                    } catch (Exception e) {
+                        LOGGER.error("Event handler {} failed on event {}", handler.getClass().getSimpleName(), current, e);
+                    }
+                }
+                sequence.set(available);
+            }
+        }
+
+        private int idle(int tries) {
+            if (tries < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return tries + 1;
+        }
+    }
+}
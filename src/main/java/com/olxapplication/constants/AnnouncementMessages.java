@@ -7,6 +7,7 @@ public class AnnouncementMessages {
     public static final String DISCOUNT_PATTERN_NOT_MATCHED = "The announcement discount inserted is INVALID";
     public static final String ID_PATTERN_NOT_MATCHED = "The user id or the category id inserted is INVALID";
     public static final String IMAGE_URL_NOT_MATCHED = "The image url inserted is INVALID";
+    public static final String SORT_NOT_MATCHED = "The sort inserted is INVALID: ";
 
 
     public static final String ANNOUNCEMENT_UPDATED_SUCCESSFULLY = "The announcement was updated successfully: ";
@@ -16,4 +17,10 @@ public class AnnouncementMessages {
     public static final String ANNOUNCEMENT_NOT_UPDATED = "The announcement was not updated; reason: ";
 
     public static final String ANNOUNCEMENT_NOT_FOUND = "The announcement with the provided id was not found:  ";
+    public static final String ANNOUNCEMENTS_DELETED_SUCCESSFULLY = "The number of announcements deleted: ";
+
+    public static final String IMPORT_FORMAT_NOT_SUPPORTED = "The import format is not supported: ";
+    public static final String IMPORT_HEADER_INVALID = "The import header must contain the columns: ";
+    public static final String IMPORT_ROW_MALFORMED = "The row could not be read: ";
+    public static final String IMPORT_FAILED = "The import failed; reason: ";
 }
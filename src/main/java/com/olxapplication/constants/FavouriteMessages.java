@@ -11,4 +11,10 @@ public class FavouriteMessages {
 
     public static final String ANNOUNCEMNT_ALREADY_ADDED = "Announcement has already been added in favourite list. ";
 
+    public static final String FAVOURITES_ADDED = "Announcements added to favourites: ";
+    public static final String FAVOURITES_REMOVED = "Announcements removed from favourites: ";
+    public static final String NO_ANNOUNCEMENTS_SELECTED = "No announcements have been selected";
+    public static final String CONCURRENT_CHANGE = "Favourite list is being changed by another request, please try again";
+    public static final String TOO_MANY_ANNOUNCEMENTS = "Too many announcements selected at once, the maximum is ";
+
 }
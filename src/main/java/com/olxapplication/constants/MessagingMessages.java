@@ -0,0 +1,7 @@
+package com.olxapplication.constants;
+
+public class MessagingMessages {
+    public static final String QUEUE_NOT_FOUND = "The queue has no dead-letter queue: ";
+    public static final String ADMIN_REQUIRED = "Only an admin can manage the dead-lettered messages";
+
+}
@@ -0,0 +1,12 @@
+package com.olxapplication.constants;
+
+public class PricingMessages {
+    public static final String CAMPAIGN_TARGET_INVALID = "A campaign must target exactly one category or one seller";
+    public static final String CAMPAIGN_WINDOW_INVALID = "The campaign must end after it starts";
+
+    public static final String DISCOUNT_APPLIED_SUCCESSFULLY = "The number of announcements repriced: ";
+    public static final String CAMPAIGN_SCHEDULED_SUCCESSFULLY = "The campaign was scheduled successfully: ";
+    public static final String CAMPAIGN_NOT_SCHEDULED = "The campaign was not scheduled; reason: ";
+    public static final String CAMPAIGN_NOT_FOUND = "The campaign with the provided id was not found:  ";
+    public static final String CAMPAIGN_CANCELLED_SUCCESSFULLY = "The campaign was cancelled successfully: ";
+}
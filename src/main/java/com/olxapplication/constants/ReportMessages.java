@@ -3,5 +3,9 @@ package com.olxapplication.constants;
 public class ReportMessages {
     public static final String REPORT_GENERATED_SUCCESSFULLY = "The report was generated successfully";
     public static final String REPORT_NOT_GENERATED = "The report was not generated -> ";
+    public static final String REPORT_REQUESTED = "The report was requested, it will be emailed to you when it is ready";
+    public static final String FORMAT_NOT_MATCHED = "The report format must be one of pdf, csv and txt";
+    public static final String REQUEST_ID_NOT_MATCHED = "The id of the report request must be alphanumeric";
+    public static final String MONTH_NOT_MATCHED = "The months of the report must have the yyyy-MM format";
 
 }
@@ -22,4 +22,9 @@ public class UserMessages {
 
     public static final String INVALID_PASSWORD = "The password inserted is INVALID";
     public static final String INVALID_EMAIL = "The email inserted is INVALID";
+
+    public static final String ACCESS_DENIED = "You can only access the pages of the user you are signed in as: ";
+    public static final String ADMIN_REQUIRED = "Only an admin can access this page";
+
+    public static final String SORT_NOT_MATCHED = "The users can not be sorted by: ";
 }
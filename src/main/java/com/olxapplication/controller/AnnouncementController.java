@@ -1,9 +1,24 @@
 package com.olxapplication.controller;
 
+import com.olxapplication.dtos.AnnouncementChangesDTO;
 import com.olxapplication.dtos.AnnouncementDetailsDTO;
+import com.olxapplication.dtos.CacheStatsDTO;
+import com.olxapplication.dtos.ImportReportDTO;
+import com.olxapplication.dtos.AnnouncementFilterDTO;
+import com.olxapplication.dtos.AnnouncementFilterResultDTO;
+import com.olxapplication.dtos.AnnouncementPageDTO;
+import com.olxapplication.dtos.AnnouncementSearchResultDTO;
 import com.olxapplication.dtos.AnnouncementWebDTO;
+import com.olxapplication.dtos.PopularAnnouncementDTO;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.exception.ResourceNotFoundException;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.service.AnnouncementImportService;
 import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.ChangeFeedService;
 
+import com.olxapplication.session.SessionPrincipalAdvice;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,9 +30,13 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -33,20 +52,70 @@ import java.util.List;
 @Slf4j
 public class AnnouncementController {
     private final AnnouncementService announcementService;
+    private final AnnouncementImportService announcementImportService;
+    private final ChangeFeedService changeFeedService;
+    private final PopularityTracker popularityTracker;
 
     /**
-     * Retrieves all announcements.
-     * @return ModelAndView containing all announcements.
+     * Retrieves one page of announcements, newest first.
+     * @param cursor The cursor of the page, as returned with the previous page; absent for the first page.
+     * @param limit The maximum number of announcements on the page.
+     * @return ModelAndView containing the announcements of the page and the cursor of the next page.
      */
     @GetMapping("/get")
-    public ModelAndView getAnnounces(){
-        List<AnnouncementDetailsDTO> dtos = announcementService.findAnnounces();
+    public ModelAndView getAnnounces(@RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "limit", required = false) Integer limit){
         ModelAndView mav = new ModelAndView("AdminGetAnnounces");
-        mav.addObject("announces", dtos);
+        AnnouncementPageDTO page;
+        try {
+            page = announcementService.findAnnounces(cursor, limit);
+        } catch (PatternNotMathcedException e) {
+            page = announcementService.findAnnounces(null, limit);
+            mav.addObject("message", e.getMessage());
+        }
+        mav.addObject("announces", page.getAnnounces());
+        mav.addObject("nextCursor", page.getNextCursor());
+        mav.addObject("limit", page.getLimit());
         return mav;
     }
 
+    /**
+     * Retrieves one page of announcements, newest first, as JSON.
+     * @param cursor The cursor of the page, as returned with the previous page; absent for the first page.
+     * @param limit The maximum number of announcements on the page.
+     * @param request The current request, carrying the session of the user.
+     * @return ResponseEntity containing the page and HTTP status.
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<AnnouncementPageDTO> getFeed(@RequestParam(value = "cursor", required = false) String cursor,
+                                                       @RequestParam(value = "limit", required = false) Integer limit){
+        try {
+            return new ResponseEntity<>(announcementService.findAnnounces(cursor, limit), HttpStatus.OK);
+        } catch (PatternNotMathcedException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
 
+    /**
+     * Retrieves one page of the announcements not posted by a specific user, newest first, as JSON.
+     * @param userId The ID of the user.
+     * @param cursor The cursor of the page, as returned with the previous page; absent for the first page.
+     * @param limit The maximum number of announcements on the page.
+     * @param request The current request, carrying the session of the user.
+     * @return ResponseEntity containing the page and HTTP status.
+     */
+    @GetMapping("/feed/{id}")
+    public ResponseEntity<AnnouncementPageDTO> getOthersFeed(@PathVariable("id") String userId,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "limit", required = false) Integer limit,
+                                                             HttpServletRequest request){
+        SessionPrincipalAdvice.requireUser(request, userId);
+        try {
+            return new ResponseEntity<>(announcementService.findOtherAnnounces(userId, cursor, limit), HttpStatus.OK);
+        } catch (PatternNotMathcedException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
 
 //    /**
 //     * Retrieves all announcements by user ID.
@@ -85,6 +154,33 @@ public class AnnouncementController {
         return mav;
     }
 
+    /**
+     * Imports announcements in bulk from an uploaded CSV or JSON lines file.
+     * @param file The file holding the announcements.
+     * @param format The format of the file, "csv" or "jsonl"; deduced from the file name if absent.
+     * @param request The current request, carrying the session of the admin.
+     * @return ResponseEntity containing the import report and HTTP status.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ImportReportDTO> importAnnouncements(@RequestParam("file") MultipartFile file,
+                                                               @RequestParam(value = "format", required = false) String format,
+                                                               HttpServletRequest request) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        if (format == null || format.isBlank()) {
+            String fileName = file.getOriginalFilename() == null ? "" : file.getOriginalFilename();
+            format = fileName.substring(fileName.lastIndexOf('.') + 1);
+        }
+        try (InputStream inputStream = file.getInputStream()) {
+            return new ResponseEntity<>(announcementImportService.importAnnouncements(inputStream, format), HttpStatus.OK);
+        } catch (PatternNotMathcedException e) {
+            log.error(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (IOException e) {
+            log.error(e.getMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Inserts a new announcement by a specific user.
      * @param id The ID of the user.
@@ -111,6 +207,65 @@ public class AnnouncementController {
 //        return new ResponseEntity<>(announcementDetailsDTO, HttpStatus.OK);
 //    }
 
+    /**
+     * Retrieves the details of a specific announcement by ID, as JSON.
+     * @param announcementId The ID of the announcement.
+     * @return ResponseEntity containing the announcement details and HTTP status.
+     */
+    @GetMapping("/details/{id}")
+    public ResponseEntity<AnnouncementDetailsDTO> getAnnouncementDetails(@PathVariable("id") String announcementId) {
+        try {
+            return new ResponseEntity<>(announcementService.findAnnouncementById(announcementId), HttpStatus.OK);
+        } catch (ResourceNotFoundException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Retrieves the inserts, updates and deletes of announcements written after a position of the change feed, as JSON.
+     * @param since the version of the last change already seen; 0 or absent reads the feed from the beginning.
+     * @param afterId the announcement id of the last change already seen, as returned in nextAfterId.
+     * @param limit the maximum number of changes.
+     * @return ResponseEntity containing the page of changes and HTTP status.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<AnnouncementChangesDTO> getChanges(@RequestParam(value = "since", required = false) Long since,
+                                                             @RequestParam(value = "afterId", required = false) String afterId,
+                                                             @RequestParam(value = "limit", required = false) Integer limit){
+        return new ResponseEntity<>(changeFeedService.findChanges(since, afterId, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the size and the hit, miss and eviction counters of the announcement details cache, as JSON.
+     * @return ResponseEntity containing the cache statistics and HTTP status.
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return new ResponseEntity<>(announcementService.getDetailsCacheStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the most favourited announcements with their favourite counts, as JSON.
+     * @param limit The maximum number of announcements.
+     * @return ResponseEntity containing the ranking and HTTP status.
+     */
+    @GetMapping("/popular")
+    public ResponseEntity<List<PopularAnnouncementDTO>> getPopular(@RequestParam(value = "limit", required = false) Integer limit) {
+        return new ResponseEntity<>(popularityTracker.top(limit), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the most favourited announcements of a category with their favourite counts, as JSON.
+     * @param categoryId The ID of the category.
+     * @param limit The maximum number of announcements.
+     * @return ResponseEntity containing the ranking and HTTP status.
+     */
+    @GetMapping("/popular/{categoryId}")
+    public ResponseEntity<List<PopularAnnouncementDTO>> getPopularInCategory(@PathVariable("categoryId") String categoryId,
+                                                                             @RequestParam(value = "limit", required = false) Integer limit) {
+        return new ResponseEntity<>(popularityTracker.top(categoryId, limit), HttpStatus.OK);
+    }
+
     /**
      * Retrieves all announcements by a specific user.
      * @param userId The ID of the user.
@@ -136,47 +291,125 @@ public class AnnouncementController {
 //    }
 
     /**
-     * Retrieves all announcements except those by a specific user.
+     * Searches the title and the description of the announcements, best match first, as JSON.
+     * @param query The text to search for.
+     * @param excludedUserId The ID of a user whose announcements are left out; optional.
+     * @param page The zero based index of the page.
+     * @param size The size of the page.
+     * @return ResponseEntity containing the page of results and HTTP status.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<AnnouncementSearchResultDTO> search(@RequestParam("q") String query,
+                                                              @RequestParam(value = "excludeUser", required = false) String excludedUserId,
+                                                              @RequestParam(value = "page", required = false) Integer page,
+                                                              @RequestParam(value = "size", required = false) Integer size){
+        return new ResponseEntity<>(announcementService.searchAnnounces(query, excludedUserId, page, size), HttpStatus.OK);
+    }
+
+    /**
+     * Filters and sorts the announcements, returning one page of them and the bucket counts of the facets, as JSON.
+     * @param filter The criteria, the sort ("field,direction;...") and the page of the listing.
+     * @return ResponseEntity containing the page of results and HTTP status.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<AnnouncementFilterResultDTO> filter(@ModelAttribute AnnouncementFilterDTO filter){
+        try {
+            return new ResponseEntity<>(announcementService.filterAnnounces(filter), HttpStatus.OK);
+        } catch (PatternNotMathcedException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Retrieves the announcements except those by a specific user.
+     * A search text ranks the announcements by their title and description; without any filter the newest announcements
+     * are shown one page at a time; otherwise the filtered announcements are shown with the counts of their facets.
      * @param userId The ID of the user.
-     * @param categoryName The string that match category names to filter the announcements by their category .
+     * @param filter The category name, price, discount and date criteria, the sort and the page of the listing.
+     * @param query The text searched in the title and the description of the announcements.
+     * @param cursor The cursor of the page, as returned with the previous page; absent for the first page.
+     * @param request The current request, carrying the session of the user.
      * @return ModelAndView containing the other users' announcements.
      */
     @GetMapping("/getOthers/{id}")
-    public ModelAndView getOtherAnnouncements(@PathVariable("id") String userId, @ModelAttribute("categoryName") String categoryName) {
-        List<AnnouncementDetailsDTO> dtos = announcementService.findAnnouncementByCategoryNameAndNotUser(categoryName, userId);
-        List<AnnouncementDetailsDTO> reversedDtos = dtos.reversed();
+    public ModelAndView getOtherAnnouncements(@PathVariable("id") String userId, @ModelAttribute("filter") AnnouncementFilterDTO filter,
+                                              @RequestParam(value = "q", required = false) String query,
+                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                              HttpServletRequest request) {
+        SessionPrincipalAdvice.requireUser(request, userId);
         ModelAndView mav = new ModelAndView("UserGetOtherAnnounces");
-        mav.addObject("announces", dtos);
-        mav.addObject("reversed", reversedDtos);
-        return mav;
+        if (query != null && !query.isBlank()) {
+            AnnouncementSearchResultDTO result = announcementService.searchAnnounces(query, userId, filter.getPage(), filter.getLimit());
+            mav.addObject("announces", result.getAnnounces());
+            mav.addObject("search", result);
+            return mav;
+        }
+        if (filter.isEmpty()) {
+            AnnouncementPageDTO feed;
+            try {
+                feed = announcementService.findOtherAnnounces(userId, cursor, filter.getLimit());
+            } catch (PatternNotMathcedException e) {
+                feed = announcementService.findOtherAnnounces(userId, null, filter.getLimit());
+                mav.addObject("message", e.getMessage());
+            }
+            mav.addObject("announces", feed.getAnnounces());
+            mav.addObject("nextCursor", feed.getNextCursor());
+            mav.addObject("limit", feed.getLimit());
+            return mav;
+        }
+        if (filter.getSort() == null || filter.getSort().isBlank()) {
+            filter.setSort("newPrice,asc");
+        }
+        return filteredView(mav, userId, filter);
     }
 
     /**
-     * Displays the announcements that are not posted by the user with the specified ID, ordered descending by their newPrice.
+     * Displays the announcements that are not posted by the user with the specified ID, ordered ascending by their newPrice.
      * @param userId The ID of the user.
-     * @param categoryName The string that match category names to filter the announcements by their category .
+     * @param filter The category name, price, discount and date criteria and the page of the listing.
+     * @param request The current request, carrying the session of the user.
      * @return ModelAndView "UserGetOtherAnnounces".
      */
     @GetMapping("/getOthers/0/{id}")
-    public ModelAndView getOtherAnnouncementsAsc(@PathVariable("id") String userId, @ModelAttribute("categoryName") String categoryName) {
-        List<AnnouncementDetailsDTO> dtos = announcementService.findAnnouncementByCategoryNameAndNotUser(categoryName, userId);
-        ModelAndView mav = new ModelAndView("UserGetOtherAnnounces");
-        mav.addObject("announces", dtos);
-        return mav;
+    public ModelAndView getOtherAnnouncementsAsc(@PathVariable("id") String userId, @ModelAttribute("filter") AnnouncementFilterDTO filter,
+                                                 HttpServletRequest request) {
+        SessionPrincipalAdvice.requireUser(request, userId);
+        filter.setSort("newPrice,asc");
+        return filteredView(new ModelAndView("UserGetOtherAnnounces"), userId, filter);
     }
 
     /**
-     * Displays the announcements that are not posted by the user with the specified ID, ordered ascending by their newPrice.
+     * Displays the announcements that are not posted by the user with the specified ID, ordered descending by their newPrice.
      * @param userId The ID of the user.
-     * @param categoryName The string that match category names to filter the announcements by their category .
+     * @param filter The category name, price, discount and date criteria and the page of the listing.
+     * @param request The current request, carrying the session of the user.
      * @return ModelAndView "UserGetOtherAnnounces".
      */
     @GetMapping("/getOthers/1/{id}")
-    public ModelAndView getOtherAnnouncementsDesc(@PathVariable("id") String userId, @ModelAttribute("categoryName") String categoryName) {
-        List<AnnouncementDetailsDTO> dtos = announcementService.findAnnouncementByCategoryNameAndNotUser(categoryName, userId);
-        List<AnnouncementDetailsDTO> reversedDtos = dtos.reversed();
-        ModelAndView mav = new ModelAndView("UserGetOtherAnnounces");
-        mav.addObject("announces", reversedDtos);
+    public ModelAndView getOtherAnnouncementsDesc(@PathVariable("id") String userId, @ModelAttribute("filter") AnnouncementFilterDTO filter,
+                                                 HttpServletRequest request) {
+        SessionPrincipalAdvice.requireUser(request, userId);
+        filter.setSort("newPrice,desc");
+        return filteredView(new ModelAndView("UserGetOtherAnnounces"), userId, filter);
+    }
+
+    /**
+     * Adds to the view one page of the filtered announcements not posted by the user, and the counts of their facets.
+     * An invalid sort falls back to the newest announcements first.
+     */
+    private ModelAndView filteredView(ModelAndView mav, String userId, AnnouncementFilterDTO filter) {
+        filter.setExcludedUserId(userId);
+        AnnouncementFilterResultDTO result;
+        try {
+            result = announcementService.filterAnnounces(filter);
+        } catch (PatternNotMathcedException e) {
+            filter.setSort(null);
+            result = announcementService.filterAnnounces(filter);
+            mav.addObject("message", e.getMessage());
+        }
+        mav.addObject("announces", result.getAnnounces());
+        mav.addObject("filterResult", result);
+        mav.addObject("facets", result.getFacets());
         return mav;
     }
 
@@ -195,6 +428,39 @@ public class AnnouncementController {
         return mav;
     }
 
+    /**
+     * Deletes announcements in bulk by their IDs.
+     * @param ids The IDs of the announcements, separated by commas, spaces or new lines.
+     * @param request The current request, carrying the session of the admin.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView redirecting to "/announcement/get".
+     */
+    @PostMapping("/deleteBulk")
+    public ModelAndView deleteAnnouncements(@RequestParam("ids") String ids, HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        String msg = announcementService.deleteAnnouncementsByIds(Arrays.asList(ids.split("[,\\s]+")));
+        ModelAndView mav = new ModelAndView("redirect:/announcement/get");
+        redirectAttributes.addFlashAttribute("message", msg);
+        return mav;
+    }
+
+    /**
+     * Deletes all the announcements posted by a specific user.
+     * @param userId The ID of the user.
+     * @param request The current request, carrying the session of the admin.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView redirecting to "/announcement/get".
+     */
+    @PostMapping("/deleteByUser")
+    public ModelAndView deleteAnnouncementsByUser(@RequestParam("user") String userId, HttpServletRequest request,
+                                                  RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        String msg = announcementService.deleteAnnouncementsByUserId(userId.trim());
+        ModelAndView mav = new ModelAndView("redirect:/announcement/get");
+        redirectAttributes.addFlashAttribute("message", msg);
+        return mav;
+    }
+
     /**
      * Deletes a specific announcement by ID for a specific user.
      * @param announcementId The ID of the announcement.
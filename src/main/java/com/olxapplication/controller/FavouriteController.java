@@ -1,7 +1,8 @@
 package com.olxapplication.controller;
 
-import com.olxapplication.entity.Favourite;
 import com.olxapplication.service.FavouriteService;
+import com.olxapplication.session.SessionPrincipalAdvice;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,6 +11,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 /**
  * This controller class provides API endpoints for managing favourite announcements within the application.
  */
@@ -23,27 +26,72 @@ public class FavouriteController {
     private final FavouriteService favouriteService;
 
     /**
-     * Displays the favourite announcements in user's favourite list.
+     * Displays one page of the favourite announcements in user's favourite list, newest first, and the total of the list.
      * @param userId The ID of the user.
+     * @param page The zero based index of the page.
+     * @param size The size of the page.
+     * @param request The current request, carrying the session of the user.
      * @return ModelAndView "Favourites".
      */
     @GetMapping("/get/{id}")
-    public ModelAndView getAnnounces(@PathVariable("id") String userId) {
+    public ModelAndView getAnnounces(@PathVariable("id") String userId,
+                                     @RequestParam(value = "page", required = false) Integer page,
+                                     @RequestParam(value = "size", required = false) Integer size,
+                                     HttpServletRequest request) {
+        SessionPrincipalAdvice.requireUser(request, userId);
         ModelAndView mav = new ModelAndView("Favourites");
-        Favourite favourite = favouriteService.findByUserId(userId);
-        mav.addObject("favourite", favourite);
+        mav.addObject("favouritePage", favouriteService.findFavouritePage(userId, page, size));
         return mav;
     }
 
+    /**
+     * Adds many announcements to the user's favourite list at once.
+     * @param userId The ID of the user.
+     * @param announcementIds The announcements to be added in favourite list.
+     * @param request The current request, carrying the session of the user.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView "/favourite/get/{id}".
+     */
+    @PostMapping("/add/{id}")
+    public ModelAndView addAnnouncementsToFavourites(@PathVariable("id") String userId,
+                                                     @RequestParam(value = "announcementIds", required = false) List<String> announcementIds,
+                                                     HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireUser(request, userId);
+        String msg = favouriteService.insertAnnouncements(userId, announcementIds);
+        redirectAttributes.addFlashAttribute("message", msg);
+        return new ModelAndView("redirect:/favourite/get/{id}");
+    }
+
+    /**
+     * Deletes many announcements from the user's favourite list at once.
+     * @param userId The ID of the user.
+     * @param announcementIds The announcements to be removed from favourite list.
+     * @param request The current request, carrying the session of the user.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView "/favourite/get/{id}".
+     */
+    @PostMapping("/remove/{id}")
+    public ModelAndView removeAnnouncementsFromFavourites(@PathVariable("id") String userId,
+                                                          @RequestParam(value = "announcementIds", required = false) List<String> announcementIds,
+                                                          HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireUser(request, userId);
+        String msg = favouriteService.deleteAnnouncements(userId, announcementIds);
+        redirectAttributes.addFlashAttribute("message", msg);
+        return new ModelAndView("redirect:/favourite/get/{id}");
+    }
+
     /**
      * Adds an announcement to the user's favourite list.
      * @param userId The ID of the user.
      * @param announcementId the announcement to be added in favourite list.
+     * @param request The current request, carrying the session of the user.
      * @param redirectAttributes Redirect attributes( the response message to be displayed ).
      * @return ModelAndView "/favourite/get/{id}".
      */
     @PostMapping("/add/{id}/{announcementId}")
-    public ModelAndView addAnnouncementToFavourites(@PathVariable("id") String userId, @PathVariable("announcementId") String announcementId,  RedirectAttributes redirectAttributes) {
+    public ModelAndView addAnnouncementToFavourites(@PathVariable("id") String userId, @PathVariable("announcementId") String announcementId,
+                                                    HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireUser(request, userId);
         String msg = favouriteService.insertAnnouncement(userId, announcementId);
         redirectAttributes.addFlashAttribute("message", msg);
         ModelAndView mav = new ModelAndView("redirect:/favourite/get/{id}");
@@ -54,11 +102,14 @@ public class FavouriteController {
      * Delete an announcement from the user's favourite list.
      * @param userId The ID of the user.
      * @param announcementId the announcement to be removed from favourite list.
+     * @param request The current request, carrying the session of the user.
      * @param redirectAttributes Redirect attributes( the response message to be displayed ).
      * @return ModelAndView "/favourite/get/{id}".
      */
     @PostMapping("/remove/{id}/{announcementId}")
-    public ModelAndView removeAnnouncementFromFavourites(@PathVariable("id") String userId,@PathVariable("announcementId") String announcementId,  RedirectAttributes redirectAttributes) {
+    public ModelAndView removeAnnouncementFromFavourites(@PathVariable("id") String userId,@PathVariable("announcementId") String announcementId,
+                                                         HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireUser(request, userId);
         String msg = favouriteService.deleteAnnouncement(userId, announcementId);
         redirectAttributes.addFlashAttribute("message", msg);
         ModelAndView mav = new ModelAndView("redirect:/favourite/get/{id}");
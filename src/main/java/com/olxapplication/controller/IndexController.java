@@ -1,8 +1,11 @@
 package com.olxapplication.controller;
 
-import com.olxapplication.dtos.UserDetailsDTO;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.exception.ResourceNotFoundException;
 import com.olxapplication.service.UserService;
-import com.olxapplication.entity.User;
+import com.olxapplication.session.SessionPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,9 +14,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-import java.util.Optional;
-
 
 /**
  * Controller for handling requests to the index page.
@@ -30,38 +30,50 @@ public class IndexController {
 
     /**
      * Handles GET requests to the HomePage -- The login page.
+     * Coming back to the login page signs out the principal of the session.
+     * @param request the current request.
      * @return ModelAndView "HomePage".
      */
     @GetMapping("/HomePage")
-    public ModelAndView logIn(){
-        List<UserDetailsDTO> users = userService.findUsers();
-        ModelAndView mav = new ModelAndView("HomePage");
-        mav.addObject("users", users);
-        return mav;
+    public ModelAndView logIn(HttpServletRequest request){
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            session.removeAttribute(SessionPrincipal.SESSION_ATTRIBUTE);
+        }
+        return new ModelAndView("HomePage");
     }
 
     /**
-     * Redirect the user based on their role.
+     * Signs the user in and redirects them based on their role.
+     * The user is looked up once; the resolved principal is stored in a fresh session for the following requests.
      * @param email The email of the user.
      * @param password The password of the user.
+     * @param request the current request.
      * @param redirectAttributes Redirect attributes( the response message to be displayed ).
      * @return ModelAndView redirects to a specific url.
      */
     @PostMapping("/redirectPage")
-    public ModelAndView redirectBasedOnRole(@ModelAttribute("userEmail") String email, @ModelAttribute("userPassword") String password, RedirectAttributes redirectAttributes, RedirectAttributes redirectAttributesNume){
+    public ModelAndView redirectBasedOnRole(@ModelAttribute("userEmail") String email, @ModelAttribute("userPassword") String password, HttpServletRequest request, RedirectAttributes redirectAttributes){
         ModelAndView mav = new ModelAndView();
-        System.out.println("a ajuns in redirectBasedOnRole");
-        if(userService.checkUser(email, password).equals("admin")) {
+        SessionPrincipal principal;
+        try {
+            principal = userService.authenticate(email, password);
+        } catch (ResourceNotFoundException | PatternNotMathcedException e) {
+            redirectAttributes.addFlashAttribute("message", e.getMessage());
+            mav.setViewName("redirect:/index/HomePage");
+            return mav;
+        }
+        request.getSession(true);
+        request.changeSessionId();
+        request.getSession().setAttribute(SessionPrincipal.SESSION_ATTRIBUTE, principal);
+        if(principal.isAdmin()) {
             mav.setViewName("redirect:/user/get");
+        } else if (SessionPrincipal.USER.equals(principal.role())) {
+            redirectAttributes.addFlashAttribute("userMessage", "Hello, " + principal.displayName());
+            mav.setViewName("redirect:/announcement/getOthers/" + principal.id());
         } else {
-            if(userService.checkUser(email, password).equals("user")) {
-                Optional<User> user = userService.findUserByEmail(email);
-                redirectAttributesNume.addFlashAttribute("userMessage", "Hello, " + user.get().getFirstName() + " " + user.get().getLastName());
-                mav.setViewName("redirect:/announcement/getOthers/" + user.get().getId());
-            } else {
-                redirectAttributes.addFlashAttribute("message", userService.checkUser(email, password));
-                mav.setViewName("redirect:/index/HomePage");
-            }
+            redirectAttributes.addFlashAttribute("message", principal.role());
+            mav.setViewName("redirect:/index/HomePage");
         }
         return mav;
     }
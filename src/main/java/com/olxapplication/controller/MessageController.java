@@ -2,21 +2,26 @@ package com.olxapplication.controller;
 
 import com.olxapplication.dtos.AnnouncementDetailsDTO;
 import com.olxapplication.dtos.AnnouncementWebDTO;
+import com.olxapplication.dtos.ChatPageDTO;
+import com.olxapplication.dtos.ConversationPageDTO;
 import com.olxapplication.dtos.MessageWebDTO;
-import com.olxapplication.entity.Message;
-import com.olxapplication.entity.User;
 import com.olxapplication.service.MessageService;
+import com.olxapplication.session.SessionPrincipalAdvice;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 /**
  * This controller class provides API endpoints for managing messages within the application.
@@ -35,11 +40,14 @@ public class MessageController {
     /**
      * Send a message from sender to receiver.
      * @param messageWebDTO The message DTO containing the sender, the receiver and the actual message.
+     * @param request The current request, carrying the session of the sender.
      * @param redirectAttributes Redirect attributes( the response message to be displayed ).
      * @return ModelAndView redirecting to the chat between the two users.
      * */
     @PostMapping("/send")
-    public ModelAndView sendMessage(@ModelAttribute("msg") MessageWebDTO messageWebDTO, RedirectAttributes redirectAttributes) {
+    public ModelAndView sendMessage(@ModelAttribute("msg") MessageWebDTO messageWebDTO, HttpServletRequest request,
+                                    RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireUser(request, messageWebDTO.getSender());
         String msg = messageService.insert(messageWebDTO);
         ModelAndView mav = new ModelAndView("redirect:/message/chat/" + messageWebDTO.getSender() + "/" + messageWebDTO.getReceiver());
         redirectAttributes.addFlashAttribute("message", msg);
@@ -47,29 +55,60 @@ public class MessageController {
     }
 
     /**
-     * Displays the correspondents of the user with the specified id.
+     * Displays one page of the conversations of the user with the specified id, latest activity first.
      * @param id The id of the user.
+     * @param page The zero based index of the page.
+     * @param size The size of the page.
+     * @param request The current request, carrying the session of the user.
      * @return ModelAndView "Corespondents".
      * */
     @GetMapping("/messages/{id}")
-    public ModelAndView getCorespondents(@PathVariable("id") String id){
-        List<User> users = messageService.findCorespondents(id);
+    public ModelAndView getCorespondents(@PathVariable("id") String id,
+                                         @RequestParam(value = "page", required = false) Integer page,
+                                         @RequestParam(value = "size", required = false) Integer size,
+                                         HttpServletRequest request){
+        SessionPrincipalAdvice.requireUser(request, id);
+        ConversationPageDTO conversationPage = messageService.findConversations(id, page, size);
         ModelAndView mav = new ModelAndView("Corespondents");
-        mav.addObject("users", users);
+        mav.addObject("conversationPage", conversationPage);
         return mav;
     }
 
     /**
-     * Displays the chat between a user and its specified correspondent.
+     * Displays the latest messages of the chat between a user and its specified correspondent.
      * @param id The id of the user.
      * @param corespondentId The id of the correspondent.
+     * @param request The current request, carrying the session of the user.
      * @return ModelAndView "ChatNou".
      * */
     @GetMapping("/chat/{id}/{corespondentId}")
-    public ModelAndView getChat(@PathVariable("id") String id, @PathVariable("corespondentId") String corespondentId){
-        List<Message> messages = messageService.findChat(id, corespondentId);
+    public ModelAndView getChat(@PathVariable("id") String id, @PathVariable("corespondentId") String corespondentId,
+                                HttpServletRequest request){
+        SessionPrincipalAdvice.requireUser(request, id);
+        ChatPageDTO chatPage = messageService.findChat(id, corespondentId, null, null, null);
         ModelAndView mav = new ModelAndView("ChatNou");
-        mav.addObject("msgs", messages);
+        mav.addObject("chatPage", chatPage);
         return mav;
     }
+
+    /**
+     * Retrieves the messages of a chat sent before the oldest message already shown, as JSON.
+     * @param id The id of the user.
+     * @param corespondentId The id of the correspondent.
+     * @param beforeDate The date of the oldest message already shown.
+     * @param beforeId The id of the oldest message already shown.
+     * @param limit The maximum number of messages.
+     * @param request The current request, carrying the session of the user.
+     * @return ResponseEntity containing the older messages, oldest first, and HTTP status.
+     * */
+    @GetMapping("/chat/{id}/{corespondentId}/history")
+    public ResponseEntity<ChatPageDTO> getChatHistory(@PathVariable("id") String id,
+                                                      @PathVariable("corespondentId") String corespondentId,
+                                                      @RequestParam("beforeDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeDate,
+                                                      @RequestParam("beforeId") String beforeId,
+                                                      @RequestParam(value = "limit", required = false) Integer limit,
+                                                      HttpServletRequest request){
+        SessionPrincipalAdvice.requireUser(request, id);
+        return new ResponseEntity<>(messageService.findChat(id, corespondentId, beforeDate, beforeId, limit), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,85 @@
+package com.olxapplication.controller;
+
+import com.olxapplication.config.AsyncRabbitPublisher;
+import com.olxapplication.constants.MessagingMessages;
+import com.olxapplication.dtos.DeadLetterDTO;
+import com.olxapplication.dtos.PublisherStatsDTO;
+import com.olxapplication.dtos.ResponseMessageDto;
+import com.olxapplication.service.DeadLetterService;
+import com.olxapplication.session.SessionPrincipal;
+import com.olxapplication.session.SessionPrincipalAdvice;
+import com.olxapplication.spool.MessageSpool;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * This controller class exposes the state of the outgoing messaging pipeline and the dead-lettered messages.
+ */
+@Controller
+@CrossOrigin
+@RequestMapping(value = "/messaging")
+@Setter
+@Getter
+@AllArgsConstructor
+public class MessagingController {
+    private final AsyncRabbitPublisher publisher;
+    private final MessageSpool spool;
+    private final DeadLetterService deadLetterService;
+
+    /**
+     * Retrieves the publish rate, the confirm latency, the ack and nack counters and the spool backlog, as JSON.
+     * @return ResponseEntity containing the publisher statistics and HTTP status.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<PublisherStatsDTO> getStats() {
+        return new ResponseEntity<>(publisher.getStats(spool.backlogBytes()), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the oldest messages of the dead-letter queue of a queue, as JSON, leaving them in the queue.
+     * @param queue The name of the original queue.
+     * @param limit The maximum number of messages to retrieve.
+     * @param request The current request, carrying the session of the admin.
+     * @return ResponseEntity containing the dead-lettered messages and HTTP status.
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<DeadLetterDTO>> getDeadLetters(@RequestParam("queue") String queue,
+                                                              @RequestParam(value = "limit", required = false) Integer limit,
+                                                              HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+        }
+        return new ResponseEntity<>(deadLetterService.inspect(queue, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Moves a batch of the oldest dead-lettered messages of a queue back to the queue.
+     * @param queue The name of the original queue.
+     * @param limit The maximum number of messages to replay.
+     * @param request The current request, carrying the session of the admin.
+     * @return ResponseEntity containing the number of replayed messages and HTTP status.
+     */
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<ResponseMessageDto> replayDeadLetters(@RequestParam("queue") String queue,
+                                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                                HttpServletRequest request) {
+        if (!isAdmin(request)) {
+            return new ResponseEntity<>(new ResponseMessageDto(HttpStatus.FORBIDDEN.name(), MessagingMessages.ADMIN_REQUIRED), HttpStatus.FORBIDDEN);
+        }
+        int replayed = deadLetterService.replay(queue, limit);
+        return new ResponseEntity<>(new ResponseMessageDto(HttpStatus.OK.name(), "Replayed " + replayed + " messages"), HttpStatus.OK);
+    }
+
+    private static boolean isAdmin(HttpServletRequest request) {
+        SessionPrincipal principal = SessionPrincipalAdvice.current(request);
+        return principal != null && principal.isAdmin();
+    }
+}
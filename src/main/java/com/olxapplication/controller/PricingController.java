@@ -0,0 +1,106 @@
+package com.olxapplication.controller;
+
+import com.olxapplication.dtos.DiscountCampaignDTO;
+import com.olxapplication.service.PricingService;
+import com.olxapplication.session.SessionPrincipalAdvice;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.util.List;
+
+/**
+ * This controller class provides API endpoints for repricing announcements in bulk and managing discount campaigns.
+ */
+@Controller
+@CrossOrigin
+@RequestMapping(value = "/pricing")
+@Setter
+@Getter
+@AllArgsConstructor
+public class PricingController {
+    private final PricingService pricingService;
+
+    /**
+     * Applies a discount to every announcement of a category.
+     * @param categoryId The ID of the category.
+     * @param discount The discount percentage; 0 removes the discount.
+     * @param request The current request, carrying the session of the admin.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView redirecting to "/announcement/get".
+     */
+    @PostMapping("/category")
+    public ModelAndView applyDiscountToCategory(@RequestParam("category") String categoryId, @RequestParam("discount") Double discount,
+                                                HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        String msg = pricingService.applyDiscountToCategory(categoryId.trim(), discount);
+        redirectAttributes.addFlashAttribute("message", msg);
+        return new ModelAndView("redirect:/announcement/get");
+    }
+
+    /**
+     * Applies a discount to every announcement posted by a seller.
+     * @param userId The ID of the seller.
+     * @param discount The discount percentage; 0 removes the discount.
+     * @param request The current request, carrying the session of the admin.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView redirecting to "/announcement/get".
+     */
+    @PostMapping("/seller")
+    public ModelAndView applyDiscountToSeller(@RequestParam("user") String userId, @RequestParam("discount") Double discount,
+                                              HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        String msg = pricingService.applyDiscountToSeller(userId.trim(), discount);
+        redirectAttributes.addFlashAttribute("message", msg);
+        return new ModelAndView("redirect:/announcement/get");
+    }
+
+    /**
+     * Schedules a discount campaign on a category or a seller.
+     * @param campaignDTO The target, the discount and the time window of the campaign.
+     * @param request The current request, carrying the session of the admin.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView redirecting to "/announcement/get".
+     */
+    @PostMapping("/campaigns")
+    public ModelAndView scheduleCampaign(@ModelAttribute("campaign") DiscountCampaignDTO campaignDTO, HttpServletRequest request,
+                                         RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        String msg = pricingService.scheduleCampaign(campaignDTO);
+        redirectAttributes.addFlashAttribute("message", msg);
+        return new ModelAndView("redirect:/announcement/get");
+    }
+
+    /**
+     * Cancels a discount campaign; an active campaign is expired right away.
+     * @param campaignId The ID of the campaign.
+     * @param request The current request, carrying the session of the admin.
+     * @param redirectAttributes Redirect attributes( the response message to be displayed ).
+     * @return ModelAndView redirecting to "/announcement/get".
+     */
+    @PostMapping("/campaigns/cancel/{id}")
+    public ModelAndView cancelCampaign(@PathVariable("id") String campaignId, HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        String msg = pricingService.cancelCampaign(campaignId);
+        redirectAttributes.addFlashAttribute("message", msg);
+        return new ModelAndView("redirect:/announcement/get");
+    }
+
+    /**
+     * Retrieves the scheduled and active discount campaigns, as JSON.
+     * @param request The current request, carrying the session of the admin.
+     * @return ResponseEntity containing the campaigns and HTTP status.
+     */
+    @GetMapping("/campaigns")
+    public ResponseEntity<List<DiscountCampaignDTO>> getCampaigns(HttpServletRequest request) {
+        SessionPrincipalAdvice.requireAdmin(request);
+        return new ResponseEntity<>(pricingService.findCurrentCampaigns(), HttpStatus.OK);
+    }
+}
@@ -1,9 +1,13 @@
 package com.olxapplication.controller;
 
-import com.olxapplication.config.RabbitMQSender;
-import com.olxapplication.dtos.UserMailDTO;
-import com.olxapplication.entity.User;
+import com.olxapplication.config.EventBus;
+import com.olxapplication.constants.ReportMessages;
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.exception.PatternNotMathcedException;
 import com.olxapplication.service.ReportService;
+import com.olxapplication.session.SessionPrincipal;
+import com.olxapplication.session.SessionPrincipalAdvice;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,9 +19,12 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.UUID;
+
 /**
  * This controller class provides API endpoints for generating reports within the application.
  */
@@ -30,43 +37,44 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Validated
 @Slf4j
 public class ReportController {
-    private final ReportService csvReportService;
     @Autowired
-    private final RabbitMQSender rabbitMQSender;
+    private final EventBus eventBus;
     @Autowired
     private ReportService reportService;
 
     /**
-     * Generate a report based on the chosen file format.
+     * Queue the generation of a report; the report is emailed to the requesting admin once a report worker generates it.
      * @param strategy The format of the report file.
+     * @param fromMonth The first month of the report (yyyy-MM), or empty for no lower bound.
+     * @param toMonth The last month of the report (yyyy-MM), or empty for no upper bound.
+     * @param request The current request, carrying the session of the admin.
      * @param redirectAttributes Redirect attributes( the response message to be displayed ).
      * @return ModelAndView redirecting to "/announcement/get".
      * */
     @GetMapping("/generate")
-    public ModelAndView generateReport(@ModelAttribute("strategy") String strategy, RedirectAttributes redirectAttributes){
+    public ModelAndView generateReport(@ModelAttribute("strategy") String strategy,
+                                       @RequestParam(value = "fromMonth", required = false) String fromMonth,
+                                       @RequestParam(value = "toMonth", required = false) String toMonth,
+                                       HttpServletRequest request, RedirectAttributes redirectAttributes){
         ModelAndView modelAndView = new ModelAndView("redirect:/announcement/get");
-        String msg = reportService.generateReport(strategy);
+        SessionPrincipal principal = SessionPrincipalAdvice.current(request);
+        String requesterId = principal != null ? principal.id() : reportService.getAdmin().getId();
 
-        String pathName = "C:\\Users\\prico\\OneDrive\\Desktop\\Faculta\\PS\\A2\\";
-        if(strategy.equals("csv")){
-            pathName += "Reports\\CSV_Report.csv";
-        }
-        if(strategy.equals("pdf")){
-            pathName += "Reports\\PDF_Report.pdf";
+        ReportRequestDTO reportRequest = ReportRequestDTO.builder()
+                .requestId(UUID.randomUUID().toString())
+                .format(strategy)
+                .fromMonth(fromMonth)
+                .toMonth(toMonth)
+                .requesterId(requesterId)
+                .build();
+        String msg;
+        try {
+            reportService.validate(reportRequest);
+            eventBus.publish(reportRequest);
+            msg = ReportMessages.REPORT_REQUESTED;
+        } catch (PatternNotMathcedException e) {
+            msg = e.getMessage();
         }
-        if(strategy.equals("txt")){
-            pathName += "Reports\\TXT_Report.txt";
-        }
-
-        User admin = reportService.getAdmin();
-        // Crearea unui nou UserDto și trimiterea acestuia în coadă
-        UserMailDTO userDTO = new UserMailDTO(admin.getId()
-                , admin.getFirstName()
-                , admin.getLastName()
-                , admin.getEmail()
-                , "report"
-                , pathName);
-        rabbitMQSender.send(userDTO);
 
         redirectAttributes.addFlashAttribute("message", msg);
         return modelAndView;
@@ -5,8 +5,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
-import com.olxapplication.config.RabbitMQSender;
+import com.olxapplication.config.EventBus;
+import com.olxapplication.constants.UserMessages;
 import com.olxapplication.dtos.*;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.notification.NotificationDispatcher;
 import com.olxapplication.service.UserService;
 import lombok.*;
 import org.hibernate.annotations.Fetch;
@@ -14,7 +17,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
@@ -28,22 +30,35 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 @Getter
 @AllArgsConstructor
 public class UserController {
-    private static final String URL = "http://localhost:8081/microservice/receiver";
-    private final RestTemplate restTemplate = new RestTemplate();
     @Autowired
-    private final RabbitMQSender rabbitMQSender;
+    private final EventBus eventBus;
 
     private final UserService userService;
+    private final NotificationDispatcher notificationDispatcher;
 
     /**
-     * Get all users.
+     * Get one page of the users, optionally searched by the start of their name or email.
+     * @param search The start of the first name, last name or email of the users.
+     * @param page The zero based index of the page.
+     * @param size The size of the page.
+     * @param sort The sort of the users, as "field,direction".
      * @return ModelAndView "AdminGetUsers".
      */
     @GetMapping("/get")
-    public ModelAndView getUsers(){
-        List<UserDetailsDTO> users = userService.findUsers();
+    public ModelAndView getUsers(@RequestParam(value = "search", required = false) String search,
+                                 @RequestParam(value = "page", required = false) Integer page,
+                                 @RequestParam(value = "size", required = false) Integer size,
+                                 @RequestParam(value = "sort", required = false) String sort){
         ModelAndView mav = new ModelAndView("AdminGetUsers");
-        mav.addObject("users", users);
+        UserPageDTO users;
+        try {
+            users = userService.findUserPage(search, page, size, sort);
+        } catch (PatternNotMathcedException e) {
+            users = userService.findUserPage(search, page, size, null);
+            mav.addObject("message", e.getMessage());
+        }
+        mav.addObject("users", users.getUsers());
+        mav.addObject("userPage", users);
         return mav;
     }
 
@@ -62,7 +77,7 @@ public class UserController {
     }
 
     /**
-     * Insert a new user and synchronously sends an email to its address.
+     * Insert a new user and queues an email to its address; the response does not wait for the notification service.
      * @param userDetailsDTO The user to be inserted.
      * @param redirectAttributes Redirect attributes( the response message to be displayed ).
      * @return ModelAndView redirecting to "/user/get".
@@ -71,25 +86,12 @@ public class UserController {
     public ModelAndView insertUser(@ModelAttribute("user") UserDetailsDTO userDetailsDTO, RedirectAttributes redirectAttributes) {
         String msg = userService.insert(userDetailsDTO);
 
-        // Crearea unui nou UserDto
-        UserMailDTO userMailDTO = new UserMailDTO(userDetailsDTO.getId()
-                , userDetailsDTO.getFirstName()
-                , userDetailsDTO.getLastName()
-                , userDetailsDTO.getEmail()
-                , "insert", "");
-
-        // Crearea HttpHeaders și setarea token-ului
-        HttpHeaders headers = new HttpHeaders();
-        headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON));
-        headers.setBearerAuth(userMailDTO.getId() + userMailDTO.getEmail()); // presupunem că token-ul este disponibil
-
-        // Crearea NotificationRequestDto și HttpEntity
-        NotificationRequestDto notificationRequestDto = new NotificationRequestDto(userMailDTO.getId(), userMailDTO.getFirstName() + " " + userMailDTO.getLastName(), userMailDTO.getEmail(), userMailDTO.getAction(), userMailDTO.getFilePath()); // completați cu datele necesare
-        HttpEntity<NotificationRequestDto> entity = new HttpEntity<>(notificationRequestDto, headers);
-
-        // Apelarea metodei restTemplate.exchange
-        ResponseMessageDto response = restTemplate.exchange(URL, HttpMethod.POST, entity, ResponseMessageDto.class).getBody();
-        //System.out.println("!!!!!!!!------------>" + response + "<------------!!!!!!!!");
+        if (msg.startsWith(UserMessages.USER_INSERTED_SUCCESSFULLY)) {
+            notificationDispatcher.dispatch(new NotificationRequestDto(userDetailsDTO.getId()
+                    , userDetailsDTO.getFirstName() + " " + userDetailsDTO.getLastName()
+                    , userDetailsDTO.getEmail()
+                    , "insert", ""));
+        }
 
         ModelAndView mav = new ModelAndView("redirect:/user/get");
         redirectAttributes.addFlashAttribute("message", msg);
@@ -113,7 +115,7 @@ public class UserController {
                 , userDetailsDTO.getEmail()
                 , "update"
                 ,"");
-        rabbitMQSender.send(userDTO);
+        eventBus.publish(userDTO);
 
         ModelAndView mav = new ModelAndView("redirect:/user/get");
         redirectAttributes.addFlashAttribute("message", msg);
@@ -0,0 +1,22 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one entry of the announcement change feed.
+ * An UPSERT carries the current state of the announcement; a DELETE carries only its id.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementChangeDTO {
+    public static final String UPSERT = "UPSERT";
+    public static final String DELETE = "DELETE";
+
+    private String type;
+    private Long version;
+    private String announcementId;
+    private AnnouncementDetailsDTO announcement;
+}
@@ -0,0 +1,21 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of the announcement change feed, in version order.
+ * The next page is requested with nextSince and nextAfterId; hasMore is false once the client has caught up.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementChangesDTO {
+    private List<AnnouncementChangeDTO> changes;
+    private Long nextSince;
+    private String nextAfterId;
+    private Boolean hasMore;
+}
@@ -0,0 +1,20 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates the bucket counts of the facets of a filtered announcement listing.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementFacetsDTO {
+    private List<FacetBucketDTO> categories;
+    private List<FacetBucketDTO> newPrice;
+    private List<FacetBucketDTO> discount;
+    private List<FacetBucketDTO> date;
+}
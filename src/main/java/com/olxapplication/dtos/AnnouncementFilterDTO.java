@@ -0,0 +1,46 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates the criteria used to filter and sort announcement listings.
+ * Every criterion is optional; the sort is a list of "field,direction" pairs separated by ';' (e.g. "newPrice,asc;date,desc").
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementFilterDTO {
+    private String categoryName;
+    private String categoryId;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minNewPrice;
+    private Double maxNewPrice;
+    private Double minDiscount;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+    private String excludedUserId;
+    private String sort;
+    private Integer page;
+    private Integer limit;
+
+    /**
+     * @return true if no criterion and no sort was requested.
+     */
+    public boolean isEmpty() {
+        return isBlank(categoryName) && isBlank(categoryId) && minPrice == null && maxPrice == null
+                && minNewPrice == null && maxNewPrice == null && minDiscount == null
+                && from == null && to == null && isBlank(sort);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
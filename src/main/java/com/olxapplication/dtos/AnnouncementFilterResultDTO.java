@@ -0,0 +1,22 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of a filtered and sorted announcement listing and its facets.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementFilterResultDTO {
+    private List<AnnouncementDetailsDTO> announces;
+    private AnnouncementFacetsDTO facets;
+    private Integer page;
+    private Integer size;
+    private Long totalHits;
+    private Boolean hasNext;
+}
@@ -0,0 +1,20 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of a keyset paginated announcement listing.
+ * The nextCursor is null when there are no more announcements after this page.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementPageDTO {
+    private List<AnnouncementDetailsDTO> announces;
+    private String nextCursor;
+    private Integer limit;
+}
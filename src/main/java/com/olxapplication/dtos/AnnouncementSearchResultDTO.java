@@ -0,0 +1,22 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of full-text search results, best match first.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnnouncementSearchResultDTO {
+    private String query;
+    private List<AnnouncementDetailsDTO> announces;
+    private Integer page;
+    private Integer size;
+    private Integer totalHits;
+    private Boolean hasNext;
+}
@@ -0,0 +1,20 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates the size and the hit, miss and eviction counters of a cache.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheStatsDTO {
+    private Integer size;
+    private Integer capacity;
+    private Long hits;
+    private Long misses;
+    private Long evictions;
+    private Double hitRate;
+}
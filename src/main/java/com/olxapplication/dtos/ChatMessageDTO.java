@@ -0,0 +1,21 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one message of a chat, as shown to its participants.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatMessageDTO {
+    private String id;
+    private String msg;
+    private LocalDateTime date;
+    private String senderId;
+    private String senderName;
+}
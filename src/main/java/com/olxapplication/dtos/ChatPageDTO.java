@@ -0,0 +1,22 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates a window of the history of a chat, oldest message first.
+ * When older messages exist, they are read by passing back beforeDate and beforeId.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChatPageDTO {
+    private List<ChatMessageDTO> messages;
+    private Boolean hasOlder;
+    private LocalDateTime beforeDate;
+    private String beforeId;
+}
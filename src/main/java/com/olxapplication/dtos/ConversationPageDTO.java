@@ -0,0 +1,21 @@
+package com.olxapplication.dtos;
+
+import com.olxapplication.projections.ConversationView;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of a user's conversations, latest activity first.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConversationPageDTO {
+    private List<ConversationView> conversations;
+    private Integer page;
+    private Integer size;
+    private Boolean hasNext;
+}
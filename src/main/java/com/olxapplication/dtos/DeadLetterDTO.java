@@ -0,0 +1,21 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates a message parked in a dead-letter queue: where it came from,
+ * how many times it was attempted, why its last attempt failed and its payload.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadLetterDTO {
+    private String messageId;
+    private String originalQueue;
+    private Integer attempts;
+    private String exception;
+    private String failedAt;
+    private String payload;
+}
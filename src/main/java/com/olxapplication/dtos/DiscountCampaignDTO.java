@@ -0,0 +1,26 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates a discount campaign targeting a category or a seller.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DiscountCampaignDTO {
+    private String id;
+    private String categoryId;
+    private String userId;
+    private Double discount;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME, fallbackPatterns = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime startsAt;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME, fallbackPatterns = "yyyy-MM-dd'T'HH:mm")
+    private LocalDateTime endsAt;
+    private String status;
+}
@@ -0,0 +1,17 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one bucket of a facet and the number of announcements that fall into it.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetBucketDTO {
+    private String key;
+    private String label;
+    private Long count;
+}
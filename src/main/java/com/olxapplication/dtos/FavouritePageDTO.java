@@ -0,0 +1,21 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of a user's favourite announcements, newest first, and the total price of the whole list.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FavouritePageDTO {
+    private List<AnnouncementDetailsDTO> announces;
+    private Integer page;
+    private Integer size;
+    private Boolean hasNext;
+    private Double total;
+}
@@ -0,0 +1,25 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates the outcome of a bulk announcement import:
+ * the row counts, the throughput and the errors of the rejected rows.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReportDTO {
+    private String format;
+    private Long totalRows;
+    private Long importedRows;
+    private Long failedRows;
+    private Long elapsedMillis;
+    private Double rowsPerSecond;
+    private List<ImportRowErrorDTO> errors;
+    private Boolean errorsTruncated;
+}
@@ -0,0 +1,16 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates the reason why one row of a bulk import was rejected.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportRowErrorDTO {
+    private Long row;
+    private String message;
+}
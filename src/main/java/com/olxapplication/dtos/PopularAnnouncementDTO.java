@@ -0,0 +1,17 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates an announcement of the popularity ranking and the number of favourite lists holding it.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PopularAnnouncementDTO {
+    private String announcementId;
+    private String categoryId;
+    private Long favourites;
+}
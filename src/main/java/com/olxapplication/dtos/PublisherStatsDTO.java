@@ -0,0 +1,25 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates the counters and the confirm latency of the AMQP publisher,
+ * together with the number of bytes still waiting in the local spool.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PublisherStatsDTO {
+    private Long published;
+    private Long acked;
+    private Long nacked;
+    private Long failed;
+    private Long rejected;
+    private Integer inFlight;
+    private Double publishRatePerSecond;
+    private Double averageConfirmMillis;
+    private Double maxConfirmMillis;
+    private Long spoolBacklogBytes;
+}
@@ -0,0 +1,20 @@
+package com.olxapplication.dtos;
+
+import lombok.*;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates a report generation request put on the report work queue.
+ * The months are formatted as yyyy-MM and are both inclusive; a missing month leaves that end of the interval open.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportRequestDTO {
+    private String requestId;
+    private String format;
+    private String fromMonth;
+    private String toMonth;
+    private String requesterId;
+}
@@ -33,7 +33,7 @@ public class UserDetailsDTO {
                 "id='" + id + '\'' +
                 ", firstName='" + firstName + '\'' +
                 ", lastName='" + lastName + '\'' +
-                ", favouriteList=" + favouriteList.getId() +
+                ", favouriteList=" + (favouriteList == null ? null : favouriteList.getId()) +
                 '}';
     }
 }
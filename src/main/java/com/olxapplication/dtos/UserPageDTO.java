@@ -0,0 +1,24 @@
+package com.olxapplication.dtos;
+
+import com.olxapplication.projections.UserSummaryView;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * This Data Transfer Object (DTO) encapsulates one page of the user directory, with the search and the sort it was read with.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserPageDTO {
+    private List<UserSummaryView> users;
+    private Integer page;
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+    private String search;
+    private String sort;
+}
@@ -13,7 +13,14 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "announces_table")
+@Table(name = "announces_table", indexes = {
+        @Index(name = "idx_announces_date_id", columnList = "date, id"),
+        @Index(name = "idx_announces_user_date_id", columnList = "user_id, date, id"),
+        @Index(name = "idx_announces_category_new_price", columnList = "category_id, new_price"),
+        @Index(name = "idx_announces_new_price_id", columnList = "new_price, id"),
+        @Index(name = "idx_announces_discount", columnList = "discount"),
+        @Index(name = "idx_announces_change_version_id", columnList = "change_version, id")
+})
 public class Announcement {
     @Id
     @GeneratedValue(generator = "uuid2")
@@ -43,7 +50,14 @@ public class Announcement {
     @Column
     private Double discount;
 
-    @Column
+    /**
+     * The largest discount of the active campaigns on the category or the seller of the announcement; null when none is active.
+     * The own discount of the announcement is left as it is, the new price uses the larger of the two.
+     */
+    @Column(name = "campaign_discount")
+    private Double campaignDiscount;
+
+    @Column(name = "new_price")
     private Double newPrice;
 
     @ManyToMany(mappedBy = "favouriteAnnouncements", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
@@ -52,11 +66,11 @@ public class Announcement {
     @Column
     private String imageURL;
 
-    @PreRemove
-    private void removeAnnouncementFromFavourites() {
-        for (Favourite favourite : favourites) {
-            favourite.getFavouriteAnnouncements().remove(this);
-        }
-    }
+    /**
+     * The position of the latest insert or update of the announcement in the change feed.
+     * Taken from the announcement_version_seq sequence; announcements written by the same bulk statement share it.
+     */
+    @Column(name = "change_version")
+    private Long changeVersion;
 }
 
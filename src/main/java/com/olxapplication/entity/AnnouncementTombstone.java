@@ -0,0 +1,36 @@
+package com.olxapplication.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * This entity class records the deletion of an announcement, so that the change feed can report it.
+ * It maps to the corresponding "announcement_tombstones_table" in the database.
+ * Its id and its change version are both taken from the announcement_version_seq sequence.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "announcement_tombstones_table", indexes = {
+        @Index(name = "idx_tombstones_change_version_announcement", columnList = "change_version, announcement_id")
+})
+@SequenceGenerator(name = "announcement_version_seq", sequenceName = "announcement_version_seq", allocationSize = 1)
+public class AnnouncementTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "announcement_version_seq")
+    private Long id;
+
+    @Column(name = "announcement_id", nullable = false)
+    private String announcementId;
+
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
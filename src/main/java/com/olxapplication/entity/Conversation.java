@@ -0,0 +1,53 @@
+package com.olxapplication.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * This entity class is the read model of the inbox: one row for every participant of a conversation, holding the
+ * other participant, a preview of the latest message and the number of messages the owner has not read yet.
+ * It maps to the corresponding "conversations_table" in the database and is kept up to date by MessageService in the
+ * transaction that inserts each message, so listing a user's conversations never reads the messages.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "conversations_table", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_conversations_owner_correspondent", columnNames = {"owner_id", "correspondent_id"})
+}, indexes = {
+        @Index(name = "idx_conversations_owner_last_message", columnList = "owner_id, last_message_at, id")
+})
+public class Conversation {
+    public static final int PREVIEW_LENGTH = 100;
+
+    @Id
+    @GeneratedValue(generator = "uuid2")
+    @GenericGenerator(name = "uuid2", strategy =  "uuid2")
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "correspondent_id", nullable = false)
+    private User correspondent;
+
+    @Column(name = "last_message_preview", nullable = false, length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_sender_id", nullable = false)
+    private String lastSenderId;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount;
+}
@@ -0,0 +1,62 @@
+package com.olxapplication.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * This entity class represents a discount applied to every announcement of a category or of a seller during a time window.
+ * It maps to the corresponding "discount_campaigns_table" in the database.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "discount_campaigns_table", indexes = {
+        @Index(name = "idx_campaigns_status_starts_at", columnList = "status, starts_at"),
+        @Index(name = "idx_campaigns_status_ends_at", columnList = "status, ends_at")
+})
+public class DiscountCampaign {
+    public static final String SCHEDULED = "SCHEDULED";
+    public static final String ACTIVE = "ACTIVE";
+    public static final String EXPIRED = "EXPIRED";
+
+    @Id
+    @GeneratedValue(generator = "uuid2")
+    @GenericGenerator(name = "uuid2", strategy =  "uuid2")
+    private String id;
+
+    /**
+     * The category whose announcements are discounted; null if the campaign targets a seller.
+     */
+    @Column(name = "category_id")
+    private String categoryId;
+
+    /**
+     * The seller whose announcements are discounted; null if the campaign targets a category.
+     */
+    @Column(name = "user_id")
+    private String userId;
+
+    /**
+     * The discount percentage applied while the campaign is active.
+     */
+    @Column(name = "discount", nullable = false)
+    private Double discount;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "ends_at", nullable = false)
+    private LocalDateTime endsAt;
+
+    /**
+     * SCHEDULED, ACTIVE or EXPIRED.
+     */
+    @Column(name = "status", nullable = false)
+    private String status;
+}
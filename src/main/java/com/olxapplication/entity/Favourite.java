@@ -2,6 +2,7 @@ package com.olxapplication.entity;
 
 import jakarta.persistence.*;
         import lombok.*;
+        import org.hibernate.annotations.ColumnDefault;
         import org.hibernate.annotations.GenericGenerator;
 
 import java.util.List;
@@ -25,8 +26,22 @@ public class Favourite {
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REFRESH, CascadeType.DETACH})
     @JoinTable(name = "favourite_announcement",
             joinColumns = @JoinColumn(name = "favourite_id"),
-            inverseJoinColumns = @JoinColumn(name = "announcement_id"))
+            inverseJoinColumns = @JoinColumn(name = "announcement_id"),
+            indexes = {
+                    @Index(name = "idx_favourite_announcement_favourite_announcement", columnList = "favourite_id, announcement_id"),
+                    @Index(name = "idx_favourite_announcement_announcement", columnList = "announcement_id")
+            })
     private List<Announcement> favouriteAnnouncements;
 
-    private Double total;
+    /**
+     * Total of the new prices of the favourite announcements, in minor units, kept up to date by delta on every change of the list.
+     */
+    @Column(name = "total_minor", nullable = false)
+    @ColumnDefault("0")
+    private long totalMinor;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private long version;
 }
@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "messages_table")
+@Table(name = "messages_table", indexes = {
+        @Index(name = "idx_messages_sender_receiver_date_id", columnList = "sender_id, receiver_id, date, id")
+})
 public class Message {
     @Id
     @GeneratedValue(generator = "uuid2")
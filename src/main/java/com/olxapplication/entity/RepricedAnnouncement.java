@@ -0,0 +1,26 @@
+package com.olxapplication.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * This entity class records an announcement whose new price has changed while the totals of the favourite lists holding it
+ * have not been brought up to date yet.
+ * It maps to the corresponding "repriced_announcements_table" in the database. The rows are written in the transaction that
+ * reprices the announcement and deleted once the totals are recomputed, so pending work survives a restart.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "repriced_announcements_table")
+public class RepricedAnnouncement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "announcement_id", nullable = false)
+    private String announcementId;
+}
@@ -17,7 +17,10 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users_table")
+@Table(name = "users_table", indexes = {
+        @Index(name = "idx_users_email", columnList = "email"),
+        @Index(name = "idx_users_last_first_name", columnList = "lastName, firstName")
+})
 public class User {
     /**
      * The unique identifier of the user, generated using a String strategy.
@@ -0,0 +1,26 @@
+package com.olxapplication.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This exception signifies that a request acts for a user other than the one signed in on its session.
+ * It's mapped to a 403 FORBIDDEN HTTP status code for appropriate client-side handling.
+ */
+@ResponseStatus(value = HttpStatus.FORBIDDEN)
+public class AccessDeniedException extends RuntimeException{
+    /**
+     * Serial version UID for serialization compatibility.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new exception with a detailed message explaining the denied access.
+     *
+     * @param message The message providing context about the denied access.
+     */
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
@@ -2,7 +2,10 @@ package com.olxapplication.mappers;
 
 import com.olxapplication.dtos.AnnouncementDTO;
 import com.olxapplication.dtos.AnnouncementDetailsDTO;
+import com.olxapplication.dtos.CategoryDetailsDTO;
+import com.olxapplication.dtos.UserDetailsDTO;
 import com.olxapplication.entity.Announcement;
+import com.olxapplication.projections.AnnouncementListView;
 
 /**
  * This class provides utility methods for mapping between Announcement entities and their corresponding DTO representations.
@@ -31,6 +34,35 @@ public class AnnouncementMapper {
                 .build();
     }
 
+    /**
+     * Converts an AnnouncementListView projection into an AnnouncementDetailsDTO object.
+     * The user and the category hold only their id and name, which is all the views display,
+     * so no association of the seller or of the category is loaded.
+     *
+     * @param view The AnnouncementListView projection to be converted.
+     * @return A new AnnouncementDetailsDTO object containing the announcement details shown in the views.
+     */
+    public static AnnouncementDetailsDTO toAnnouncementDetailsDTO(AnnouncementListView view){
+        return AnnouncementDetailsDTO.builder()
+                .id(view.id())
+                .title(view.title())
+                .description(view.description())
+                .price(view.price())
+                .category(CategoryDetailsDTO.builder()
+                        .id(view.categoryId())
+                        .categoryName(view.categoryName())
+                        .build())
+                .user(UserDetailsDTO.builder()
+                        .id(view.userId())
+                        .firstName(view.userFirstName())
+                        .lastName(view.userLastName())
+                        .build())
+                .date(view.date())
+                .discount(view.discount())
+                .newPrice(view.newPrice())
+                .imageURL(view.imageURL())
+                .build();
+    }
 
     /**
      * Converts an AnnouncementDTO object into a corresponding Announcement entity.
@@ -0,0 +1,222 @@
+package com.olxapplication.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olxapplication.dtos.NotificationRequestDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the notifications of the notification service off the request thread.
+ * Notifications are put on a bounded queue and drained by a single dispatcher thread, which posts them with a shared
+ * HTTP client that keeps its connections alive between calls and applies connect and request timeouts.
+ * At most a fixed number of calls are in flight at once (the bulkhead), and a circuit breaker stops calling the service
+ * for a while after repeated failures, leaving the notifications queued meanwhile.
+ * When a batch URL is configured, the notifications queued together are posted to it as one JSON array.
+ * Notifications are best-effort: those arriving while the queue is full, and those the service fails, are counted and dropped.
+ */
+@Component
+public class NotificationDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final URI receiverUri;
+    private final URI batchUri;
+    private final Duration requestTimeout;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<NotificationRequestDto> queue;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public NotificationDispatcher(@Value("${notification.receiver.url:http://localhost:8081/microservice/receiver}") String receiverUrl,
+                                  @Value("${notification.receiver.batch-url:}") String batchUrl,
+                                  @Value("${notification.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                                  @Value("${notification.request-timeout-ms:5000}") long requestTimeoutMillis,
+                                  @Value("${notification.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${notification.max-in-flight:8}") int maxInFlight,
+                                  @Value("${notification.batch-size:50}") int batchSize,
+                                  @Value("${notification.linger-ms:50}") long lingerMillis,
+                                  @Value("${notification.breaker.failure-threshold:5}") int failureThreshold,
+                                  @Value("${notification.breaker.open-ms:30000}") long openMillis) {
+        this.receiverUri = URI.create(receiverUrl);
+        this.batchUri = batchUrl == null || batchUrl.isBlank() ? null : URI.create(batchUrl);
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.bulkhead = new Semaphore(maxInFlight);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openMillis));
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .executor(httpExecutor)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatcher = Thread.ofVirtual().name("notification-dispatcher").start(this::dispatchLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        httpExecutor.shutdown();
+    }
+
+    /**
+     * Queues a notification without waiting for it to be sent.
+     * @param notification the notification to send.
+     * @return false if the queue is full and the notification was dropped.
+     */
+    public boolean dispatch(NotificationRequestDto notification) {
+        if (queue.offer(notification)) {
+            return true;
+        }
+        dropped.increment();
+        LOGGER.warn("Notification queue is full; dropped the notification for {}", notification.getEmail());
+        return false;
+    }
+
+    public long getSent() {
+        return sent.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (running) {
+                NotificationRequestDto first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<NotificationRequestDto> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                if (batchUri != null) {
+                    fill(batch);
+                }
+                HttpRequest request;
+                try {
+                    request = batch.size() > 1 ? batchRequest(batch) : singleRequest(first);
+                } catch (IllegalArgumentException e) {
+                    failed.add(batch.size());
+                    LOGGER.error("Notifications could not be encoded: {}", e.getMessage());
+                    continue;
+                }
+                submit(request, batch.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds to the batch the notifications already queued, then waits up to the linger time for more.
+     */
+    private void fill(List<NotificationRequestDto> batch) throws InterruptedException {
+        queue.drainTo(batch, batchSize - batch.size());
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            NotificationRequestDto next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    /**
+     * Waits for the circuit breaker and for a free slot of the bulkhead, then sends the request asynchronously.
+     */
+    private void submit(HttpRequest request, int count) throws InterruptedException {
+        while (!circuitBreaker.tryAcquire()) {
+            long waitNanos = Math.max(circuitBreaker.remainingOpenNanos(), TimeUnit.MILLISECONDS.toNanos(10));
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        bulkhead.acquire();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    bulkhead.release();
+                    if (error == null && response.statusCode() / 100 == 2) {
+                        circuitBreaker.recordSuccess();
+                        sent.add(count);
+                    } else {
+                        circuitBreaker.recordFailure();
+                        failed.add(count);
+                        LOGGER.warn("Sending {} notifications failed: {}", count,
+                                error != null ? error.toString() : "HTTP " + response.statusCode());
+                    }
+                });
+    }
+
+    private HttpRequest singleRequest(NotificationRequestDto notification) {
+        return post(receiverUri, notification)
+                .header("Authorization", "Bearer " + notification.getId() + notification.getEmail())
+                .build();
+    }
+
+    private HttpRequest batchRequest(List<NotificationRequestDto> batch) {
+        return post(batchUri, batch).build();
+    }
+
+    private HttpRequest.Builder post(URI uri, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri)
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.olxapplication.pagination;
+
+import com.olxapplication.exception.PatternNotMathcedException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque cursor used for keyset (seek) pagination over rows ordered by (date, id).
+ * The cursor holds the sort key of the last row of a page, so the next page can be read with an
+ * indexed range condition instead of an OFFSET that grows with the page number.
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+    public static final String INVALID_CURSOR = "The page cursor inserted is INVALID";
+
+    private final LocalDateTime date;
+    private final String id;
+
+    /**
+     * Encodes the sort key of a row into a URL safe cursor.
+     * @param date the date of the last row of the page.
+     * @param id the id of the last row of the page.
+     * @return the encoded cursor.
+     */
+    public static String encode(LocalDateTime date, String id) {
+        String raw = date.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(LocalDateTime, String)}.
+     * @param cursor the encoded cursor; may be null or blank for the first page.
+     * @return the decoded cursor or null if no cursor was provided.
+     * @throws PatternNotMathcedException if the cursor is malformed.
+     */
+    public static KeysetCursor decode(String cursor) throws PatternNotMathcedException {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new PatternNotMathcedException(INVALID_CURSOR);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new PatternNotMathcedException(INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.olxapplication.popularity;
+
+import com.olxapplication.dtos.PopularAnnouncementDTO;
+import com.olxapplication.projections.FavouriteCount;
+import com.olxapplication.repository.AnnouncementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process popularity ranking of the announcements by the number of favourite lists holding them.
+ * The exact count of every favourited announcement is kept in a map and its entry in ordered sets, one over all the
+ * announcements and one per category, most favourited first, so the top K of either is read by walking K entries.
+ * The counts are loaded once at startup and then adjusted by FavouriteService and AnnouncementService after each change commits.
+ */
+@Component
+public class PopularityTracker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PopularityTracker.class);
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+    private static final Comparator<Ranked> MOST_FAVOURITED_FIRST = Comparator.comparingLong(Ranked::favourites).reversed()
+            .thenComparing(Ranked::announcementId);
+
+    private final AnnouncementRepository announcementRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Ranked> entries = new HashMap<>();
+    private final NavigableSet<Ranked> ranking = new TreeSet<>(MOST_FAVOURITED_FIRST);
+    private final Map<String, NavigableSet<Ranked>> categoryRankings = new HashMap<>();
+
+    public PopularityTracker(AnnouncementRepository announcementRepository) {
+        this.announcementRepository = announcementRepository;
+    }
+
+    /**
+     * Loads the favourite counts of every favourited announcement, once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<FavouriteCount> counts = announcementRepository.countFavourites();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ranking.clear();
+            categoryRankings.clear();
+            for (FavouriteCount count : counts) {
+                put(new Ranked(count.announcementId(), count.categoryId(), count.favourites()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Popularity ranking loaded with {} announcements in {} ms", counts.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Counts an announcement added to a favourite list, once the current transaction commits.
+     * @param announcementId the id of the announcement.
+     */
+    public void favourited(String announcementId) {
+        afterCommit(() -> adjust(announcementId, 1));
+    }
+
+    /**
+     * Uncounts an announcement removed from favourite lists, once the current transaction commits.
+     * @param announcementId the id of the announcement.
+     * @param lists the number of lists it was removed from.
+     */
+    public void unfavourited(String announcementId, int lists) {
+        afterCommit(() -> adjust(announcementId, -lists));
+    }
+
+    /**
+     * Moves an announcement to the ranking of its new category, once the current transaction commits.
+     * @param announcementId the id of the announcement.
+     * @param categoryId the id of its new category.
+     */
+    public void moved(String announcementId, String categoryId) {
+        afterCommit(() -> move(announcementId, categoryId));
+    }
+
+    /**
+     * Removes a deleted announcement from the rankings, once the current transaction commits.
+     * @param announcementId the id of the announcement.
+     */
+    public void remove(String announcementId) {
+        afterCommit(() -> take(announcementId));
+    }
+
+    /**
+     * Finds the most favourited announcements.
+     * @param limit the maximum number of announcements, between 1 and MAX_LIMIT; DEFAULT_LIMIT when null.
+     * @return the announcements with their favourite counts, most favourited first.
+     */
+    public List<PopularAnnouncementDTO> top(Integer limit) {
+        lock.readLock().lock();
+        try {
+            return first(ranking, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the most favourited announcements of a category.
+     * @param categoryId the id of the category.
+     * @param limit the maximum number of announcements, between 1 and MAX_LIMIT; DEFAULT_LIMIT when null.
+     * @return the announcements with their favourite counts, most favourited first.
+     */
+    public List<PopularAnnouncementDTO> top(String categoryId, Integer limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<Ranked> categoryRanking = categoryRankings.get(categoryId);
+            return categoryRanking == null ? Collections.emptyList() : first(categoryRanking, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<PopularAnnouncementDTO> first(NavigableSet<Ranked> set, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<PopularAnnouncementDTO> top = new ArrayList<>(Math.min(size, set.size()));
+        Iterator<Ranked> iterator = set.iterator();
+        while (iterator.hasNext() && top.size() < size) {
+            Ranked ranked = iterator.next();
+            top.add(new PopularAnnouncementDTO(ranked.announcementId(), ranked.categoryId(), ranked.favourites()));
+        }
+        return top;
+    }
+
+    private void adjust(String announcementId, long delta) {
+        lock.readLock().lock();
+        Ranked current;
+        try {
+            current = entries.get(announcementId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        String categoryId = current != null ? current.categoryId()
+                : announcementRepository.findCategoryIdById(announcementId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            current = entries.get(announcementId);
+            long favourites = delta;
+            if (current != null) {
+                take(current);
+                favourites += current.favourites();
+                categoryId = current.categoryId();
+            }
+            if (favourites > 0) {
+                put(new Ranked(announcementId, categoryId, favourites));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void move(String announcementId, String categoryId) {
+        lock.writeLock().lock();
+        try {
+            Ranked current = entries.get(announcementId);
+            if (current != null && !Objects.equals(current.categoryId(), categoryId)) {
+                take(current);
+                put(new Ranked(announcementId, categoryId, current.favourites()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void take(String announcementId) {
+        lock.writeLock().lock();
+        try {
+            Ranked current = entries.get(announcementId);
+            if (current != null) {
+                take(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Ranked ranked) {
+        entries.put(ranked.announcementId(), ranked);
+        ranking.add(ranked);
+        if (ranked.categoryId() != null) {
+            categoryRankings.computeIfAbsent(ranked.categoryId(), id -> new TreeSet<>(MOST_FAVOURITED_FIRST)).add(ranked);
+        }
+    }
+
+    private void take(Ranked ranked) {
+        entries.remove(ranked.announcementId());
+        ranking.remove(ranked);
+        NavigableSet<Ranked> categoryRanking = categoryRankings.get(ranked.categoryId());
+        if (categoryRanking != null) {
+            categoryRanking.remove(ranked);
+            if (categoryRanking.isEmpty()) {
+                categoryRankings.remove(ranked.categoryId());
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Ranked(String announcementId, String categoryId, long favourites) {
+    }
+}
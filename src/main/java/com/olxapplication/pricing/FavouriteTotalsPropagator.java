@@ -0,0 +1,116 @@
+package com.olxapplication.pricing;
+
+import com.olxapplication.entity.RepricedAnnouncement;
+import com.olxapplication.repository.FavouriteRepository;
+import com.olxapplication.repository.RepricedAnnouncementRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Propagates price changes to the totals of the favourite lists holding the repriced announcements.
+ * Repriced announcements are recorded in repriced_announcements_table by the transaction that reprices them, and a scheduled
+ * task brings the totals of the lists holding them up to date in batches, going from announcement to favourite lists through
+ * the index on favourite_announcement.announcement_id, so no other list is read or written. A row is deleted by the batch
+ * that recomputes its lists, so the changes committed before a crash or a redeploy are propagated once the application is back.
+ * The affected totals are recomputed from the join table rather than shifted by the price difference, which keeps them
+ * exact when an announcement is repriced twice, or added to a list, before its batch runs. A list that no longer holds
+ * the announcement is not found by the batch, so removals recompute the total of the list themselves.
+ */
+@Component
+public class FavouriteTotalsPropagator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FavouriteTotalsPropagator.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final FavouriteRepository favouriteRepository;
+    private final RepricedAnnouncementRepository repricedRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public FavouriteTotalsPropagator(FavouriteRepository favouriteRepository, RepricedAnnouncementRepository repricedRepository,
+                                     TransactionTemplate transactionTemplate) {
+        this.favouriteRepository = favouriteRepository;
+        this.repricedRepository = repricedRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Records that the new price of an announcement has changed, in the current transaction or in a new one.
+     * @param announcementId the id of the repriced announcement.
+     */
+    public void priceChanged(String announcementId) {
+        transactionTemplate.executeWithoutResult(status -> repricedRepository.insert(announcementId));
+    }
+
+    /**
+     * Records that every announcement of a category has been repriced; only the favourited ones are kept.
+     * @param categoryId the id of the category.
+     */
+    public void categoryRepriced(String categoryId) {
+        transactionTemplate.executeWithoutResult(status -> repricedRepository.insertFavouritedByCategoryId(categoryId));
+    }
+
+    /**
+     * Records that every announcement posted by a seller has been repriced; only the favourited ones are kept.
+     * @param userId the id of the seller.
+     */
+    public void sellerRepriced(String userId) {
+        transactionTemplate.executeWithoutResult(status -> repricedRepository.insertFavouritedByUserId(userId));
+    }
+
+    /**
+     * @return the number of repriced announcements waiting to be propagated.
+     */
+    public int pendingCount() {
+        return Math.toIntExact(repricedRepository.countAnnouncements());
+    }
+
+    /**
+     * Updates the totals of the favourite lists holding the repriced announcements, one transaction per batch.
+     * A failed batch keeps its rows and is retried on the next run.
+     * @return the number of updated favourite lists.
+     */
+    @Scheduled(fixedDelayString = "${favourites.totals.flush-interval-ms:1000}")
+    @PreDestroy
+    public int flush() {
+        int updated = 0;
+        while (true) {
+            try {
+                Integer count = transactionTemplate.execute(status -> flushBatch());
+                if (count == null) {
+                    break;
+                }
+                updated += count;
+            } catch (RuntimeException e) {
+                LOGGER.error("Favourite totals of repriced announcements not updated: {}", e.getMessage());
+                break;
+            }
+        }
+        if (updated > 0) {
+            LOGGER.debug("Totals of {} favourite lists updated after price changes", updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Recomputes the lists holding the announcements of the oldest pending rows and deletes those rows.
+     * @return the number of updated favourite lists, or null when nothing is pending.
+     */
+    private Integer flushBatch() {
+        List<RepricedAnnouncement> batch = repricedRepository.findOldest(PageRequest.ofSize(BATCH_SIZE));
+        if (batch.isEmpty()) {
+            return null;
+        }
+        Set<String> announcementIds = batch.stream().map(RepricedAnnouncement::getAnnouncementId).collect(Collectors.toSet());
+        int count = favouriteRepository.recomputeTotalsHolding(announcementIds);
+        repricedRepository.deleteAllInBatch(batch);
+        return count;
+    }
+}
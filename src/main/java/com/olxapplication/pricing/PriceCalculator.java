@@ -0,0 +1,72 @@
+package com.olxapplication.pricing;
+
+/**
+ * Fixed-point price arithmetic. Amounts are handled as a long number of minor units (cents) and discounts as a long
+ * number of basis points (hundredths of a percent), so the calculations neither allocate nor accumulate binary rounding errors.
+ * Halves are rounded up, as PostgreSQL rounds numeric values, so prices computed here and by the bulk SQL updates agree.
+ */
+public final class PriceCalculator {
+    public static final long MINOR_UNITS = 100;
+    public static final long BASIS_POINTS = 10000;
+    private static final long BASIS_POINTS_PER_PERCENT = 100;
+
+    private PriceCalculator() {
+    }
+
+    /**
+     * Converts an amount to minor units, rounding half up to the closest cent.
+     * @param amount the amount, in major units.
+     * @return the amount in minor units.
+     */
+    public static long toMinorUnits(double amount) {
+        return Math.round(amount * MINOR_UNITS);
+    }
+
+    /**
+     * Converts an amount in minor units to major units.
+     * @param minorUnits the amount in minor units.
+     * @return the amount, in major units.
+     */
+    public static double toMajorUnits(long minorUnits) {
+        return minorUnits / (double) MINOR_UNITS;
+    }
+
+    /**
+     * Converts a discount percentage to basis points, rounding half up to the closest basis point.
+     * @param percent the discount, between 0 and 100.
+     * @return the discount in basis points.
+     */
+    public static long toBasisPoints(double percent) {
+        return Math.round(percent * BASIS_POINTS_PER_PERCENT);
+    }
+
+    /**
+     * Applies a discount to a price.
+     * @param priceMinor the price in minor units; must not be negative.
+     * @param discountBasisPoints the discount in basis points, between 0 and 10000.
+     * @return the discounted price in minor units, rounded half up.
+     */
+    public static long discountedMinor(long priceMinor, long discountBasisPoints) {
+        return (priceMinor * (BASIS_POINTS - discountBasisPoints) + BASIS_POINTS / 2) / BASIS_POINTS;
+    }
+
+    /**
+     * Applies a discount to a price.
+     * @param price the price, in major units.
+     * @param discountPercent the discount, between 0 and 100.
+     * @return the discounted price, rounded half up to the closest cent.
+     */
+    public static double discountedPrice(double price, double discountPercent) {
+        return toMajorUnits(discountedMinor(toMinorUnits(price), toBasisPoints(discountPercent)));
+    }
+
+    /**
+     * Picks the discount an announcement is sold with.
+     * @param discountPercent the own discount of the announcement.
+     * @param campaignDiscountPercent the largest discount of the active campaigns on the announcement, or null.
+     * @return the larger of the two discounts.
+     */
+    public static double effectiveDiscount(double discountPercent, Double campaignDiscountPercent) {
+        return campaignDiscountPercent != null && campaignDiscountPercent > discountPercent ? campaignDiscountPercent : discountPercent;
+    }
+}
@@ -0,0 +1,22 @@
+package com.olxapplication.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read projection holding exactly the columns shown by the announcement listing, detail and favourites views:
+ * the announcement itself plus the name of its seller and of its category, read with a single joined query.
+ */
+public record AnnouncementListView(String id,
+                                   String title,
+                                   String description,
+                                   Double price,
+                                   Double discount,
+                                   Double newPrice,
+                                   String imageURL,
+                                   LocalDateTime date,
+                                   String userId,
+                                   String userFirstName,
+                                   String userLastName,
+                                   String categoryId,
+                                   String categoryName) {
+}
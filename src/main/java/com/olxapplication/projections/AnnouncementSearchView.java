@@ -0,0 +1,11 @@
+package com.olxapplication.projections;
+
+/**
+ * Read projection holding only the columns needed to index an announcement for full-text search.
+ */
+public interface AnnouncementSearchView {
+    String getId();
+    String getTitle();
+    String getDescription();
+    String getUserId();
+}
@@ -0,0 +1,7 @@
+package com.olxapplication.projections;
+
+/**
+ * Position of one change in the change feed: the announcement it concerns and the version it was written with.
+ */
+public record ChangeRef(String announcementId, Long changeVersion) {
+}
@@ -0,0 +1,15 @@
+package com.olxapplication.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read projection holding one message of a chat together with the name of its sender.
+ */
+public interface ChatMessageView {
+    String getId();
+    String getMsg();
+    LocalDateTime getDate();
+    String getSenderId();
+    String getFirstName();
+    String getLastName();
+}
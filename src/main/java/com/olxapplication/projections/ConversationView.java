@@ -0,0 +1,10 @@
+package com.olxapplication.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * One conversation of a user's inbox, read from the conversation read model without touching the messages.
+ */
+public record ConversationView(String correspondentId, String firstName, String lastName, String lastMessagePreview,
+                               LocalDateTime lastMessageAt, String lastSenderId, Integer unreadCount) {
+}
@@ -0,0 +1,7 @@
+package com.olxapplication.projections;
+
+/**
+ * Number of favourite lists holding one announcement.
+ */
+public record FavouriteCount(String announcementId, String categoryId, Long favourites) {
+}
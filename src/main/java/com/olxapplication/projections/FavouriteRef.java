@@ -0,0 +1,7 @@
+package com.olxapplication.projections;
+
+/**
+ * Id and version of a favourite list, read at the start of a change and checked when the change commits.
+ */
+public record FavouriteRef(String id, Long version) {
+}
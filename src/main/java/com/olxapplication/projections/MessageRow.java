@@ -0,0 +1,9 @@
+package com.olxapplication.projections;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a message needed to rebuild the conversation read model, read without loading the participants.
+ */
+public record MessageRow(String id, String msg, LocalDateTime date, String senderId, String receiverId) {
+}
@@ -0,0 +1,7 @@
+package com.olxapplication.projections;
+
+/**
+ * Number of announcements posted in one month.
+ */
+public record MonthlyCount(Integer year, Integer month, Long count) {
+}
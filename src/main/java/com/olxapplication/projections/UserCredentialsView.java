@@ -0,0 +1,7 @@
+package com.olxapplication.projections;
+
+/**
+ * The columns of a user needed to sign them in, read without loading the entity and its favourite list.
+ */
+public record UserCredentialsView(String id, String password, String role, String firstName, String lastName) {
+}
@@ -0,0 +1,7 @@
+package com.olxapplication.projections;
+
+/**
+ * The columns of a user shown in the admin user directory, read without loading the entity and its collections.
+ */
+public record UserSummaryView(String id, String firstName, String lastName, String email, String role) {
+}
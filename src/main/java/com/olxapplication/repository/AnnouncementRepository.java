@@ -2,16 +2,196 @@ package com.olxapplication.repository;
 
 import com.olxapplication.entity.Announcement;
 import com.olxapplication.entity.Category;
+import com.olxapplication.entity.DiscountCampaign;
+import com.olxapplication.projections.AnnouncementListView;
+import com.olxapplication.projections.AnnouncementSearchView;
+import com.olxapplication.projections.ChangeRef;
+import com.olxapplication.projections.FavouriteCount;
+import com.olxapplication.projections.MonthlyCount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * This interface extends JPA's JpaRepository, providing access to Announcement entities within the persistence layer.
  * It offers basic CRUD (Create, Read, Update, Delete) operations for Announcement entities identified by their unique Strings.
+ * Filtered listings are built with specifications (see AnnouncementSpecifications) and their facets are counted by AnnouncementRepositoryCustom.
  */
-public interface AnnouncementRepository extends JpaRepository<Announcement, String> {
-    List<Announcement> findAnnouncementsByCategoryCategoryNameContainsIgnoreCaseAndUserIdNot(String category, String userId);
-    List<Announcement> findAnnouncementsByUser_Id(String category_id);
+public interface AnnouncementRepository extends JpaRepository<Announcement, String>, JpaSpecificationExecutor<Announcement>, AnnouncementRepositoryCustom {
+    /**
+     * Selects the columns of an AnnouncementListView; the queries using it must join the seller as u and the category as c.
+     */
+    String SELECT_LIST_VIEW = "select new com.olxapplication.projections.AnnouncementListView(a.id, a.title, a.description, a.price, "
+            + "a.discount, a.newPrice, a.imageURL, a.date, u.id, u.firstName, u.lastName, c.id, c.categoryName) ";
+    String FROM_LIST_VIEW = "from Announcement a left join a.user u left join a.category c ";
 
+    /**
+     * Reads the listing view of the announcement with the specified id.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "where a.id = :id")
+    Optional<AnnouncementListView> findListViewById(@Param("id") String id);
+
+    /**
+     * Reads the listing views of the announcements with the specified ids, in no particular order.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "where a.id in :ids")
+    List<AnnouncementListView> findListViewsByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * Reads the listing views of the announcements posted by the specified user, newest first.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "where u.id = :userId order by a.date desc, a.id desc")
+    List<AnnouncementListView> findListViewsByUserId(@Param("userId") String userId);
+
+    /**
+     * Reads the new price of the announcement with the specified id.
+     */
+    @Query("select a.newPrice from Announcement a where a.id = :id")
+    Optional<Double> findNewPriceById(@Param("id") String id);
+
+    /**
+     * Reads the id of the category of the announcement with the specified id.
+     */
+    @Query("select a.category.id from Announcement a where a.id = :id")
+    Optional<String> findCategoryIdById(@Param("id") String id);
+
+    /**
+     * Counts the favourite lists holding each favourited announcement.
+     */
+    @Query("select new com.olxapplication.projections.FavouriteCount(a.id, c.id, count(f)) "
+            + "from Favourite f join f.favouriteAnnouncements a left join a.category c group by a.id, c.id")
+    List<FavouriteCount> countFavourites();
+
+    /**
+     * Reads one page of the listing views of the announcements in the favourite list of the specified user, newest first.
+     */
+    @Query(SELECT_LIST_VIEW + "from Favourite f join f.favouriteAnnouncements a left join a.user u left join a.category c "
+            + "where f.user.id = :userId order by a.date desc, a.id desc")
+    Slice<AnnouncementListView> findFavouriteListViews(@Param("userId") String userId, Pageable pageable);
+
+    /**
+     * Reads the first page of the announcement feed, newest first.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "order by a.date desc, a.id desc")
+    List<AnnouncementListView> findFeedFirstPage(Pageable pageable);
+
+    /**
+     * Reads the page of the announcement feed that follows the (date, id) key of the previous page.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "where a.date < :date or (a.date = :date and a.id < :id) order by a.date desc, a.id desc")
+    List<AnnouncementListView> findFeedAfter(@Param("date") LocalDateTime date, @Param("id") String id, Pageable pageable);
+
+    /**
+     * Reads the first page of the feed of announcements not posted by the specified user, newest first.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "where a.user.id <> :userId order by a.date desc, a.id desc")
+    List<AnnouncementListView> findOtherFeedFirstPage(@Param("userId") String userId, Pageable pageable);
+
+    /**
+     * Reads the page of the feed of announcements not posted by the specified user that follows the (date, id) key of the previous page.
+     */
+    @Query(SELECT_LIST_VIEW + FROM_LIST_VIEW + "where a.user.id <> :userId and (a.date < :date or (a.date = :date and a.id < :id)) order by a.date desc, a.id desc")
+    List<AnnouncementListView> findOtherFeedAfter(@Param("userId") String userId, @Param("date") LocalDateTime date, @Param("id") String id, Pageable pageable);
+
+    /**
+     * Reads the announcements to be loaded in the search index, in batches ordered by id.
+     */
+    @Query("select a.id as id, a.title as title, a.description as description, a.user.id as userId from Announcement a where a.id > :lastId order by a.id")
+    List<AnnouncementSearchView> findSearchDocuments(@Param("lastId") String lastId, Pageable pageable);
+
+    /**
+     * Reads the ids of the announcements posted by the specified user, at most one page of them.
+     */
+    @Query("select a.id from Announcement a where a.user.id = :userId order by a.id")
+    List<String> findIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    /**
+     * Deletes the announcements with the specified ids with a single statement; the favourite lists must be cleaned up first.
+     */
+    @Modifying
+    @Query("delete from Announcement a where a.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * The discount an announcement is sold with, in basis points: the larger of its own discount and its campaign discount.
+     */
+    String EFFECTIVE_BASIS_POINTS = "cast(round(case when a.campaignDiscount > a.discount then a.campaignDiscount else a.discount end * 100, 0) as BigDecimal)";
+    String REPRICE = "update Announcement a set "
+            + "a.newPrice = round(round(cast(a.price as BigDecimal), 2) * (10000 - " + EFFECTIVE_BASIS_POINTS + ") / 10000, 2), "
+            + "a.changeVersion = :version ";
+    String CAMPAIGN_DISCOUNT = "update Announcement a set a.campaignDiscount = (select max(d.discount) from DiscountCampaign d "
+            + "where d.status = '" + DiscountCampaign.ACTIVE + "' and (d.categoryId = a.category.id or d.userId = a.user.id)) ";
+
+    /**
+     * Sets the own discount of every announcement in a category; the new prices are recomputed by repriceCategory.
+     */
+    @Modifying
+    @Query("update Announcement a set a.discount = :discount where a.category.id = :categoryId")
+    int applyDiscountToCategory(@Param("categoryId") String categoryId, @Param("discount") Double discount);
+
+    /**
+     * Sets the own discount of every announcement posted by a user; the new prices are recomputed by repriceSeller.
+     */
+    @Modifying
+    @Query("update Announcement a set a.discount = :discount where a.user.id = :userId")
+    int applyDiscountToSeller(@Param("userId") String userId, @Param("discount") Double discount);
+
+    /**
+     * Sets the campaign discount of every announcement in a category from the campaigns active on its category or its seller.
+     */
+    @Modifying
+    @Query(CAMPAIGN_DISCOUNT + "where a.category.id = :categoryId")
+    int applyCampaignsToCategory(@Param("categoryId") String categoryId);
+
+    /**
+     * Sets the campaign discount of every announcement posted by a user from the campaigns active on its category or its seller.
+     */
+    @Modifying
+    @Query(CAMPAIGN_DISCOUNT + "where a.user.id = :userId")
+    int applyCampaignsToSeller(@Param("userId") String userId);
+
+    /**
+     * Recomputes the new price of every announcement in a category in fixed-point decimal arithmetic.
+     */
+    @Modifying
+    @Query(REPRICE + "where a.category.id = :categoryId")
+    int repriceCategory(@Param("categoryId") String categoryId, @Param("version") Long version);
+
+    /**
+     * Recomputes the new price of every announcement posted by a user in fixed-point decimal arithmetic.
+     */
+    @Modifying
+    @Query(REPRICE + "where a.user.id = :userId")
+    int repriceSeller(@Param("userId") String userId, @Param("version") Long version);
+
+    /**
+     * Finds the inserts and updates written after the position (since, afterId) and up to a version, in feed order.
+     */
+    @Query("select new com.olxapplication.projections.ChangeRef(a.id, a.changeVersion) from Announcement a "
+            + "where (a.changeVersion > :since or (a.changeVersion = :since and a.id > :afterId)) "
+            + "and a.changeVersion <= :upTo order by a.changeVersion, a.id")
+    List<ChangeRef> findChangesAfter(@Param("since") Long since, @Param("afterId") String afterId, @Param("upTo") Long upTo, Pageable pageable);
+
+    /**
+     * Stamps a change version on the announcements written before the change feed existed.
+     */
+    @Modifying
+    @Query("update Announcement a set a.changeVersion = :version where a.changeVersion is null")
+    int assignMissingChangeVersions(@Param("version") Long version);
+
+    /**
+     * Counts the announcements posted in every month of the interval [from, to).
+     */
+    @Query("select new com.olxapplication.projections.MonthlyCount(year(a.date), month(a.date), count(a)) from Announcement a "
+            + "where a.date >= :from and a.date < :to group by year(a.date), month(a.date) order by year(a.date), month(a.date)")
+    List<MonthlyCount> countPostedByMonth(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,30 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.dtos.AnnouncementFacetsDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.projections.AnnouncementListView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom queries of the AnnouncementRepository that can not be expressed as derived or annotated queries.
+ */
+public interface AnnouncementRepositoryCustom {
+
+    /**
+     * Counts, in the database, the announcements matching the specification in every bucket of the listing facets.
+     * @param specification the filter of the announcements.
+     * @return the bucket counts of the category, new price, discount and date facets.
+     */
+    AnnouncementFacetsDTO findFacets(Specification<Announcement> specification);
+
+    /**
+     * Reads, with a single joined query, the listing views of the announcements matching the specification.
+     * @param specification the filter of the announcements.
+     * @param pageable the sort and, if paged, the offset and the size of the page.
+     * @return the listing views of the page, in the requested order.
+     */
+    List<AnnouncementListView> findListViews(Specification<Announcement> specification, Pageable pageable);
+}
@@ -0,0 +1,161 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.dtos.AnnouncementFacetsDTO;
+import com.olxapplication.dtos.FacetBucketDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.projections.AnnouncementListView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API implementation of the facet and listing view queries of the AnnouncementRepository.
+ * All the range buckets are counted with conditional sums in a single aggregate query, and the category buckets with one grouped query.
+ */
+public class AnnouncementRepositoryCustomImpl implements AnnouncementRepositoryCustom {
+    private static final double[] NEW_PRICE_BOUNDS = {0, 50, 100, 500, 1000};
+    private static final double[] DISCOUNT_THRESHOLDS = {10, 25, 50};
+    private static final int[] DATE_WINDOWS_IN_DAYS = {1, 7, 30};
+    private static final int MAX_CATEGORY_BUCKETS = 20;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public AnnouncementFacetsDTO findFacets(Specification<Announcement> specification) {
+        AnnouncementFacetsDTO facets = AnnouncementFacetsDTO.builder()
+                .categories(findCategoryBuckets(specification))
+                .newPrice(new ArrayList<>())
+                .discount(new ArrayList<>())
+                .date(new ArrayList<>())
+                .build();
+        fillRangeBuckets(specification, facets);
+        return facets;
+    }
+
+    @Override
+    public List<AnnouncementListView> findListViews(Specification<Announcement> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AnnouncementListView> query = cb.createQuery(AnnouncementListView.class);
+        Root<Announcement> root = query.from(Announcement.class);
+        Join<Announcement, User> user = root.join("user", JoinType.LEFT);
+        Join<Announcement, Category> category = root.join("category", JoinType.LEFT);
+        query.select(cb.construct(AnnouncementListView.class,
+                        root.get("id"), root.get("title"), root.get("description"), root.get("price"),
+                        root.get("discount"), root.get("newPrice"), root.get("imageURL"), root.get("date"),
+                        user.get("id"), user.get("firstName"), user.get("lastName"),
+                        category.get("id"), category.get("categoryName")))
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<AnnouncementListView> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    /**
+     * Counts the matching announcements of every category, most populated categories first.
+     */
+    private List<FacetBucketDTO> findCategoryBuckets(Specification<Announcement> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Announcement> root = query.from(Announcement.class);
+        Path<String> categoryId = root.get("category").get("id");
+        Path<String> categoryName = root.get("category").get("categoryName");
+        Expression<Long> count = cb.count(root);
+        query.multiselect(categoryId, categoryName, count)
+                .where(specification.toPredicate(root, query, cb))
+                .groupBy(categoryId, categoryName)
+                .orderBy(cb.desc(count));
+
+        List<FacetBucketDTO> buckets = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).setMaxResults(MAX_CATEGORY_BUCKETS).getResultList()) {
+            buckets.add(new FacetBucketDTO(tuple.get(0, String.class), tuple.get(1, String.class), tuple.get(2, Long.class)));
+        }
+        return buckets;
+    }
+
+    /**
+     * Counts the matching announcements of every new price, discount and date bucket with a single aggregate query.
+     */
+    private void fillRangeBuckets(Specification<Announcement> specification, AnnouncementFacetsDTO facets) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Announcement> root = query.from(Announcement.class);
+        Path<Double> newPrice = root.get("newPrice");
+        Path<Double> discount = root.get("discount");
+        Path<LocalDateTime> date = root.get("date");
+
+        List<Selection<?>> selections = new ArrayList<>();
+        List<FacetBucketDTO> newPriceBuckets = facets.getNewPrice();
+        for (int i = 0; i < NEW_PRICE_BOUNDS.length; i++) {
+            double lower = NEW_PRICE_BOUNDS[i];
+            Predicate inBucket = cb.greaterThanOrEqualTo(newPrice, lower);
+            String key;
+            if (i + 1 < NEW_PRICE_BOUNDS.length) {
+                double upper = NEW_PRICE_BOUNDS[i + 1];
+                inBucket = cb.and(inBucket, cb.lessThan(newPrice, upper));
+                key = format(lower) + "-" + format(upper);
+            } else {
+                key = format(lower) + "+";
+            }
+            selections.add(countWhere(cb, inBucket));
+            newPriceBuckets.add(new FacetBucketDTO(key, key, 0L));
+        }
+
+        List<FacetBucketDTO> discountBuckets = facets.getDiscount();
+        selections.add(countWhere(cb, cb.or(cb.isNull(discount), cb.equal(discount, 0.0))));
+        discountBuckets.add(new FacetBucketDTO("0", "No discount", 0L));
+        for (double threshold : DISCOUNT_THRESHOLDS) {
+            selections.add(countWhere(cb, cb.greaterThanOrEqualTo(discount, threshold)));
+            discountBuckets.add(new FacetBucketDTO(format(threshold), format(threshold) + "% or more", 0L));
+        }
+
+        List<FacetBucketDTO> dateBuckets = facets.getDate();
+        LocalDateTime now = LocalDateTime.now();
+        for (int days : DATE_WINDOWS_IN_DAYS) {
+            selections.add(countWhere(cb, cb.greaterThanOrEqualTo(date, now.minusDays(days))));
+            dateBuckets.add(new FacetBucketDTO(days + "d", "Last " + days + (days == 1 ? " day" : " days"), 0L));
+        }
+
+        query.multiselect(selections).where(specification.toPredicate(root, query, cb));
+        Tuple counts = entityManager.createQuery(query).getSingleResult();
+        int column = 0;
+        for (List<FacetBucketDTO> facet : List.of(newPriceBuckets, discountBuckets, dateBuckets)) {
+            for (FacetBucketDTO bucket : facet) {
+                Long count = counts.get(column++, Long.class);
+                bucket.setCount(count == null ? 0L : count);
+            }
+        }
+    }
+
+    private static Expression<Long> countWhere(CriteriaBuilder cb, Predicate predicate) {
+        return cb.sumAsLong(cb.<Integer>selectCase().when(predicate, 1).otherwise(0));
+    }
+
+    private static String format(double value) {
+        return value == Math.floor(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,63 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.dtos.AnnouncementFilterDTO;
+import com.olxapplication.entity.Announcement;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class builds the JPA specifications used to filter announcements in the database.
+ */
+public class AnnouncementSpecifications {
+
+    /**
+     * Builds the specification matching every criterion set in the filter.
+     * @param filter the filter criteria; criteria left null are ignored.
+     * @return the specification of the filter.
+     */
+    public static Specification<Announcement> matching(AnnouncementFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (isPresent(filter.getExcludedUserId())) {
+                predicates.add(cb.notEqual(root.get("user").get("id"), filter.getExcludedUserId()));
+            }
+            if (isPresent(filter.getCategoryId())) {
+                predicates.add(cb.equal(root.get("category").get("id"), filter.getCategoryId()));
+            }
+            if (isPresent(filter.getCategoryName())) {
+                String pattern = "%" + filter.getCategoryName().toLowerCase(Locale.ROOT) + "%";
+                predicates.add(cb.like(cb.lower(root.get("category").get("categoryName")), pattern));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getMinNewPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("newPrice"), filter.getMinNewPrice()));
+            }
+            if (filter.getMaxNewPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("newPrice"), filter.getMaxNewPrice()));
+            }
+            if (filter.getMinDiscount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("discount"), filter.getMinDiscount()));
+            }
+            if (filter.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("date"), filter.getFrom().atStartOfDay()));
+            }
+            if (filter.getTo() != null) {
+                predicates.add(cb.lessThan(root.get("date"), filter.getTo().plusDays(1).atStartOfDay()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,35 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.entity.AnnouncementTombstone;
+import com.olxapplication.projections.ChangeRef;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This interface extends JPA's JpaRepository, providing access to AnnouncementTombstone entities within the persistence layer.
+ */
+public interface AnnouncementTombstoneRepository extends JpaRepository<AnnouncementTombstone, Long> {
+
+    /**
+     * Writes a tombstone for each of the announcements with the given ids that still exist, with one statement.
+     */
+    @Modifying
+    @Query("insert into AnnouncementTombstone (announcementId, changeVersion, deletedAt) "
+            + "select a.id, :version, :deletedAt from Announcement a where a.id in :ids")
+    int insertForAnnouncements(@Param("ids") Collection<String> ids, @Param("version") Long version, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Finds the deletions written after the position (since, afterId) and up to a version, in feed order.
+     */
+    @Query("select new com.olxapplication.projections.ChangeRef(t.announcementId, t.changeVersion) from AnnouncementTombstone t "
+            + "where (t.changeVersion > :since or (t.changeVersion = :since and t.announcementId > :afterId)) "
+            + "and t.changeVersion <= :upTo order by t.changeVersion, t.announcementId")
+    List<ChangeRef> findChangesAfter(@Param("since") Long since, @Param("afterId") String afterId, @Param("upTo") Long upTo, Pageable pageable);
+}
@@ -2,7 +2,10 @@ package com.olxapplication.repository;
 
 import com.olxapplication.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -10,4 +13,10 @@ import java.util.List;
  * It offers basic CRUD (Create, Read, Update, Delete) operations for Announcement entities identified by their unique Strings.
  */
 public interface CategoryRepository extends JpaRepository<Category, String> {
+
+    /**
+     * Reads which of the specified ids belong to existing category rows, without loading the entities.
+     */
+    @Query("select c.id from Category c where c.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
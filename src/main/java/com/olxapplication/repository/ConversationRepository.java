@@ -0,0 +1,56 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.entity.Conversation;
+import com.olxapplication.projections.ConversationView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface ConversationRepository extends JpaRepository<Conversation, String> {
+
+    /**
+     * Finds one page of the conversations of a user, latest activity first, along the owner index.
+     */
+    @Query("select new com.olxapplication.projections.ConversationView(u.id, u.firstName, u.lastName, c.lastMessagePreview, "
+            + "c.lastMessageAt, c.lastSenderId, c.unreadCount) from Conversation c join c.correspondent u "
+            + "where c.owner.id = :ownerId order by c.lastMessageAt desc, c.id desc")
+    Slice<ConversationView> findPageByOwner(@Param("ownerId") String ownerId, Pageable pageable);
+
+    /**
+     * Records a message received by the owner of a conversation row.
+     * @return the number of updated rows, 0 when the owner has no row for this conversation yet.
+     */
+    @Modifying
+    @Query("update Conversation c set c.lastMessagePreview = :preview, c.lastMessageAt = :at, c.lastSenderId = :senderId, "
+            + "c.unreadCount = c.unreadCount + 1 where c.owner.id = :ownerId and c.correspondent.id = :correspondentId")
+    int recordReceived(@Param("ownerId") String ownerId, @Param("correspondentId") String correspondentId,
+                       @Param("preview") String preview, @Param("at") LocalDateTime at, @Param("senderId") String senderId);
+
+    /**
+     * Records a message sent by the owner of a conversation row; replying means the owner has read the conversation.
+     * @return the number of updated rows, 0 when the owner has no row for this conversation yet.
+     */
+    @Modifying
+    @Query("update Conversation c set c.lastMessagePreview = :preview, c.lastMessageAt = :at, c.lastSenderId = :senderId, "
+            + "c.unreadCount = 0 where c.owner.id = :ownerId and c.correspondent.id = :correspondentId")
+    int recordSent(@Param("ownerId") String ownerId, @Param("correspondentId") String correspondentId,
+                   @Param("preview") String preview, @Param("at") LocalDateTime at, @Param("senderId") String senderId);
+
+    @Modifying
+    @Query("update Conversation c set c.unreadCount = 0 where c.owner.id = :ownerId and c.correspondent.id = :correspondentId "
+            + "and c.unreadCount > 0")
+    int markRead(@Param("ownerId") String ownerId, @Param("correspondentId") String correspondentId);
+
+    /**
+     * Deletes the conversation rows of a user, both the ones the user owns and the ones of the other participants.
+     * @return the number of deleted rows.
+     */
+    @Modifying
+    @Query("delete from Conversation c where c.owner.id = :userId or c.correspondent.id = :userId")
+    int deleteByParticipant(@Param("userId") String userId);
+}
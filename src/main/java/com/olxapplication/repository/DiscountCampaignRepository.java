@@ -0,0 +1,25 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.entity.DiscountCampaign;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * This interface extends JPA's JpaRepository, providing access to DiscountCampaign entities within the persistence layer.
+ */
+public interface DiscountCampaignRepository extends JpaRepository<DiscountCampaign, String> {
+    List<DiscountCampaign> findByStatusAndStartsAtLessThanEqualOrderByStartsAt(String status, LocalDateTime now);
+    List<DiscountCampaign> findByStatusAndEndsAtLessThanEqualOrderByEndsAt(String status, LocalDateTime now);
+    List<DiscountCampaign> findByStatusNotOrderByStartsAt(String status);
+
+    /**
+     * @return the largest discount of the active campaigns on the category or the seller, or null when none is active.
+     */
+    @Query("select max(c.discount) from DiscountCampaign c where c.status = '" + DiscountCampaign.ACTIVE + "' "
+            + "and (c.categoryId = :categoryId or c.userId = :userId)")
+    Double findBestActiveDiscount(@Param("categoryId") String categoryId, @Param("userId") String userId);
+}
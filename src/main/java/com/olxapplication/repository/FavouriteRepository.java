@@ -1,11 +1,167 @@
 package com.olxapplication.repository;
 
 import com.olxapplication.entity.Favourite;
+import com.olxapplication.projections.FavouriteRef;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface FavouriteRepository extends CrudRepository<Favourite, String> {
+    String NEW_PRICE_MINOR = "cast(cast(a.new_price as numeric(19, 2)) * 100 as bigint)";
+
     Optional<Favourite> findByUserId(String id);
+
+    /**
+     * Reads the id and the version of the favourite list of the specified user.
+     */
+    @Query("select new com.olxapplication.projections.FavouriteRef(f.id, f.version) from Favourite f where f.user.id = :userId")
+    Optional<FavouriteRef> findRefByUserId(@Param("userId") String userId);
+
+    /**
+     * Reads the stored total, in minor units, of the favourite list of the specified user.
+     */
+    @Query("select f.totalMinor from Favourite f where f.user.id = :userId")
+    Optional<Long> findTotalMinorByUserId(@Param("userId") String userId);
+
+    /**
+     * Checks whether the announcement is in the favourite list, with an index lookup on the join table.
+     */
+    @Query(value = "select exists(select 1 from favourite_announcement where favourite_id = :favouriteId and announcement_id = :announcementId)",
+            nativeQuery = true)
+    boolean containsAnnouncement(@Param("favouriteId") String favouriteId, @Param("announcementId") String announcementId);
+
+    /**
+     * Adds the announcement to the favourite list with a single insert into the join table.
+     */
+    @Modifying
+    @Query(value = "insert into favourite_announcement (favourite_id, announcement_id) values (:favouriteId, :announcementId)", nativeQuery = true)
+    int addAnnouncement(@Param("favouriteId") String favouriteId, @Param("announcementId") String announcementId);
+
+    /**
+     * Removes the announcement from the favourite list with a single delete on the join table.
+     * @return the number of removed rows.
+     */
+    @Modifying
+    @Query(value = "delete from favourite_announcement where favourite_id = :favouriteId and announcement_id = :announcementId", nativeQuery = true)
+    int removeAnnouncement(@Param("favouriteId") String favouriteId, @Param("announcementId") String announcementId);
+
+    /**
+     * Reads the join table rows of the favourite list, one announcement id per row.
+     */
+    @Query(value = "select announcement_id from favourite_announcement where favourite_id = :favouriteId", nativeQuery = true)
+    List<String> findAnnouncementIds(@Param("favouriteId") String favouriteId);
+
+    /**
+     * Reads which of the announcements exist and are not yet in the favourite list.
+     */
+    @Query(value = "select a.id from announces_table a where a.id in (:announcementIds) and not exists "
+            + "(select 1 from favourite_announcement fa where fa.favourite_id = :favouriteId and fa.announcement_id = a.id)",
+            nativeQuery = true)
+    List<String> findAddableAnnouncementIds(@Param("favouriteId") String favouriteId, @Param("announcementIds") Collection<String> announcementIds);
+
+    /**
+     * Reads the join table rows of the favourite list holding any of the announcements, one id per row.
+     */
+    @Query(value = "select announcement_id from favourite_announcement where favourite_id = :favouriteId and announcement_id in (:announcementIds)",
+            nativeQuery = true)
+    List<String> findHeldAnnouncementIds(@Param("favouriteId") String favouriteId, @Param("announcementIds") Collection<String> announcementIds);
+
+    /**
+     * Adds the announcements to the favourite list with a single set-based insert into the join table.
+     */
+    @Modifying
+    @Query(value = "insert into favourite_announcement (favourite_id, announcement_id) "
+            + "select :favouriteId, a.id from announces_table a where a.id in (:announcementIds)", nativeQuery = true)
+    int addAnnouncements(@Param("favouriteId") String favouriteId, @Param("announcementIds") Collection<String> announcementIds);
+
+    /**
+     * Removes the announcements from the favourite list with a single set-based delete on the join table.
+     * @return the number of removed rows.
+     */
+    @Modifying
+    @Query(value = "delete from favourite_announcement where favourite_id = :favouriteId and announcement_id in (:announcementIds)",
+            nativeQuery = true)
+    int removeAnnouncements(@Param("favouriteId") String favouriteId, @Param("announcementIds") Collection<String> announcementIds);
+
+
+    /**
+     * Sums the new prices of the announcements, in minor units.
+     */
+    @Query(value = "select coalesce(sum(" + NEW_PRICE_MINOR + "), 0) from announces_table a where a.id in (:announcementIds)", nativeQuery = true)
+    long sumNewPricesMinor(@Param("announcementIds") Collection<String> announcementIds);
+
+    /**
+     * Adds a delta, in minor units, to the total of the favourite list and moves it to its next version,
+     * provided it is still at the expected version.
+     * @return 1 when the list was updated, 0 when another change has moved it to a newer version.
+     */
+    @Modifying
+    @Query("update Favourite f set f.totalMinor = f.totalMinor + :deltaMinor, f.version = f.version + 1 "
+            + "where f.id = :favouriteId and f.version = :version")
+    int addToTotal(@Param("favouriteId") String favouriteId, @Param("version") long version, @Param("deltaMinor") long deltaMinor);
+
+    /**
+     * Recomputes the total of the favourite list from its join table rows and moves it to its next version,
+     * provided it is still at the expected version.
+     * @return 1 when the list was updated, 0 when another change has moved it to a newer version.
+     */
+    @Modifying
+    @Query(value = "update favourites_table f set version = version + 1, total_minor = (select coalesce(sum(" + NEW_PRICE_MINOR + "), 0) "
+            + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where fa.favourite_id = f.id) "
+            + "where f.id = :favouriteId and f.version = :version",
+            nativeQuery = true)
+    int recomputeTotal(@Param("favouriteId") String favouriteId, @Param("version") long version);
+
+    /**
+     * Reads the ids of the favourite lists holding any of the announcements, through the index on
+     * favourite_announcement.announcement_id.
+     */
+    @Query(value = "select distinct favourite_id from favourite_announcement where announcement_id in (:announcementIds)", nativeQuery = true)
+    List<String> findFavouriteIdsHolding(@Param("announcementIds") Collection<String> announcementIds);
+
+    /**
+     * Recomputes the totals of the favourite lists from their join table rows.
+     * @return the number of updated favourite lists.
+     */
+    @Modifying
+    @Query(value = "update favourites_table f set version = version + 1, total_minor = (select coalesce(sum(" + NEW_PRICE_MINOR + "), 0) "
+            + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where fa.favourite_id = f.id) "
+            + "where f.id in (:favouriteIds)",
+            nativeQuery = true)
+    int recomputeTotals(@Param("favouriteIds") Collection<String> favouriteIds);
+
+    /**
+     * Recomputes the totals of the favourite lists holding any of the announcements, found through the index on
+     * favourite_announcement.announcement_id.
+     * @return the number of updated favourite lists.
+     */
+    @Modifying
+    @Query(value = "update favourites_table f set version = version + 1, total_minor = (select coalesce(sum(" + NEW_PRICE_MINOR + "), 0) "
+            + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where fa.favourite_id = f.id) "
+            + "where f.id in (select fa.favourite_id from favourite_announcement fa where fa.announcement_id in (:announcementIds))",
+            nativeQuery = true)
+    int recomputeTotalsHolding(@Param("announcementIds") Collection<String> announcementIds);
+
+    /**
+     * Computes the totals of the non-empty favourite lists that have none stored yet, which only happens to the lists
+     * created before the totals were kept in minor units.
+     */
+    @Modifying
+    @Query(value = "update favourites_table f set version = version + 1, total_minor = (select coalesce(sum(" + NEW_PRICE_MINOR + "), 0) "
+            + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where fa.favourite_id = f.id) "
+            + "where f.total_minor = 0 and exists (select 1 from favourite_announcement fa where fa.favourite_id = f.id)",
+            nativeQuery = true)
+    int backfillTotals();
+
+    /**
+     * Removes the announcements from every favourite list with a single set-based delete on the join table.
+     */
+    @Modifying
+    @Query(value = "delete from favourite_announcement where announcement_id in (:announcementIds)", nativeQuery = true)
+    int removeAnnouncementsFromAll(@Param("announcementIds") Collection<String> announcementIds);
 }
@@ -1,10 +1,37 @@
 package com.olxapplication.repository;
 
 import com.olxapplication.entity.Message;
+import com.olxapplication.projections.ChatMessageView;
+import com.olxapplication.projections.MessageRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, String> {
-    List<Message> findBySenderIdAndReceiverId(String senderId, String receiverId);
+    /**
+     * Finds the messages sent after the position (date, id), oldest first.
+     */
+    @Query("select new com.olxapplication.projections.MessageRow(m.id, m.msg, m.date, m.sender.id, m.receiver.id) from Message m "
+            + "where m.date > :date or (m.date = :date and m.id > :id) order by m.date, m.id")
+    List<MessageRow> findRowsAfter(@Param("date") LocalDateTime date, @Param("id") String id, Pageable pageable);
+
+    /**
+     * Finds the latest messages exchanged by two users before the position (date, id), latest first.
+     * Each direction is read along the (sender_id, receiver_id, date, id) index and stops after the limit,
+     * so the cost does not depend on the length of the history.
+     */
+    @Query(value = "select t.id as id, t.msg as msg, t.date as date, t.sender_id as senderId, u.first_name as firstName, "
+            + "u.last_name as lastName from ("
+            + "(select m.id, m.msg, m.date, m.sender_id from messages_table m where m.sender_id = :first and m.receiver_id = :second "
+            + "and (m.date < :date or (m.date = :date and m.id < :id)) order by m.date desc, m.id desc limit :limit) "
+            + "union all "
+            + "(select m.id, m.msg, m.date, m.sender_id from messages_table m where m.sender_id = :second and m.receiver_id = :first "
+            + "and (m.date < :date or (m.date = :date and m.id < :id)) order by m.date desc, m.id desc limit :limit)"
+            + ") t join users_table u on u.id = t.sender_id order by t.date desc, t.id desc limit :limit", nativeQuery = true)
+    List<ChatMessageView> findChatBefore(@Param("first") String first, @Param("second") String second,
+                                         @Param("date") LocalDateTime date, @Param("id") String id, @Param("limit") int limit);
 }
@@ -0,0 +1,53 @@
+package com.olxapplication.repository;
+
+import com.olxapplication.entity.RepricedAnnouncement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * This interface extends JPA's JpaRepository, providing access to RepricedAnnouncement entities within the persistence layer.
+ */
+public interface RepricedAnnouncementRepository extends JpaRepository<RepricedAnnouncement, Long> {
+
+    /**
+     * Records that the new price of an announcement has changed.
+     */
+    @Modifying
+    @Query(value = "insert into repriced_announcements_table (announcement_id) values (:announcementId)", nativeQuery = true)
+    int insert(@Param("announcementId") String announcementId);
+
+    /**
+     * Records the announcements of a category that are in at least one favourite list, with one statement.
+     */
+    @Modifying
+    @Query(value = "insert into repriced_announcements_table (announcement_id) select distinct fa.announcement_id "
+            + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where a.category_id = :categoryId",
+            nativeQuery = true)
+    int insertFavouritedByCategoryId(@Param("categoryId") String categoryId);
+
+    /**
+     * Records the announcements posted by a user that are in at least one favourite list, with one statement.
+     */
+    @Modifying
+    @Query(value = "insert into repriced_announcements_table (announcement_id) select distinct fa.announcement_id "
+            + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where a.user_id = :userId",
+            nativeQuery = true)
+    int insertFavouritedByUserId(@Param("userId") String userId);
+
+    /**
+     * Reads the oldest pending rows.
+     */
+    @Query("select r from RepricedAnnouncement r order by r.id")
+    List<RepricedAnnouncement> findOldest(Pageable pageable);
+
+    /**
+     * @return the number of distinct announcements waiting to be propagated.
+     */
+    @Query("select count(distinct r.announcementId) from RepricedAnnouncement r")
+    long countAnnouncements();
+}
@@ -1,8 +1,15 @@
 package com.olxapplication.repository;
 
 import com.olxapplication.entity.User;
+import com.olxapplication.projections.UserCredentialsView;
+import com.olxapplication.projections.UserSummaryView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +18,36 @@ import java.util.Optional;
  * It offers basic CRUD (Create, Read, Update, Delete) operations for Announcement entities identified by their unique Strings.
  */
 public interface UserRepository extends JpaRepository<User, String>{
+    String SELECT_SUMMARY = "select new com.olxapplication.projections.UserSummaryView(u.id, u.firstName, u.lastName, u.email, u.role) ";
+    String MATCHING_PREFIX = "where lower(u.firstName) like :prefix escape '\\' or lower(u.lastName) like :prefix escape '\\' "
+            + "or lower(u.email) like :prefix escape '\\'";
+
     Optional<User> findByEmailIgnoreCase(String email);
     Boolean existsByEmailIgnoreCase(String email);
     User findByRole(String role);
-}
\ No newline at end of file
+
+    /**
+     * Reads the credentials of the user with the specified email, ignoring case, with a single query.
+     */
+    @Query("select new com.olxapplication.projections.UserCredentialsView(u.id, u.password, u.role, u.firstName, u.lastName) "
+            + "from User u where lower(u.email) = lower(:email)")
+    Optional<UserCredentialsView> findCredentialsByEmail(@Param("email") String email);
+
+    /**
+     * Reads one page of the user directory; the total is computed by a separate count query.
+     */
+    @Query(value = SELECT_SUMMARY + "from User u", countQuery = "select count(u) from User u")
+    Page<UserSummaryView> findSummaries(Pageable pageable);
+
+    /**
+     * Reads one page of the users whose first name, last name or email starts with a lower case prefix pattern.
+     */
+    @Query(value = SELECT_SUMMARY + "from User u " + MATCHING_PREFIX, countQuery = "select count(u) from User u " + MATCHING_PREFIX)
+    Page<UserSummaryView> searchSummaries(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * Reads which of the specified ids belong to existing user rows, without loading the entities.
+     */
+    @Query("select u.id from User u where u.id in :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+}
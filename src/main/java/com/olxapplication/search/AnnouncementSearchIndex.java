@@ -0,0 +1,348 @@
+package com.olxapplication.search;
+
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.projections.AnnouncementSearchView;
+import com.olxapplication.repository.AnnouncementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the title and the description of the announcements.
+ * Every term maps to a postings list of (document, term frequency) pairs kept in ascending document order,
+ * so a query intersects the postings of its terms starting from the rarest one and ranks the matches with BM25.
+ * Deleted and replaced documents are only flagged until enough of them pile up to compact the postings, so every
+ * postings list also counts its live documents, which the document frequencies of BM25 are taken from.
+ * The index is loaded once at startup and then kept up to date by AnnouncementService on every insert, update and delete.
+ */
+@Component
+public class AnnouncementSearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnnouncementSearchIndex.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 2;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int MIN_DELETED_TO_COMPACT = 10000;
+
+    private final AnnouncementRepository announcementRepository;
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> documents = new HashMap<>();
+    private String[] announcementIds = new String[1024];
+    private String[] ownerIds = new String[1024];
+    private int[] lengths = new int[1024];
+    private Postings[][] documentPostings = new Postings[1024][];
+    private final BitSet deleted = new BitSet();
+    private int nextDocument;
+    private int deletedCount;
+    private long totalLength;
+
+    public AnnouncementSearchIndex(AnnouncementRepository announcementRepository) {
+        this.announcementRepository = announcementRepository;
+    }
+
+    /**
+     * Loads every announcement into the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            clear();
+            String lastId = "";
+            List<AnnouncementSearchView> batch;
+            do {
+                batch = announcementRepository.findSearchDocuments(lastId, PageRequest.ofSize(REBUILD_BATCH_SIZE));
+                for (AnnouncementSearchView view : batch) {
+                    add(view.getId(), view.getTitle(), view.getDescription(), view.getUserId());
+                    lastId = view.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Search index loaded with {} announcements in {} ms", size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Adds an announcement to the index or replaces its previous version.
+     * @param announcement the announcement to index.
+     */
+    public void index(Announcement announcement) {
+        String ownerId = announcement.getUser() == null ? null : announcement.getUser().getId();
+        index(announcement.getId(), announcement.getTitle(), announcement.getDescription(), ownerId);
+    }
+
+    /**
+     * Adds an announcement to the index or replaces its previous version.
+     * @param id the id of the announcement.
+     * @param title the title of the announcement.
+     * @param description the description of the announcement.
+     * @param ownerId the id of the user that posted the announcement.
+     */
+    public void index(String id, String title, String description, String ownerId) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+            add(id, title, description, ownerId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an announcement from the index.
+     * @param id the id of the announcement.
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the announcements containing all the terms of the query, best match first.
+     * @param query the text to search for.
+     * @param excludedOwnerId the id of a user whose announcements are left out, or null.
+     * @param page the zero based index of the page.
+     * @param size the size of the page.
+     * @return the ids of the announcements of the page and the total number of matches.
+     */
+    public SearchHits search(String query, String excludedOwnerId, int page, int size) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenizer.tokenize(query)));
+        if (terms.isEmpty() || size <= 0 || page < 0) {
+            return new SearchHits(Collections.emptyList(), 0);
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null || list.live == 0) {
+                    return new SearchHits(Collections.emptyList(), 0);
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int live = size();
+            double averageLength = live == 0 ? 1.0 : (double) totalLength / live;
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int frequency = lists.get(i).live;
+                idf[i] = Math.log(1.0 + (live - frequency + 0.5) / (frequency + 0.5));
+            }
+
+            int wanted = (page + 1) * size;
+            PriorityQueue<ScoredDocument> best = new PriorityQueue<>(Comparator.comparingDouble(ScoredDocument::score));
+            int totalHits = 0;
+            Postings rarest = lists.get(0);
+            for (int i = 0; i < rarest.size; i++) {
+                int document = rarest.documents[i];
+                if (deleted.get(document) || (excludedOwnerId != null && excludedOwnerId.equals(ownerIds[document]))) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+                double score = idf[0] * bm25(rarest.frequencies[i], norm);
+                boolean matches = true;
+                for (int t = 1; t < lists.size() && matches; t++) {
+                    Postings other = lists.get(t);
+                    int position = Arrays.binarySearch(other.documents, 0, other.size, document);
+                    if (position < 0) {
+                        matches = false;
+                    } else {
+                        score += idf[t] * bm25(other.frequencies[position], norm);
+                    }
+                }
+                if (!matches) {
+                    continue;
+                }
+                totalHits++;
+                if (best.size() < wanted) {
+                    best.add(new ScoredDocument(document, score));
+                } else if (best.peek().score() < score) {
+                    best.poll();
+                    best.add(new ScoredDocument(document, score));
+                }
+            }
+
+            List<ScoredDocument> ranked = new ArrayList<>(best);
+            ranked.sort(Comparator.comparingDouble(ScoredDocument::score).reversed());
+            List<String> ids = new ArrayList<>(size);
+            for (int i = page * size; i < ranked.size(); i++) {
+                ids.add(announcementIds[ranked.get(i).document()]);
+            }
+            return new SearchHits(ids, totalHits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of announcements in the index.
+     */
+    public int size() {
+        return nextDocument - deletedCount;
+    }
+
+    private static double bm25(int frequency, double norm) {
+        return frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private void clear() {
+        postings.clear();
+        documents.clear();
+        deleted.clear();
+        announcementIds = new String[1024];
+        ownerIds = new String[1024];
+        lengths = new int[1024];
+        documentPostings = new Postings[1024][];
+        nextDocument = 0;
+        deletedCount = 0;
+        totalLength = 0;
+    }
+
+    private void add(String id, String title, String description, String ownerId) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : tokenizer.tokenize(title)) {
+            frequencies.merge(term, TITLE_BOOST, Integer::sum);
+            length += TITLE_BOOST;
+        }
+        for (String term : tokenizer.tokenize(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+
+        int document = nextDocument++;
+        if (document == announcementIds.length) {
+            int capacity = announcementIds.length * 2;
+            announcementIds = Arrays.copyOf(announcementIds, capacity);
+            ownerIds = Arrays.copyOf(ownerIds, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            documentPostings = Arrays.copyOf(documentPostings, capacity);
+        }
+        announcementIds[document] = id;
+        ownerIds[document] = ownerId;
+        lengths[document] = length;
+        totalLength += length;
+        documents.put(id, document);
+        Postings[] lists = new Postings[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), term -> new Postings());
+            list.add(document, entry.getValue());
+            lists[i++] = list;
+        }
+        documentPostings[document] = lists;
+    }
+
+    private void delete(String id) {
+        Integer document = documents.remove(id);
+        if (document != null) {
+            deleted.set(document);
+            deletedCount++;
+            totalLength -= lengths[document];
+            for (Postings list : documentPostings[document]) {
+                list.live--;
+            }
+            documentPostings[document] = null;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount > size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Drops the deleted documents from the postings lists and renumbers the remaining ones, keeping their order.
+     */
+    private void compact() {
+        int[] renumbered = new int[nextDocument];
+        int live = 0;
+        for (int document = 0; document < nextDocument; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = live;
+                announcementIds[live] = announcementIds[document];
+                ownerIds[live] = ownerIds[document];
+                lengths[live] = lengths[document];
+                documentPostings[live] = documentPostings[document];
+                documents.put(announcementIds[live], live);
+                live++;
+            }
+        }
+        Arrays.fill(announcementIds, live, nextDocument, null);
+        Arrays.fill(ownerIds, live, nextDocument, null);
+        Arrays.fill(documentPostings, live, nextDocument, null);
+        postings.values().removeIf(list -> list.retain(renumbered) == 0);
+        deleted.clear();
+        nextDocument = live;
+        deletedCount = 0;
+        LOGGER.debug("Search index compacted to {} announcements", live);
+    }
+
+    private record ScoredDocument(int document, double score) {
+    }
+
+    /**
+     * Postings list of one term, in ascending document order, with the number of its documents not deleted.
+     */
+    private static final class Postings {
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int live;
+
+        private void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        private int retain(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int document = renumbered[documents[i]];
+                if (document >= 0) {
+                    documents[kept] = document;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.olxapplication.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results: the ids of the matching announcements, best match first,
+ * and the total number of matching announcements.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+    private final List<String> ids;
+    private final int totalHits;
+}
@@ -0,0 +1,56 @@
+package com.olxapplication.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits announcement text into normalized search terms.
+ * Terms are lower-cased, stripped of diacritics and split on anything that is not a letter or a digit.
+ */
+public class Tokenizer {
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "and", "are", "for", "from", "the", "this", "that", "with", "of", "in", "on", "to", "or", "an", "is",
+            "si", "de", "la", "cu", "pe", "un", "din", "pentru");
+
+    /**
+     * Tokenizes a text.
+     * @param text the text to tokenize, may be null.
+     * @return the terms of the text, in order, duplicates included.
+     */
+    public List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else {
+                addTerm(terms, term);
+            }
+        }
+        addTerm(terms, term);
+        return terms;
+    }
+
+    private void addTerm(List<String> terms, StringBuilder term) {
+        if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH) {
+            String value = term.toString();
+            if (!STOP_WORDS.contains(value)) {
+                terms.add(value);
+            }
+        }
+        term.setLength(0);
+    }
+}
@@ -0,0 +1,343 @@
+package com.olxapplication.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.AnnouncementMessages;
+import com.olxapplication.constants.CategoryMessages;
+import com.olxapplication.constants.UserMessages;
+import com.olxapplication.dtos.AnnouncementWebDTO;
+import com.olxapplication.dtos.ImportReportDTO;
+import com.olxapplication.dtos.ImportRowErrorDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.pricing.PriceCalculator;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.DiscountCampaignRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.validators.AnnouncementValidator;
+import com.opencsv.CSVReader;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * This service layer class imports announcements in bulk from a CSV or a JSON lines stream.
+ * The stream is read in chunks: the rows of a chunk are validated in parallel, the user and category ids of the chunk
+ * are checked with one query each, and the valid rows are written with JDBC batch inserts in one transaction per chunk.
+ * A rejected row is reported with its number and reason and does not stop the import.
+ */
+@Service
+@AllArgsConstructor
+public class AnnouncementImportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnnouncementImportService.class);
+    public static final String CSV = "csv";
+    public static final String JSON_LINES = "jsonl";
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS = List.of("title", "description", "price", "discount", "user", "category", "imageURL");
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final DiscountCampaignRepository campaignRepository;
+    private final AnnouncementSearchIndex searchIndex;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeVersionSequence changeVersions;
+    private final AnnouncementValidator announcementValidator = new AnnouncementValidator();
+    private final ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /**
+     * Imports the announcements of a CSV or JSON lines stream.
+     * A CSV stream starts with a header naming the columns title, description, price, discount, user, category and imageURL;
+     * every line of a JSON lines stream is an object with the same fields.
+     * @param inputStream the stream of the rows, encoded in UTF-8.
+     * @param format the format of the stream, "csv" or "jsonl".
+     * @return an ImportReportDTO holding the row counts, the throughput and the errors of the rejected rows.
+     * @throws PatternNotMathcedException if the format is not supported or the CSV header is not valid.
+     */
+    public ImportReportDTO importAnnouncements(InputStream inputStream, String format) {
+        String normalizedFormat = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        long start = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            RowReader rows = switch (normalizedFormat) {
+                case CSV -> new CsvRowReader(new CSVReader(reader));
+                case JSON_LINES, "json" -> new JsonLinesRowReader(reader);
+                default -> throw new PatternNotMathcedException(AnnouncementMessages.IMPORT_FORMAT_NOT_SUPPORTED + format);
+            };
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, progress);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, progress);
+            }
+        } catch (IOException e) {
+            LOGGER.error(AnnouncementMessages.IMPORT_FAILED + e.getMessage());
+            progress.fail(progress.total + 1, AnnouncementMessages.IMPORT_FAILED + e.getMessage());
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        ImportReportDTO report = ImportReportDTO.builder()
+                .format(normalizedFormat)
+                .totalRows(progress.total)
+                .importedRows(progress.imported)
+                .failedRows(progress.failed)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(progress.imported * 1000.0 / elapsedMillis)
+                .errors(progress.errors)
+                .errorsTruncated(progress.failed > progress.errors.size())
+                .build();
+        LOGGER.info("Imported {} of {} announcements in {} ms ({} rows/s)", report.getImportedRows(), report.getTotalRows(),
+                elapsedMillis, Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Validates, resolves and writes one chunk of rows.
+     */
+    private void importChunk(List<ImportRow> chunk, ImportProgress progress) {
+        progress.total += chunk.size();
+        chunk.parallelStream().forEach(this::validate);
+
+        Set<String> userIds = new HashSet<>();
+        Set<String> categoryIds = new HashSet<>();
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                userIds.add(row.announcement.getUser());
+                categoryIds.add(row.announcement.getCategory());
+            }
+        }
+        Set<String> existingUsers = userIds.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingIds(userIds));
+        Set<String> existingCategories = categoryIds.isEmpty() ? Set.of() : new HashSet<>(categoryRepository.findExistingIds(categoryIds));
+
+        List<ImportRow> valid = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error == null && !existingUsers.contains(row.announcement.getUser())) {
+                row.error = UserMessages.USER_NOT_FOUND + row.announcement.getUser();
+            } else if (row.error == null && !existingCategories.contains(row.announcement.getCategory())) {
+                row.error = CategoryMessages.CATEGORY_NOT_FOUND + row.announcement.getCategory();
+            }
+            if (row.error == null) {
+                valid.add(row);
+            } else {
+                progress.fail(row.number, row.error);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        List<Announcement> saved = changeVersions.write(version -> transactionTemplate.execute(status -> persist(valid, version)));
+        for (Announcement announcement : saved) {
+            searchIndex.index(announcement.getId(), announcement.getTitle(), announcement.getDescription(), announcement.getUser().getId());
+        }
+        progress.imported += saved.size();
+    }
+
+    /**
+     * Persists the valid rows of a chunk; the inserts are sent to the database in JDBC batches when the transaction is flushed.
+     * The announcements of a chunk share one change version; the active campaigns are read once per category and seller.
+     */
+    private List<Announcement> persist(List<ImportRow> rows, long version) {
+        Map<String, User> users = new HashMap<>();
+        Map<String, Category> categories = new HashMap<>();
+        Map<List<String>, Optional<Double>> campaignDiscounts = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        List<Announcement> announcements = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            AnnouncementWebDTO dto = row.announcement;
+            Double campaignDiscount = campaignDiscounts.computeIfAbsent(List.of(dto.getCategory(), dto.getUser()),
+                    key -> Optional.ofNullable(campaignRepository.findBestActiveDiscount(key.get(0), key.get(1)))).orElse(null);
+            Announcement announcement = Announcement.builder()
+                    .title(dto.getTitle())
+                    .description(dto.getDescription())
+                    .price(dto.getPrice())
+                    .discount(dto.getDiscount())
+                    .campaignDiscount(campaignDiscount)
+                    .newPrice(PriceCalculator.discountedPrice(dto.getPrice(), PriceCalculator.effectiveDiscount(dto.getDiscount(), campaignDiscount)))
+                    .imageURL(dto.getImageURL())
+                    .date(now)
+                    .changeVersion(version)
+                    .user(users.computeIfAbsent(dto.getUser(), id -> entityManager.getReference(User.class, id)))
+                    .category(categories.computeIfAbsent(dto.getCategory(), id -> entityManager.getReference(Category.class, id)))
+                    .build();
+            entityManager.persist(announcement);
+            announcements.add(announcement);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return announcements;
+    }
+
+    private void validate(ImportRow row) {
+        if (row.error != null) {
+            return;
+        }
+        try {
+            AnnouncementWebDTO dto = row.announcement;
+            if (dto.getTitle() == null || dto.getDescription() == null || dto.getPrice() == null || dto.getDiscount() == null
+                    || dto.getUser() == null || dto.getCategory() == null || dto.getImageURL() == null) {
+                row.error = AnnouncementMessages.IMPORT_ROW_MALFORMED + "missing field";
+                return;
+            }
+            announcementValidator.announcementWebDtoValidator(dto);
+        } catch (PatternNotMathcedException e) {
+            row.error = e.getMessage();
+        }
+    }
+
+    /**
+     * One row of the import and, if it was rejected, the reason.
+     */
+    private static final class ImportRow {
+        private final long number;
+        private final AnnouncementWebDTO announcement;
+        private volatile String error;
+
+        private ImportRow(long number, AnnouncementWebDTO announcement, String error) {
+            this.number = number;
+            this.announcement = announcement;
+            this.error = error;
+        }
+    }
+
+    /**
+     * The counters and the reported errors of an import.
+     */
+    private static final class ImportProgress {
+        private long total;
+        private long imported;
+        private long failed;
+        private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+
+        private void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowErrorDTO(row, message));
+            }
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * @return the next row, or null at the end of the stream.
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Reads the rows of a CSV stream, mapping the columns by the names of its header.
+     */
+    private static final class CsvRowReader implements RowReader {
+        private final CSVReader reader;
+        private final int[] columns = new int[CSV_COLUMNS.size()];
+        private long number = 1;
+
+        private CsvRowReader(CSVReader reader) throws IOException {
+            this.reader = reader;
+            String[] header = reader.readNext();
+            List<String> names = header == null ? List.of() : Arrays.stream(header).map(String::trim).toList();
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+                if (columns[i] < 0) {
+                    throw new PatternNotMathcedException(AnnouncementMessages.IMPORT_HEADER_INVALID + String.join(",", CSV_COLUMNS));
+                }
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String[] line = reader.readNext();
+            if (line == null) {
+                return null;
+            }
+            number++;
+            try {
+                AnnouncementWebDTO dto = AnnouncementWebDTO.builder()
+                        .title(column(line, 0))
+                        .description(column(line, 1))
+                        .price(Double.valueOf(column(line, 2)))
+                        .discount(Double.valueOf(column(line, 3)))
+                        .user(column(line, 4))
+                        .category(column(line, 5))
+                        .imageURL(column(line, 6))
+                        .build();
+                return new ImportRow(number, dto, null);
+            } catch (RuntimeException e) {
+                return new ImportRow(number, null, AnnouncementMessages.IMPORT_ROW_MALFORMED + e.getMessage());
+            }
+        }
+
+        private String column(String[] line, int column) {
+            int index = columns[column];
+            if (index >= line.length) {
+                throw new IllegalArgumentException("missing column " + CSV_COLUMNS.get(column));
+            }
+            return line[index].trim();
+        }
+    }
+
+    /**
+     * Reads the rows of a JSON lines stream, skipping the blank lines.
+     */
+    private final class JsonLinesRowReader implements RowReader {
+        private final BufferedReader reader;
+        private long number;
+
+        private JsonLinesRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                number++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (node == null || !node.isObject()) {
+                    return new ImportRow(number, null, AnnouncementMessages.IMPORT_ROW_MALFORMED + "not a JSON object");
+                }
+                return new ImportRow(number, objectMapper.treeToValue(node, AnnouncementWebDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow(number, null, AnnouncementMessages.IMPORT_ROW_MALFORMED + e.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package com.olxapplication.service;
 
+import com.olxapplication.cache.ReadThroughCache;
+import com.olxapplication.changes.ChangeVersionSequence;
 import com.olxapplication.constants.AnnouncementMessages;
 import com.olxapplication.constants.CategoryMessages;
 import com.olxapplication.constants.UserMessages;
 import com.olxapplication.dtos.*;
 import com.olxapplication.entity.Category;
-import com.olxapplication.entity.Favourite;
 import com.olxapplication.entity.User;
 import com.olxapplication.exception.PatternNotMathcedException;
 import com.olxapplication.exception.ResourceNotFoundException;
@@ -13,22 +14,41 @@ import com.olxapplication.mappers.AnnouncementMapper;
 import com.olxapplication.entity.Announcement;
 import com.olxapplication.mappers.CategoryMapper;
 import com.olxapplication.mappers.UserMapper;
+import com.olxapplication.pagination.KeysetCursor;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.pricing.PriceCalculator;
+import com.olxapplication.projections.AnnouncementListView;
 import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.AnnouncementSpecifications;
+import com.olxapplication.repository.AnnouncementTombstoneRepository;
 import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.DiscountCampaignRepository;
 import com.olxapplication.repository.FavouriteRepository;
 import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.search.SearchHits;
 import com.olxapplication.validators.AnnouncementValidator;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.text.DecimalFormat;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -45,66 +65,229 @@ public class AnnouncementService {
     private final CategoryRepository categoryRepository;
 
 
-    private static final DecimalFormat decimalFormat = new DecimalFormat("0.00");
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "price", "price",
+            "newprice", "newPrice",
+            "discount", "discount",
+            "date", "date",
+            "title", "title");
+
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final int DETAILS_CACHE_CAPACITY = 10000;
+    private static final Duration DETAILS_CACHE_TTL = Duration.ofMinutes(10);
+
     private final FavouriteRepository favouriteRepository;
+    private final DiscountCampaignRepository campaignRepository;
+    private final AnnouncementSearchIndex searchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final AnnouncementTombstoneRepository tombstoneRepository;
+    private final ChangeVersionSequence changeVersions;
+    private final FavouriteTotalsPropagator favouriteTotals;
+    private final PopularityTracker popularityTracker;
+    private final ReadThroughCache<String, AnnouncementListView> detailsCache = new ReadThroughCache<>(DETAILS_CACHE_CAPACITY, DETAILS_CACHE_TTL);
 
     /**
-     * Finds all announcements.
-     * @return a list of AnnouncementDetailsDTO objects.
+     * Finds one page of announcements, newest first, using keyset pagination on (date, id).
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param limit the maximum number of announcements in the page.
+     * @return an AnnouncementPageDTO holding the announcements and the cursor of the next page.
      */
-    public List<AnnouncementDetailsDTO> findAnnounces(){
-        List<Announcement> announcementList = announcementRepository.findAll();
-        return announcementList.stream()
-                .map(AnnouncementMapper::toAnnouncementDetailsDTO)
-                .collect(Collectors.toList());
+    public AnnouncementPageDTO findAnnounces(String cursor, Integer limit){
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        List<AnnouncementListView> announcementList = keysetCursor == null
+                ? announcementRepository.findFeedFirstPage(pageable)
+                : announcementRepository.findFeedAfter(keysetCursor.getDate(), keysetCursor.getId(), pageable);
+        return toPage(announcementList, pageSize);
     }
 
     /**
-     * Finds all announcements excluding those made by a specific user.
+     * Finds one page of announcements excluding those made by a specific user, newest first.
+     * The exclusion and the ordering are done by the database, using keyset pagination on (date, id).
      * @param id the id of the user whose announcements are to be excluded.
-     * @return a list of AnnouncementDetailsDTO objects.
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param limit the maximum number of announcements in the page.
+     * @return an AnnouncementPageDTO holding the announcements and the cursor of the next page.
      */
-    public List<AnnouncementDetailsDTO> findOtherAnnounces(String id){
-        List<Announcement> announcementList = announcementRepository.findAll();
-        for(int i = announcementList.size()-1; i >= 0; i--){
-            Announcement a = announcementList.get(i);
-            if(a.getUser().getId().equals(id)){
-                announcementList.remove(announcementList.get(i));
-            }
+    public AnnouncementPageDTO findOtherAnnounces(String id, String cursor, Integer limit){
+        KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+        int pageSize = pageSize(limit);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+        List<AnnouncementListView> announcementList = keysetCursor == null
+                ? announcementRepository.findOtherFeedFirstPage(id, pageable)
+                : announcementRepository.findOtherFeedAfter(id, keysetCursor.getDate(), keysetCursor.getId(), pageable);
+        return toPage(announcementList, pageSize);
+    }
+
+    /**
+     * Clamps the requested page size to the allowed interval.
+     * @param limit the requested page size, may be null.
+     * @return the page size to be used.
+     */
+    private int pageSize(Integer limit){
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
         }
-        return announcementList.stream()
-                .map(AnnouncementMapper::toAnnouncementDetailsDTO)
-                .collect(Collectors.toList());
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from the rows read with one extra element, which only signals that a next page exists.
+     * @param announcementList the rows read from the database, at most pageSize + 1.
+     * @param pageSize the size of the page.
+     * @return the AnnouncementPageDTO of the page.
+     */
+    private AnnouncementPageDTO toPage(List<AnnouncementListView> announcementList, int pageSize){
+        boolean hasNext = announcementList.size() > pageSize;
+        List<AnnouncementListView> page = hasNext ? announcementList.subList(0, pageSize) : announcementList;
+        String nextCursor = null;
+        if (hasNext) {
+            AnnouncementListView last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.date(), last.id());
+        }
+        return AnnouncementPageDTO.builder()
+                .announces(page.stream()
+                        .map(AnnouncementMapper::toAnnouncementDetailsDTO)
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .limit(pageSize)
+                .build();
     }
 
     /**
      * Finds an announcement by its id.
+     * The details are served from a bounded cache; concurrent misses for the same announcement read it from the database once.
+     * The cache holds the immutable projection, so every caller gets its own DTO and can not alter the cached details.
      * @param id the id of the announcement to find.
-     * @return the AnnouncementDetailsDTO object of the found announcement.
+     * @return a new AnnouncementDetailsDTO object of the found announcement.
+     * @throws ResourceNotFoundException if the announcement does not exist.
      */
     public AnnouncementDetailsDTO findAnnouncementById(String id){
-        Optional<Announcement> announcementOptional = announcementRepository.findById(id);
+        return AnnouncementMapper.toAnnouncementDetailsDTO(detailsCache.get(id, this::loadAnnouncementById));
+    }
+
+    /**
+     * @return the size and the hit, miss and eviction counters of the announcement details cache.
+     */
+    public CacheStatsDTO getDetailsCacheStats(){
+        long hits = detailsCache.getHits();
+        long misses = detailsCache.getMisses();
+        return CacheStatsDTO.builder()
+                .size(detailsCache.size())
+                .capacity(detailsCache.getCapacity())
+                .hits(hits)
+                .misses(misses)
+                .evictions(detailsCache.getEvictions())
+                .hitRate(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses))
+                .build();
+    }
+
+    /**
+     * Empties the announcement details cache, after announcements were changed in bulk.
+     */
+    public void invalidateDetailsCache(){
+        detailsCache.invalidateAll();
+    }
+
+    private AnnouncementListView loadAnnouncementById(String id){
+        Optional<AnnouncementListView> announcementOptional = announcementRepository.findListViewById(id);
         if (!announcementOptional.isPresent()){
             LOGGER.debug("Announcement with id {" + id + "} was not found in db");
             throw new ResourceNotFoundException(Announcement.class.getSimpleName() + "with id: " + id);
         }
-        return AnnouncementMapper.toAnnouncementDetailsDTO(announcementOptional.get());
+        return announcementOptional.get();
     }
 
     /**
-     * Finds all announcements in a category with the specified substring in name.
-     * @param userId the id of the user that request.
-     * @param categoryName the id of the category.
-     * @return a list of AnnouncementDetailsDTO objects.
+     * Finds one page of the announcements matching the filter, together with the bucket counts of the facets.
+     * The filtering, the sort, the page limit and the facet counts are all computed by the database.
+     * @param filter the criteria, the sort and the page of the listing.
+     * @return an AnnouncementFilterResultDTO holding the announcements of the page and the facets of the whole match set.
+     * @throws PatternNotMathcedException if the sort is not valid.
      */
-    public List<AnnouncementDetailsDTO> findAnnouncementByCategoryNameAndNotUser(String categoryName, String userId){
+    public AnnouncementFilterResultDTO filterAnnounces(AnnouncementFilterDTO filter){
+        int pageIndex = filter.getPage() == null || filter.getPage() < 0 ? 0 : filter.getPage();
+        int pageSize = pageSize(filter.getLimit());
+        Sort sort = parseSort(filter.getSort());
+        Specification<Announcement> specification = AnnouncementSpecifications.matching(filter);
+        List<AnnouncementListView> page = announcementRepository.findListViews(specification, PageRequest.of(pageIndex, pageSize, sort));
+        long totalHits = announcementRepository.count(specification);
+        return AnnouncementFilterResultDTO.builder()
+                .announces(page.stream()
+                        .map(AnnouncementMapper::toAnnouncementDetailsDTO)
+                        .collect(Collectors.toList()))
+                .facets(announcementRepository.findFacets(specification))
+                .page(pageIndex)
+                .size(pageSize)
+                .totalHits(totalHits)
+                .hasNext((long) (pageIndex + 1) * pageSize < totalHits)
+                .build();
+    }
 
-        List<Announcement> announces = announcementRepository.findAnnouncementsByCategoryCategoryNameContainsIgnoreCaseAndUserIdNot(categoryName, userId);
+    /**
+     * Parses a sort of the form "field,direction;field,direction", restricted to the sortable fields.
+     * The id is always appended as the last key, so that the order of the pages is stable.
+     * @param sort the requested sort; newest first if blank.
+     * @return the Sort to be applied by the database.
+     * @throws PatternNotMathcedException if a field or a direction is not valid.
+     */
+    private Sort parseSort(String sort){
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort == null || sort.isBlank()) {
+            orders.add(Sort.Order.desc("date"));
+        } else {
+            for (String key : sort.split(";")) {
+                String[] parts = key.trim().split(",");
+                String property = SORTABLE_FIELDS.get(parts[0].trim().toLowerCase(Locale.ROOT));
+                if (property == null || parts.length > 2) {
+                    throw new PatternNotMathcedException(AnnouncementMessages.SORT_NOT_MATCHED + sort);
+                }
+                String direction = parts.length == 2 ? parts[1].trim().toLowerCase(Locale.ROOT) : "asc";
+                if (direction.equals("asc")) {
+                    orders.add(Sort.Order.asc(property));
+                } else if (direction.equals("desc")) {
+                    orders.add(Sort.Order.desc(property));
+                } else {
+                    throw new PatternNotMathcedException(AnnouncementMessages.SORT_NOT_MATCHED + sort);
+                }
+            }
+        }
+        orders.add(Sort.Order.asc("id"));
+        return Sort.by(orders);
+    }
 
-        return announces.stream()
+    /**
+     * Searches the title and the description of the announcements, best match first.
+     * The ranking is done by the in-memory search index; only the announcements of the requested page are read from the database.
+     * @param query the text to search for.
+     * @param excludedUserId the id of a user whose announcements are left out, or null.
+     * @param page the zero based index of the page.
+     * @param size the size of the page.
+     * @return an AnnouncementSearchResultDTO holding the announcements of the page.
+     */
+    public AnnouncementSearchResultDTO searchAnnounces(String query, String excludedUserId, Integer page, Integer size){
+        int pageIndex = page == null || page < 0 ? 0 : page;
+        int pageSize = pageSize(size);
+        SearchHits hits = searchIndex.search(query, excludedUserId, pageIndex, pageSize);
+        Map<String, AnnouncementListView> announcements = hits.getIds().isEmpty() ? Map.of()
+                : announcementRepository.findListViewsByIdIn(hits.getIds()).stream()
+                .collect(Collectors.toMap(AnnouncementListView::id, Function.identity()));
+        List<AnnouncementDetailsDTO> dtos = hits.getIds().stream()
+                .map(announcements::get)
+                .filter(Objects::nonNull)
                 .map(AnnouncementMapper::toAnnouncementDetailsDTO)
-                .sorted(Comparator.comparing(AnnouncementDetailsDTO::getNewPrice))
                 .collect(Collectors.toList());
+        return AnnouncementSearchResultDTO.builder()
+                .query(query)
+                .announces(dtos)
+                .page(pageIndex)
+                .size(pageSize)
+                .totalHits(hits.getTotalHits())
+                .hasNext((long) (pageIndex + 1) * pageSize < hits.getTotalHits())
+                .build();
     }
 
     /**
@@ -113,7 +296,7 @@ public class AnnouncementService {
      * @return a list of AnnouncementDetailsDTO objects.
      */
     public List<AnnouncementDetailsDTO> findAnnouncementByUserId(String user_id){
-        List<Announcement> announces = announcementRepository.findAnnouncementsByUser_Id(user_id);
+        List<AnnouncementListView> announces = announcementRepository.findListViewsByUserId(user_id);
 
         return announces.stream()
                 .map(AnnouncementMapper::toAnnouncementDetailsDTO)
@@ -127,8 +310,9 @@ public class AnnouncementService {
      */
     public String insert(AnnouncementDetailsDTO announcementDTO) {
         Announcement announcement = AnnouncementMapper.toEntity(announcementDTO);
-        announcement.setNewPrice(announcement.getPrice()*(1-(announcement.getDiscount()/100.0)));
-        announcement = announcementRepository.save(announcement);
+        price(announcement);
+        announcement = save(announcement);
+        searchIndex.index(announcement);
         LOGGER.debug("Announcement with id {} was inserted in db", announcement.getId());
         return announcement.getId();
     }
@@ -153,11 +337,12 @@ public class AnnouncementService {
                             .category(CategoryMapper.toCategoryDetailsDTO(category.get()))
                             .date(LocalDateTime.now())
                             .discount(announcementWebDTO.getDiscount())
-                            .newPrice(Double.valueOf(decimalFormat.format(announcementWebDTO.getPrice()*(1-(announcementWebDTO.getDiscount()/100.0)))))
                             .imageURL(announcementWebDTO.getImageURL())
                             .build();
                     Announcement announcement = AnnouncementMapper.toEntity(ann);
-                    announcement = announcementRepository.save(announcement);
+                    price(announcement);
+                    announcement = save(announcement);
+                    searchIndex.index(announcement);
                     LOGGER.debug(AnnouncementMessages.ANNOUNCEMENT_INSERTED_SUCCESSFULLY + announcement.getId() +  announcementWebDTO.getUser());
                     return AnnouncementMessages.ANNOUNCEMENT_INSERTED_SUCCESSFULLY + announcement.getId() + announcementWebDTO.getUser();
                 } else {
@@ -176,27 +361,107 @@ public class AnnouncementService {
 
     /**
      * Deletes an announcement by its id.
+     * The announcement is removed from the favourite lists with a set-based delete on the join table.
      * @param id the id of the announcement to delete.
      * @return a string message indicating the result of the operation.
      */
     public String deleteAnnouncementById(String id) {
-        Optional<Announcement> announcementOptional = announcementRepository.findById(id);
-        if (announcementOptional.isEmpty()) {
+        if (!announcementRepository.existsById(id)) {
             LOGGER.error(AnnouncementMessages.ANNOUNCEMENT_NOT_FOUND + id);
             return AnnouncementMessages.ANNOUNCEMENT_NOT_FOUND + id;
-        } else {
-            List<Favourite> favouriteList = (List<Favourite>) favouriteRepository.findAll();
-            for (Favourite favourite : favouriteList) {
-                if (favourite.getFavouriteAnnouncements().contains(announcementOptional.get())) {
-                    favourite.getFavouriteAnnouncements().remove(announcementOptional.get());
-                    favouriteRepository.save(favourite);
-                }
+        }
+        deleteChunk(List.of(id));
+        LOGGER.debug(AnnouncementMessages.ANNOUNCEMENT_DELETED_SUCCESSFULLY + id);
+        return AnnouncementMessages.ANNOUNCEMENT_DELETED_SUCCESSFULLY + id;
+    }
+
+    /**
+     * Deletes the announcements with the specified ids, in chunks with one transaction each.
+     * Ids that do not belong to any announcement are ignored.
+     * @param ids the ids of the announcements to delete.
+     * @return a string message holding the number of deleted announcements.
+     */
+    public String deleteAnnouncementsByIds(Collection<String> ids) {
+        List<String> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        long deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            deleted += deleteChunk(distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size())));
+        }
+        LOGGER.debug(AnnouncementMessages.ANNOUNCEMENTS_DELETED_SUCCESSFULLY + deleted);
+        return AnnouncementMessages.ANNOUNCEMENTS_DELETED_SUCCESSFULLY + deleted;
+    }
+
+    /**
+     * Deletes all the announcements posted by a user, in chunks with one transaction each.
+     * @param userId the id of the user.
+     * @return a string message holding the number of deleted announcements.
+     */
+    public String deleteAnnouncementsByUserId(String userId) {
+        long deleted = 0;
+        List<String> chunk;
+        do {
+            chunk = announcementRepository.findIdsByUserId(userId, PageRequest.ofSize(DELETE_CHUNK_SIZE));
+            if (!chunk.isEmpty()) {
+                deleted += deleteChunk(chunk);
             }
+        } while (chunk.size() == DELETE_CHUNK_SIZE);
+        LOGGER.debug(AnnouncementMessages.ANNOUNCEMENTS_DELETED_SUCCESSFULLY + deleted + " " + userId);
+        return AnnouncementMessages.ANNOUNCEMENTS_DELETED_SUCCESSFULLY + deleted;
+    }
+
+    /**
+     * Sets the campaign discount of an announcement from the campaigns active on its category or seller, and its new price
+     * from the larger of its own and its campaign discount.
+     * @param announcement the announcement to price.
+     */
+    private void price(Announcement announcement) {
+        String categoryId = announcement.getCategory() == null ? null : announcement.getCategory().getId();
+        String userId = announcement.getUser() == null ? null : announcement.getUser().getId();
+        announcement.setCampaignDiscount(campaignRepository.findBestActiveDiscount(categoryId, userId));
+        announcement.setNewPrice(PriceCalculator.discountedPrice(announcement.getPrice(),
+                PriceCalculator.effectiveDiscount(announcement.getDiscount(), announcement.getCampaignDiscount())));
+    }
 
-            announcementRepository.delete(announcementOptional.get());
-            LOGGER.debug(AnnouncementMessages.ANNOUNCEMENT_DELETED_SUCCESSFULLY + id);
-            return AnnouncementMessages.ANNOUNCEMENT_DELETED_SUCCESSFULLY + id;
+    /**
+     * Saves an announcement stamped with a new change version.
+     * @param announcement the announcement to insert or update.
+     * @return the saved announcement.
+     */
+    private Announcement save(Announcement announcement) {
+        return changeVersions.write(version -> {
+            announcement.setChangeVersion(version);
+            return announcementRepository.save(announcement);
+        });
+    }
+
+    /**
+     * Deletes one chunk of announcements in a single transaction: they are removed from the join table, the totals of the
+     * favourite lists that held them are recomputed from their remaining rows, a tombstone is written for each of them, then
+     * they are removed from the announcements table.
+     * @param ids the ids of the chunk.
+     * @return the number of deleted announcements.
+     */
+    private int deleteChunk(List<String> ids) {
+        Integer deleted = changeVersions.write(version -> transactionTemplate.execute(status -> {
+            List<String> favouriteIds = favouriteRepository.findFavouriteIdsHolding(ids);
+            favouriteRepository.removeAnnouncementsFromAll(ids);
+            if (!favouriteIds.isEmpty()) {
+                favouriteRepository.recomputeTotals(favouriteIds);
+            }
+            tombstoneRepository.insertForAnnouncements(ids, version, LocalDateTime.now());
+            return announcementRepository.deleteByIdIn(ids);
+        }));
+        for (String id : ids) {
+            detailsCache.invalidate(id);
+            searchIndex.remove(id);
+            popularityTracker.remove(id);
         }
+        return deleted == null ? 0 : deleted;
     }
 
     /**
@@ -215,6 +480,7 @@ public class AnnouncementService {
                 return AnnouncementMessages.ANNOUNCEMENT_NOT_FOUND + id;
             } else {
                 Announcement toBeUpdated = announcementOptional.get();
+                Double previousNewPrice = toBeUpdated.getNewPrice();
                 toBeUpdated.setTitle(announcementWebDTO.getTitle());
                 toBeUpdated.setDescription(announcementWebDTO.getDescription());
                 toBeUpdated.setPrice(announcementWebDTO.getPrice());
@@ -222,9 +488,15 @@ public class AnnouncementService {
                 toBeUpdated.setCategory(categoryRepository.findById(announcementWebDTO.getCategory()).get());
                 toBeUpdated.setDate(LocalDateTime.now());
                 toBeUpdated.setDiscount(announcementWebDTO.getDiscount());
-                toBeUpdated.setNewPrice(Double.valueOf(decimalFormat.format(announcementWebDTO.getPrice()*(1-(announcementWebDTO.getDiscount()/100.0)))));
+                price(toBeUpdated);
                 toBeUpdated.setImageURL(announcementWebDTO.getImageURL());
-                announcementRepository.save(toBeUpdated);
+                save(toBeUpdated);
+                if (!toBeUpdated.getNewPrice().equals(previousNewPrice)) {
+                    favouriteTotals.priceChanged(id);
+                }
+                popularityTracker.moved(id, toBeUpdated.getCategory().getId());
+                detailsCache.invalidate(id);
+                searchIndex.index(toBeUpdated);
                 LOGGER.debug(AnnouncementMessages.ANNOUNCEMENT_UPDATED_SUCCESSFULLY + id);
                 return AnnouncementMessages.ANNOUNCEMENT_UPDATED_SUCCESSFULLY + id;
             }
@@ -0,0 +1,120 @@
+package com.olxapplication.service;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.dtos.AnnouncementChangeDTO;
+import com.olxapplication.dtos.AnnouncementChangesDTO;
+import com.olxapplication.mappers.AnnouncementMapper;
+import com.olxapplication.projections.AnnouncementListView;
+import com.olxapplication.projections.ChangeRef;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.AnnouncementTombstoneRepository;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This service layer class serves the announcement change feed.
+ * Every insert and update stamps a version from the announcement_version_seq sequence on the announcement and every
+ * delete writes a tombstone with one, so the changes after a position are read from two index ranges ordered by
+ * (version, announcement id) and merged into one page.
+ */
+@Service
+@AllArgsConstructor
+public class ChangeFeedService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeFeedService.class);
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private final AnnouncementRepository announcementRepository;
+    private final AnnouncementTombstoneRepository tombstoneRepository;
+    private final ChangeVersionSequence changeVersions;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Stamps a version on the announcements written before the change feed existed, once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void assignMissingVersions() {
+        Integer assigned = changeVersions.write(version ->
+                transactionTemplate.execute(status -> announcementRepository.assignMissingChangeVersions(version)));
+        if (assigned != null && assigned > 0) {
+            LOGGER.info("Change version assigned to {} announcements", assigned);
+        }
+    }
+
+    /**
+     * Finds the inserts, updates and deletes of announcements written after a position of the feed, oldest first.
+     * A client starts from version 0 and then passes back the nextSince and nextAfterId of the previous page.
+     * @param since the version of the last change already seen, or null to start from the beginning.
+     * @param afterId the announcement id of the last change already seen, or null.
+     * @param limit the maximum number of changes, or null for the default.
+     * @return an AnnouncementChangesDTO holding the changes of the page and the position of the next one.
+     */
+    public AnnouncementChangesDTO findChanges(Long since, String afterId, Integer limit) {
+        long from = since == null || since < 0 ? 0 : since;
+        String fromId = afterId == null ? "" : afterId;
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        long upTo = changeVersions.visibleUpTo();
+
+        PageRequest window = PageRequest.ofSize(size + 1);
+        List<ChangeRef> upserts = announcementRepository.findChangesAfter(from, fromId, upTo, window);
+        List<ChangeRef> deletes = tombstoneRepository.findChangesAfter(from, fromId, upTo, window);
+
+        List<ChangeRef> merged = new ArrayList<>(size);
+        List<Boolean> deleted = new ArrayList<>(size);
+        int u = 0;
+        int d = 0;
+        while (merged.size() < size && (u < upserts.size() || d < deletes.size())) {
+            boolean takeDelete = u == upserts.size() || (d < deletes.size() && before(deletes.get(d), upserts.get(u)));
+            merged.add(takeDelete ? deletes.get(d++) : upserts.get(u++));
+            deleted.add(takeDelete);
+        }
+        boolean hasMore = u < upserts.size() || d < deletes.size();
+
+        List<String> upsertIds = upserts.subList(0, u).stream().map(ChangeRef::announcementId).collect(Collectors.toList());
+        Map<String, AnnouncementListView> views = upsertIds.isEmpty() ? Map.of()
+                : announcementRepository.findListViewsByIdIn(upsertIds).stream()
+                        .collect(Collectors.toMap(AnnouncementListView::id, Function.identity()));
+
+        List<AnnouncementChangeDTO> changes = new ArrayList<>(merged.size());
+        for (int i = 0; i < merged.size(); i++) {
+            ChangeRef ref = merged.get(i);
+            AnnouncementChangeDTO.AnnouncementChangeDTOBuilder change = AnnouncementChangeDTO.builder()
+                    .version(ref.changeVersion())
+                    .announcementId(ref.announcementId());
+            if (deleted.get(i)) {
+                changes.add(change.type(AnnouncementChangeDTO.DELETE).build());
+            } else {
+                AnnouncementListView view = views.get(ref.announcementId());
+                // deleted after the page was read; its tombstone comes later in the feed
+                if (view != null) {
+                    changes.add(change.type(AnnouncementChangeDTO.UPSERT).announcement(AnnouncementMapper.toAnnouncementDetailsDTO(view)).build());
+                }
+            }
+        }
+
+        ChangeRef last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+        return AnnouncementChangesDTO.builder()
+                .changes(changes)
+                .nextSince(last == null ? from : last.changeVersion())
+                .nextAfterId(last == null ? fromId : last.announcementId())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private static boolean before(ChangeRef first, ChangeRef second) {
+        int byVersion = Long.compare(first.changeVersion(), second.changeVersion());
+        return byVersion != 0 ? byVersion < 0 : first.announcementId().compareTo(second.announcementId()) < 0;
+    }
+}
@@ -0,0 +1,148 @@
+package com.olxapplication.service;
+
+import com.olxapplication.config.DelayedRetryMessageRecoverer;
+import com.olxapplication.constants.MessagingMessages;
+import com.olxapplication.dtos.DeadLetterDTO;
+import com.olxapplication.exception.ResourceNotFoundException;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.GetResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service class for inspecting and replaying the messages parked in the dead-letter queues.
+ * Both operations take the messages off the queue with manual acknowledgement on a single channel: an inspection
+ * returns them to the queue afterwards, a replay republishes them to their original queue and acknowledges them only
+ * once the broker confirmed the republished copies. If anything fails in between, the channel is closed and the broker
+ * returns the unacknowledged messages to the dead-letter queue, so a message is never lost by a replay.
+ */
+@Service
+public class DeadLetterService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadLetterService.class);
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 500;
+    private static final int MAX_PAYLOAD_LENGTH = 4000;
+    private static final Set<String> RETRY_HEADERS = Set.of(DelayedRetryMessageRecoverer.ATTEMPT_HEADER,
+            DelayedRetryMessageRecoverer.EXCEPTION_HEADER, DelayedRetryMessageRecoverer.ORIGINAL_QUEUE_HEADER,
+            DelayedRetryMessageRecoverer.FAILED_AT_HEADER, "x-death", "x-first-death-exchange",
+            "x-first-death-queue", "x-first-death-reason", "x-last-death-exchange", "x-last-death-queue",
+            "x-last-death-reason");
+
+    private final RabbitTemplate rabbitTemplate;
+    private final Set<String> queues;
+    private final long confirmTimeoutMillis;
+
+    public DeadLetterService(RabbitTemplate rabbitTemplate,
+                             @Value("${rabbitmq.report.queue}") String reportQueue,
+                             @Value("${rabbitmq.publisher.confirm-timeout-ms:10000}") long confirmTimeoutMillis) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.queues = Set.of(reportQueue);
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    /**
+     * Reads the oldest messages of the dead-letter queue of a queue, leaving them in place.
+     * @param queue the name of the original queue.
+     * @param limit the maximum number of messages to read.
+     * @return the dead-lettered messages, oldest first.
+     * @throws ResourceNotFoundException if the queue has no dead-letter queue.
+     */
+    public List<DeadLetterDTO> inspect(String queue, Integer limit) {
+        String deadLetterQueue = deadLetterQueue(queue);
+        int max = limit(limit);
+        return rabbitTemplate.execute(channel -> {
+            List<DeadLetterDTO> deadLetters = new ArrayList<>();
+            long lastTag = -1;
+            GetResponse response;
+            while (deadLetters.size() < max && (response = channel.basicGet(deadLetterQueue, false)) != null) {
+                deadLetters.add(toDTO(response));
+                lastTag = response.getEnvelope().getDeliveryTag();
+            }
+            if (lastTag >= 0) {
+                channel.basicNack(lastTag, true, true);
+            }
+            return deadLetters;
+        });
+    }
+
+    /**
+     * Moves the oldest messages of the dead-letter queue of a queue back to the queue, with their attempts reset.
+     * @param queue the name of the original queue.
+     * @param limit the maximum number of messages to replay.
+     * @return the number of replayed messages.
+     * @throws ResourceNotFoundException if the queue has no dead-letter queue.
+     */
+    public int replay(String queue, Integer limit) {
+        String deadLetterQueue = deadLetterQueue(queue);
+        int max = limit(limit);
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            long lastTag = -1;
+            GetResponse response;
+            while (count < max && (response = channel.basicGet(deadLetterQueue, false)) != null) {
+                channel.basicPublish("", queue, withoutRetryHeaders(response.getProps()), response.getBody());
+                lastTag = response.getEnvelope().getDeliveryTag();
+                count++;
+            }
+            if (lastTag >= 0) {
+                channel.waitForConfirmsOrDie(confirmTimeoutMillis);
+                channel.basicAck(lastTag, true);
+            }
+            return count;
+        });
+        LOGGER.info("Replayed {} dead-lettered messages to {}", replayed, queue);
+        return replayed;
+    }
+
+    private String deadLetterQueue(String queue) {
+        if (queue == null || !queues.contains(queue)) {
+            throw new ResourceNotFoundException(MessagingMessages.QUEUE_NOT_FOUND + queue);
+        }
+        return DelayedRetryMessageRecoverer.deadLetterQueueName(queue);
+    }
+
+    private static int limit(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    }
+
+    private static AMQP.BasicProperties withoutRetryHeaders(AMQP.BasicProperties properties) {
+        Map<String, Object> headers = new HashMap<>();
+        if (properties.getHeaders() != null) {
+            properties.getHeaders().forEach((name, value) -> {
+                if (!RETRY_HEADERS.contains(name)) {
+                    headers.put(name, value);
+                }
+            });
+        }
+        return properties.builder().headers(headers).build();
+    }
+
+    private static DeadLetterDTO toDTO(GetResponse response) {
+        Map<String, Object> headers = response.getProps().getHeaders() == null ? Map.of() : response.getProps().getHeaders();
+        String payload = new String(response.getBody(), StandardCharsets.UTF_8);
+        Object attempts = headers.get(DelayedRetryMessageRecoverer.ATTEMPT_HEADER);
+        return DeadLetterDTO.builder()
+                .messageId(response.getProps().getMessageId())
+                .originalQueue(headerString(headers, DelayedRetryMessageRecoverer.ORIGINAL_QUEUE_HEADER))
+                .attempts(attempts instanceof Number number ? number.intValue() : null)
+                .exception(headerString(headers, DelayedRetryMessageRecoverer.EXCEPTION_HEADER))
+                .failedAt(headerString(headers, DelayedRetryMessageRecoverer.FAILED_AT_HEADER))
+                .payload(payload.length() <= MAX_PAYLOAD_LENGTH ? payload : payload.substring(0, MAX_PAYLOAD_LENGTH))
+                .build();
+    }
+
+    private static String headerString(Map<String, Object> headers, String name) {
+        Object value = headers.get(name);
+        return value == null ? null : value.toString();
+    }
+}
@@ -3,21 +3,48 @@ package com.olxapplication.service;
 import com.olxapplication.constants.AnnouncementMessages;
 import com.olxapplication.constants.FavouriteMessages;
 import com.olxapplication.constants.UserMessages;
-import com.olxapplication.entity.Announcement;
+import com.olxapplication.dtos.FavouritePageDTO;
 import com.olxapplication.entity.Favourite;
+import com.olxapplication.exception.PatternNotMathcedException;
 import com.olxapplication.exception.ResourceNotFoundException;
+import com.olxapplication.mappers.AnnouncementMapper;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.PriceCalculator;
+import com.olxapplication.projections.AnnouncementListView;
+import com.olxapplication.projections.FavouriteRef;
 import com.olxapplication.repository.AnnouncementRepository;
 import com.olxapplication.repository.FavouriteRepository;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing favourites in the OLX application.
- * This class provides methods to compute the total price of favourite announcements, find favourites by ID or user ID, insert or delete announcements from favourites.
+ * This class provides methods to find favourites by user ID, to read them page by page and to insert or delete announcements from favourites, one or many at once.
+ * The total of a favourite list is stored in minor units, adjusted by delta on every insert and recomputed from the remaining join table rows
+ * on every delete, so reading a list never writes and a delete never subtracts a price the total does not hold yet.
+ * Every change works on single join table rows and commits by moving the list to its next version with a conditional update;
+ * when a concurrent change of the same list has committed first the change is rolled back and run again, without holding any lock in between.
  */
 @Service
 @AllArgsConstructor
@@ -25,19 +52,57 @@ public class FavouriteService {
     private static final Logger LOGGER = LoggerFactory.getLogger(FavouriteService.class);
     private final FavouriteRepository favouriteRepository;
     private final AnnouncementRepository announcementRepository;
+    private final PopularityTracker popularityTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_SIZE = 500;
+    public static final int MAX_ATTEMPTS = 10;
+    private static final long MAX_PAUSE_MS = 64;
 
     /**
-     * Computes the total price of the announcements in the favourite list.
-     *
-     * @param favourite The Favourite list containing the list of favourite announcements.
-     * @return The total price as a double, rounded to two decimal places.
+     * Computes the totals of the favourite lists created before the totals were stored in minor units, once the application has started.
      */
-    public Double computeTotal(Favourite favourite) {
-        double total = 0.0;
-        for (Announcement a : favourite.getFavouriteAnnouncements()) {
-            total += a.getNewPrice();
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillTotals() {
+        int updated = favouriteRepository.backfillTotals();
+        if (updated > 0) {
+            LOGGER.info("Favourite totals computed for {} lists", updated);
         }
-        return ((int) (total * 100)) / 100.0;
+    }
+
+    /**
+     * Reads the stored total price of the favourite list of a user.
+     *
+     * @param userId The ID of the user.
+     * @return The total price, or 0 if the user has no favourite list.
+     */
+    public Double findTotal(String userId) {
+        return PriceCalculator.toMajorUnits(favouriteRepository.findTotalMinorByUserId(userId).orElse(0L));
+    }
+
+    /**
+     * Finds one page of the announcements in the favourite list of a user, newest first, reading only the columns shown
+     * by the favourites view, together with the stored total of the whole list.
+     *
+     * @param userId The ID of the user.
+     * @param page The zero based index of the page; 0 when null or negative.
+     * @param size The size of the page; DEFAULT_PAGE_SIZE when null or not positive, at most MAX_PAGE_SIZE.
+     * @return The FavouritePageDTO holding the announcements of the page and the total.
+     */
+    public FavouritePageDTO findFavouritePage(String userId, Integer page, Integer size) {
+        int pageIndex = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Slice<AnnouncementListView> slice = announcementRepository.findFavouriteListViews(userId, PageRequest.of(pageIndex, pageSize));
+        return FavouritePageDTO.builder()
+                .announces(slice.getContent().stream().map(AnnouncementMapper::toAnnouncementDetailsDTO).collect(Collectors.toList()))
+                .page(pageIndex)
+                .size(pageSize)
+                .hasNext(slice.hasNext())
+                .total(findTotal(userId))
+                .build();
     }
 
     /**
@@ -53,72 +118,211 @@ public class FavouriteService {
             LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId);
             throw new ResourceNotFoundException(UserMessages.USER_NOT_FOUND + userId);
         }
-        favourite.get().setTotal(computeTotal(favourite.get()));
-        favouriteRepository.save(favourite.get());
         return favourite.get();
     }
 
     /**
-     * Inserts an announcement into the user's list of favourites.
+     * Inserts an announcement into the user's list of favourites and adds its price to the total.
      * @param userId The ID of the user.
      * @param announcementId The ID of the announcement to add to favourites.
      * @return A message containing the result of the operation.
      **/
     public String insertAnnouncement(String userId, String announcementId) {
-        Favourite favourite = findByUserId(userId);
-        if (favourite == null) {
+        return withRetry(() -> insert(userId, announcementId));
+    }
+
+    /**
+     * Inserts many announcements into the user's list of favourites in one transaction, with one set-based insert into
+     * the join table and one update of the total. Unknown announcements and those already in the list are skipped.
+     * @param userId The ID of the user.
+     * @param announcementIds The IDs of the announcements to add to favourites, at most MAX_BULK_SIZE.
+     * @return A message containing the number of added announcements.
+     **/
+    public String insertAnnouncements(String userId, Collection<String> announcementIds) {
+        Set<String> ids;
+        try {
+            ids = bulkIds(announcementIds);
+        } catch (PatternNotMathcedException e) {
+            LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_ADDED + e.getMessage());
+            return FavouriteMessages.FAVOURITE_NOT_ADDED + e.getMessage();
+        }
+        return withRetry(() -> insertAll(userId, ids));
+    }
+
+    /**
+     * Deletes many announcements from the user's list of favourites in one transaction, with one set-based delete on the
+     * join table and one recompute of the total. Announcements not in the list are skipped.
+     * @param userId The ID of the user.
+     * @param announcementIds The IDs of the announcements to delete from favourites, at most MAX_BULK_SIZE.
+     * @return A message containing the number of removed announcements.
+     **/
+    public String deleteAnnouncements(String userId, Collection<String> announcementIds) {
+        Set<String> ids;
+        try {
+            ids = bulkIds(announcementIds);
+        } catch (PatternNotMathcedException e) {
+            LOGGER.debug(e.getMessage());
+            return e.getMessage();
+        }
+        return withRetry(() -> deleteAll(userId, ids));
+    }
+
+    /**
+     * Delete an announcement from the user's list of favourites and recomputes the total from the remaining announcements.
+     * @param userId The ID of the user.
+     * @param announcementId The ID of the announcement to delete from favourites.
+     * @return A message containing the result of the operation.
+     **/
+    public String deleteAnnouncement(String userId, String announcementId) {
+        return withRetry(() -> delete(userId, announcementId));
+    }
+
+    /**
+     * Runs a change of a favourite list in its own transaction, running it again when a concurrent change of the same
+     * list commits first, at most MAX_ATTEMPTS times with a random pause, growing up to MAX_PAUSE_MS, between the attempts.
+     */
+    private String withRetry(Supplier<String> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> change.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    LOGGER.warn(FavouriteMessages.CONCURRENT_CHANGE + " after {} attempts: {}", attempt, e.getMessage());
+                    return FavouriteMessages.CONCURRENT_CHANGE;
+                }
+                LOGGER.debug("Favourite list changed concurrently, attempt {} of {}", attempt, MAX_ATTEMPTS);
+                pause(attempt);
+            }
+        }
+    }
+
+    private static void pause(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(Math.min(2L << attempt, MAX_PAUSE_MS) + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds a delta to the total of the favourite list and moves it to its next version, failing when another change
+     * has moved it first, which rolls the whole change back.
+     */
+    private void commitTotal(FavouriteRef favourite, long deltaMinor) {
+        if (favouriteRepository.addToTotal(favourite.id(), favourite.version(), deltaMinor) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Favourite.class, favourite.id());
+        }
+    }
+
+    /**
+     * Recomputes the total of the favourite list from its join table rows and moves it to its next version, failing
+     * when another change has moved it first. Deletes use it rather than a delta, because the total may not hold the
+     * current price of a removed announcement yet when its repricing is still waiting to be propagated.
+     */
+    private void commitRecomputedTotal(FavouriteRef favourite) {
+        if (favouriteRepository.recomputeTotal(favourite.id(), favourite.version()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Favourite.class, favourite.id());
+        }
+    }
+
+    private String insert(String userId, String announcementId) {
+        Optional<FavouriteRef> favourite = favouriteRepository.findRefByUserId(userId);
+        if (favourite.isEmpty()) {
             LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId);
             return FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId;
         }
 
-        for (Announcement a : favourite.getFavouriteAnnouncements()) {
-            if (a.getId().equals(announcementId)) {
-                LOGGER.debug(FavouriteMessages.ANNOUNCEMNT_ALREADY_ADDED + announcementId);
-                return FavouriteMessages.ANNOUNCEMNT_ALREADY_ADDED + announcementId;
-            }
+        if (favouriteRepository.containsAnnouncement(favourite.get().id(), announcementId)) {
+            LOGGER.debug(FavouriteMessages.ANNOUNCEMNT_ALREADY_ADDED + announcementId);
+            return FavouriteMessages.ANNOUNCEMNT_ALREADY_ADDED + announcementId;
         }
 
-        Optional<Announcement> announcement = announcementRepository.findById(announcementId);
-        if (announcement.isEmpty()) {
+        Optional<Double> newPrice = announcementRepository.findNewPriceById(announcementId);
+        if (newPrice.isEmpty()) {
             LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_ADDED + AnnouncementMessages.ANNOUNCEMENT_NOT_FOUND + announcementId);
             return FavouriteMessages.FAVOURITE_NOT_ADDED + AnnouncementMessages.ANNOUNCEMENT_NOT_FOUND + announcementId;
         }
 
-
-        favourite.getFavouriteAnnouncements().add(announcement.get());
-        favourite.setTotal(computeTotal(favourite));
-        favouriteRepository.save(favourite);
+        favouriteRepository.addAnnouncement(favourite.get().id(), announcementId);
+        commitTotal(favourite.get(), PriceCalculator.toMinorUnits(newPrice.get()));
+        popularityTracker.favourited(announcementId);
         LOGGER.debug(FavouriteMessages.FAVOURITE_ADDED_SUCCESSFULLY);
 
         return FavouriteMessages.FAVOURITE_ADDED_SUCCESSFULLY;
     }
 
-    /**
-     * Delete an announcement from the user's list of favourites.
-     * @param userId The ID of the user.
-     * @param announcementId The ID of the announcement to delete from favourites.
-     * @return A message containing the result of the operation.
-     **/
-    public String deleteAnnouncement(String userId, String announcementId) {
-        Favourite favourite = findByUserId(userId);
-        if (favourite == null) {
+    private String insertAll(String userId, Set<String> ids) {
+        Optional<FavouriteRef> favourite = favouriteRepository.findRefByUserId(userId);
+        if (favourite.isEmpty()) {
             LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId);
             return FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId;
         }
-        for (int i = favourite.getFavouriteAnnouncements().size() - 1; i >= 0; i--) {
-            if (favourite.getFavouriteAnnouncements().get(i).getId().equals(announcementId)) {
 
-                favourite.getFavouriteAnnouncements().remove(i);
-                favourite.setTotal(computeTotal(favourite));
-                favouriteRepository.save(favourite);
+        List<String> addable = favouriteRepository.findAddableAnnouncementIds(favourite.get().id(), ids);
+        if (!addable.isEmpty()) {
+            favouriteRepository.addAnnouncements(favourite.get().id(), addable);
+            commitTotal(favourite.get(), favouriteRepository.sumNewPricesMinor(addable));
+            addable.forEach(popularityTracker::favourited);
+        }
+        LOGGER.debug(FavouriteMessages.FAVOURITES_ADDED + addable.size());
+        return FavouriteMessages.FAVOURITES_ADDED + addable.size();
+    }
 
-                LOGGER.debug(FavouriteMessages.FAVOURITE_REMOVED_SUCCESSFULLY);
-                return FavouriteMessages.FAVOURITE_REMOVED_SUCCESSFULLY;
-            }
+    private String deleteAll(String userId, Set<String> ids) {
+        Optional<FavouriteRef> favourite = favouriteRepository.findRefByUserId(userId);
+        if (favourite.isEmpty()) {
+            LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId);
+            return FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId;
         }
 
+        Map<String, Integer> held = new HashMap<>();
+        for (String id : favouriteRepository.findHeldAnnouncementIds(favourite.get().id(), ids)) {
+            held.merge(id, 1, Integer::sum);
+        }
+        if (!held.isEmpty()) {
+            favouriteRepository.removeAnnouncements(favourite.get().id(), held.keySet());
+            commitRecomputedTotal(favourite.get());
+            held.forEach(popularityTracker::unfavourited);
+        }
+        LOGGER.debug(FavouriteMessages.FAVOURITES_REMOVED + held.size());
+        return FavouriteMessages.FAVOURITES_REMOVED + held.size();
+    }
 
-        LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_REMOVED);
-        return FavouriteMessages.FAVOURITE_NOT_REMOVED;
+    private String delete(String userId, String announcementId) {
+        Optional<FavouriteRef> favourite = favouriteRepository.findRefByUserId(userId);
+        if (favourite.isEmpty()) {
+            LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId);
+            return FavouriteMessages.FAVOURITE_NOT_FOUND + UserMessages.USER_NOT_FOUND + userId;
+        }
+
+        int removed = favouriteRepository.removeAnnouncement(favourite.get().id(), announcementId);
+        if (removed == 0) {
+            LOGGER.debug(FavouriteMessages.FAVOURITE_NOT_REMOVED);
+            return FavouriteMessages.FAVOURITE_NOT_REMOVED;
+        }
+
+        commitRecomputedTotal(favourite.get());
+        popularityTracker.unfavourited(announcementId, removed);
+        LOGGER.debug(FavouriteMessages.FAVOURITE_REMOVED_SUCCESSFULLY);
+        return FavouriteMessages.FAVOURITE_REMOVED_SUCCESSFULLY;
+    }
+
+    private static Set<String> bulkIds(Collection<String> announcementIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        if (announcementIds != null) {
+            for (String id : announcementIds) {
+                if (id != null && !id.isBlank()) {
+                    ids.add(id.trim());
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new PatternNotMathcedException(FavouriteMessages.NO_ANNOUNCEMENTS_SELECTED);
+        }
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new PatternNotMathcedException(FavouriteMessages.TOO_MANY_ANNOUNCEMENTS + MAX_BULK_SIZE);
+        }
+        return ids;
     }
 }
@@ -1,21 +1,40 @@
 package com.olxapplication.service;
 
 import com.olxapplication.constants.MessageMessages;
+import com.olxapplication.constants.UserMessages;
+import com.olxapplication.dtos.ChatMessageDTO;
+import com.olxapplication.dtos.ChatPageDTO;
+import com.olxapplication.dtos.ConversationPageDTO;
 import com.olxapplication.dtos.MessageWebDTO;
+import com.olxapplication.entity.Conversation;
 import com.olxapplication.entity.Message;
 import com.olxapplication.entity.User;
 import com.olxapplication.exception.PatternNotMathcedException;
 import com.olxapplication.exception.ResourceNotFoundException;
+import com.olxapplication.projections.ChatMessageView;
+import com.olxapplication.projections.ConversationView;
+import com.olxapplication.projections.MessageRow;
+import com.olxapplication.repository.ConversationRepository;
 import com.olxapplication.repository.MessageRepository;
 import com.olxapplication.repository.UserRepository;
 import com.olxapplication.validators.MessageValidator;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for managing messages in the OLX application.
@@ -24,63 +43,193 @@ import java.util.List;
 @AllArgsConstructor
 public class MessageService {
     private static final Logger LOGGER = LoggerFactory.getLogger(MessageService.class);
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_CHAT_SIZE = 30;
+    public static final int MAX_CHAT_SIZE = 200;
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+    private static final int MAX_ATTEMPTS = 2;
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
+    private final ConversationRepository conversationRepository;
+    private final TransactionTemplate transactionTemplate;
     private final MessageValidator messageValidator = new MessageValidator();
 
 
     /**
-     * Inserts a new message into the repository after validating the input.
+     * Inserts a new message into the repository after validating the input,
+     * and records it on the conversation rows of both participants in the same transaction.
+     * When two first messages between the same users race, the conversation row of the loser violates the unique key;
+     * its transaction is then run once more, when it finds the row and updates it.
      * @param messageWebDTO The object containing message details.
      * @return A success message if the message is sent, otherwise an error message.
      */
     public String insert(MessageWebDTO messageWebDTO){
         try {
             messageValidator.messageValidator(messageWebDTO);
-            new Message();
-            Message msg = Message.builder()
-                    .msg(messageWebDTO.getMsg())
-                    .sender(userRepository.findById(messageWebDTO.getSender()).get())
-                    .receiver(userRepository.findById(messageWebDTO.getReceiver()).get())
-                    .date(LocalDateTime.now())
-                    .build();
-            messageRepository.save(msg);
-            LOGGER.debug(MessageMessages.MESSAGE_SENT_SUCCESSFULLY);
-            return MessageMessages.MESSAGE_SENT_SUCCESSFULLY;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> send(messageWebDTO));
+                    LOGGER.debug(MessageMessages.MESSAGE_SENT_SUCCESSFULLY);
+                    return MessageMessages.MESSAGE_SENT_SUCCESSFULLY;
+                } catch (DataIntegrityViolationException e) {
+                    if (attempt == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    LOGGER.debug("Conversation row created concurrently, attempt {} of {}", attempt, MAX_ATTEMPTS);
+                }
+            }
         } catch (PatternNotMathcedException | ResourceNotFoundException e) {
             LOGGER.error(MessageMessages.MESSAGE_NOT_SENT + e.getMessage());
             return MessageMessages.MESSAGE_NOT_SENT + e.getMessage();
         }
     }
 
+    private void send(MessageWebDTO messageWebDTO) {
+        Message msg = Message.builder()
+                .msg(messageWebDTO.getMsg())
+                .sender(userRepository.findById(messageWebDTO.getSender())
+                        .orElseThrow(() -> new ResourceNotFoundException(UserMessages.USER_NOT_FOUND + messageWebDTO.getSender())))
+                .receiver(userRepository.findById(messageWebDTO.getReceiver())
+                        .orElseThrow(() -> new ResourceNotFoundException(UserMessages.USER_NOT_FOUND + messageWebDTO.getReceiver())))
+                .date(LocalDateTime.now())
+                .build();
+        messageRepository.save(msg);
+        recordInConversations(msg);
+    }
+
 
     /**
-     * Finds all correspondents for a specific user.
+     * Finds one page of the conversations of a user, latest activity first.
+     * Reads only the conversation rows of the page, whatever the number of messages.
      * @param id The ID of the user.
-     * @return A list of users who have corresponded with the specified user.
+     * @param page The zero based index of the page, or null for the first one.
+     * @param size The size of the page, or null for the default.
+     * @return a ConversationPageDTO holding the conversations of the page.
      */
-    public List<User> findCorespondents(String id){
-        List<User> users = new java.util.ArrayList<>(messageRepository.findAll().stream().map(Message::getSender).toList());
-        users.addAll(messageRepository.findAll().stream().map(Message::getReceiver).toList());
-        List<User> distinctUsers = new java.util.ArrayList<>(users.stream().distinct().toList());
-        for(int i = distinctUsers.size() - 1; i >= 0; i--){
-            if(distinctUsers.get(i).getId().equals(id)){
-                distinctUsers.remove(i);
+    public ConversationPageDTO findConversations(String id, Integer page, Integer size) {
+        int pageIndex = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        Slice<ConversationView> slice = conversationRepository.findPageByOwner(id, PageRequest.of(pageIndex, pageSize));
+        return ConversationPageDTO.builder()
+                .conversations(slice.getContent())
+                .page(pageIndex)
+                .size(pageSize)
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    /**
+     * Builds the conversation read model from the existing messages, once the application has started,
+     * when the messages predate it. Messages are read in batches, oldest first.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillConversations() {
+        if (conversationRepository.count() > 0) {
+            return;
+        }
+        Map<String, Conversation> conversations = new LinkedHashMap<>();
+        LocalDateTime lastDate = LocalDateTime.of(1970, 1, 1, 0, 0);
+        String lastId = "";
+        List<MessageRow> batch;
+        do {
+            batch = messageRepository.findRowsAfter(lastDate, lastId, PageRequest.ofSize(BACKFILL_BATCH_SIZE));
+            for (MessageRow row : batch) {
+                String preview = preview(row.msg());
+                backfill(conversations, row.senderId(), row.receiverId(), preview, row.date(), row.senderId());
+                if (!row.senderId().equals(row.receiverId())) {
+                    backfill(conversations, row.receiverId(), row.senderId(), preview, row.date(), row.senderId());
+                }
+                lastDate = row.date();
+                lastId = row.id();
             }
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        conversationRepository.saveAll(conversations.values());
+        if (!conversations.isEmpty()) {
+            LOGGER.info("Conversation read model built with {} rows", conversations.size());
         }
-        return distinctUsers;
     }
 
     /**
-     * Finds the chat between two users.
-     * @param sender The ID of the sender.
-     * @param receiver The ID of the receiver.
-     * @return A sorted list of messages forming the chat history between the two users.
+     * Finds a window of the chat between a user and a correspondent: the latest messages, or the messages before a
+     * position when scrolling back. Opening the chat marks the conversation read for the user.
+     * @param id The ID of the user reading the chat.
+     * @param corespondentId The ID of the correspondent.
+     * @param beforeDate The date of the oldest message already shown, or null for the latest messages.
+     * @param beforeId The id of the oldest message already shown, or null for the latest messages.
+     * @param limit The maximum number of messages, or null for the default.
+     * @return a ChatPageDTO holding the messages of the window, oldest first.
      */
-    public List<Message> findChat(String sender, String receiver){
-        List<Message> messages = messageRepository.findBySenderIdAndReceiverId(sender, receiver);
-        messages.addAll(messageRepository.findBySenderIdAndReceiverId(receiver, sender));
-        messages.sort(Comparator.comparing(Message::getDate));
-        return messages;
+    @Transactional
+    public ChatPageDTO findChat(String id, String corespondentId, LocalDateTime beforeDate, String beforeId, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_CHAT_SIZE : Math.min(limit, MAX_CHAT_SIZE);
+        boolean latest = beforeDate == null || beforeId == null;
+        if (latest) {
+            conversationRepository.markRead(id, corespondentId);
+        }
+        List<ChatMessageView> views = messageRepository.findChatBefore(id, corespondentId,
+                latest ? LATEST : beforeDate, latest ? "" : beforeId, size + 1);
+        boolean hasOlder = views.size() > size;
+        List<ChatMessageDTO> messages = new ArrayList<>(Math.min(views.size(), size));
+        for (int i = Math.min(views.size(), size) - 1; i >= 0; i--) {
+            ChatMessageView view = views.get(i);
+            messages.add(ChatMessageDTO.builder()
+                    .id(view.getId())
+                    .msg(view.getMsg())
+                    .date(view.getDate())
+                    .senderId(view.getSenderId())
+                    .senderName(view.getFirstName() + " " + view.getLastName())
+                    .build());
+        }
+        ChatMessageDTO oldest = messages.isEmpty() ? null : messages.get(0);
+        return ChatPageDTO.builder()
+                .messages(messages)
+                .hasOlder(hasOlder)
+                .beforeDate(oldest == null ? null : oldest.getDate())
+                .beforeId(oldest == null ? null : oldest.getId())
+                .build();
+    }
+
+    private void recordInConversations(Message msg) {
+        String senderId = msg.getSender().getId();
+        String receiverId = msg.getReceiver().getId();
+        String preview = preview(msg.getMsg());
+        if (conversationRepository.recordSent(senderId, receiverId, preview, msg.getDate(), senderId) == 0) {
+            conversationRepository.saveAndFlush(conversation(msg.getSender(), msg.getReceiver(), preview, msg.getDate(), senderId, 0));
+        }
+        if (senderId.equals(receiverId)) {
+            return;
+        }
+        if (conversationRepository.recordReceived(receiverId, senderId, preview, msg.getDate(), senderId) == 0) {
+            conversationRepository.saveAndFlush(conversation(msg.getReceiver(), msg.getSender(), preview, msg.getDate(), senderId, 1));
+        }
+    }
+
+    private void backfill(Map<String, Conversation> conversations, String ownerId, String correspondentId, String preview,
+                          LocalDateTime at, String senderId) {
+        Conversation conversation = conversations.computeIfAbsent(ownerId + "/" + correspondentId, key ->
+                conversation(userRepository.getReferenceById(ownerId), userRepository.getReferenceById(correspondentId),
+                        preview, at, senderId, 0));
+        conversation.setLastMessagePreview(preview);
+        conversation.setLastMessageAt(at);
+        conversation.setLastSenderId(senderId);
+    }
+
+    private static Conversation conversation(User owner, User correspondent, String preview, LocalDateTime at,
+                                             String senderId, int unreadCount) {
+        return Conversation.builder()
+                .owner(owner)
+                .correspondent(correspondent)
+                .lastMessagePreview(preview)
+                .lastMessageAt(at)
+                .lastSenderId(senderId)
+                .unreadCount(unreadCount)
+                .build();
+    }
+
+    private static String preview(String msg) {
+        return msg.length() <= Conversation.PREVIEW_LENGTH ? msg : msg.substring(0, Conversation.PREVIEW_LENGTH - 1) + "\u2026";
     }
 }
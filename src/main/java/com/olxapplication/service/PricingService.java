@@ -0,0 +1,223 @@
+package com.olxapplication.service;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.PricingMessages;
+import com.olxapplication.dtos.DiscountCampaignDTO;
+import com.olxapplication.entity.DiscountCampaign;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.DiscountCampaignRepository;
+import com.olxapplication.validators.AnnouncementValidator;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * This service layer class reprices announcements in bulk and runs the discount campaigns.
+ * A discount is applied to a whole category or seller with a single SQL update; campaigns are activated and expired
+ * by a scheduled task, each with one update, without loading the announcements.
+ * A campaign does not touch the own discount of the announcements: it sets their campaign discount to the largest discount
+ * of the campaigns active on their category or seller, and their new price follows the larger of the two discounts.
+ * Expiring a campaign therefore brings back the own discount, or the discount of an overlapping campaign that is still active.
+ * The totals of the favourite lists holding repriced announcements are brought up to date asynchronously by FavouriteTotalsPropagator.
+ */
+@Service
+@AllArgsConstructor
+public class PricingService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PricingService.class);
+    private final AnnouncementRepository announcementRepository;
+    private final DiscountCampaignRepository campaignRepository;
+    private final AnnouncementService announcementService;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeVersionSequence changeVersions;
+    private final FavouriteTotalsPropagator favouriteTotals;
+    private final AnnouncementValidator announcementValidator = new AnnouncementValidator();
+
+    /**
+     * Applies a discount to every announcement of a category, as their own discount.
+     * @param categoryId the id of the category.
+     * @param discount the discount percentage; 0 removes the discount.
+     * @return a string message holding the number of repriced announcements.
+     */
+    public String applyDiscountToCategory(String categoryId, Double discount) {
+        try {
+            announcementValidator.discountValidator(discount);
+        } catch (PatternNotMathcedException e) {
+            LOGGER.error(e.getMessage());
+            return e.getMessage();
+        }
+        Integer repriced = changeVersions.write(version ->
+                transactionTemplate.execute(status -> {
+                    announcementRepository.applyDiscountToCategory(categoryId, discount);
+                    return repriceCategory(categoryId, version);
+                }));
+        announcementService.invalidateDetailsCache();
+        LOGGER.debug(PricingMessages.DISCOUNT_APPLIED_SUCCESSFULLY + repriced);
+        return PricingMessages.DISCOUNT_APPLIED_SUCCESSFULLY + repriced;
+    }
+
+    /**
+     * Applies a discount to every announcement posted by a seller, as their own discount.
+     * @param userId the id of the seller.
+     * @param discount the discount percentage; 0 removes the discount.
+     * @return a string message holding the number of repriced announcements.
+     */
+    public String applyDiscountToSeller(String userId, Double discount) {
+        try {
+            announcementValidator.discountValidator(discount);
+        } catch (PatternNotMathcedException e) {
+            LOGGER.error(e.getMessage());
+            return e.getMessage();
+        }
+        Integer repriced = changeVersions.write(version ->
+                transactionTemplate.execute(status -> {
+                    announcementRepository.applyDiscountToSeller(userId, discount);
+                    return repriceSeller(userId, version);
+                }));
+        announcementService.invalidateDetailsCache();
+        LOGGER.debug(PricingMessages.DISCOUNT_APPLIED_SUCCESSFULLY + repriced);
+        return PricingMessages.DISCOUNT_APPLIED_SUCCESSFULLY + repriced;
+    }
+
+    /**
+     * Schedules a discount campaign on a category or a seller.
+     * @param campaignDTO the target, the discount and the time window of the campaign.
+     * @return a string message indicating the result of the operation.
+     */
+    public String scheduleCampaign(DiscountCampaignDTO campaignDTO) {
+        try {
+            boolean hasCategory = campaignDTO.getCategoryId() != null && !campaignDTO.getCategoryId().isBlank();
+            boolean hasUser = campaignDTO.getUserId() != null && !campaignDTO.getUserId().isBlank();
+            if (hasCategory == hasUser) {
+                throw new PatternNotMathcedException(PricingMessages.CAMPAIGN_TARGET_INVALID);
+            }
+            announcementValidator.discountValidator(campaignDTO.getDiscount());
+            if (campaignDTO.getStartsAt() == null || campaignDTO.getEndsAt() == null
+                    || !campaignDTO.getEndsAt().isAfter(campaignDTO.getStartsAt())) {
+                throw new PatternNotMathcedException(PricingMessages.CAMPAIGN_WINDOW_INVALID);
+            }
+            DiscountCampaign campaign = campaignRepository.save(DiscountCampaign.builder()
+                    .categoryId(hasCategory ? campaignDTO.getCategoryId().trim() : null)
+                    .userId(hasUser ? campaignDTO.getUserId().trim() : null)
+                    .discount(campaignDTO.getDiscount())
+                    .startsAt(campaignDTO.getStartsAt())
+                    .endsAt(campaignDTO.getEndsAt())
+                    .status(DiscountCampaign.SCHEDULED)
+                    .build());
+            LOGGER.debug(PricingMessages.CAMPAIGN_SCHEDULED_SUCCESSFULLY + campaign.getId());
+            return PricingMessages.CAMPAIGN_SCHEDULED_SUCCESSFULLY + campaign.getId();
+        } catch (PatternNotMathcedException e) {
+            LOGGER.error(PricingMessages.CAMPAIGN_NOT_SCHEDULED + e.getMessage());
+            return PricingMessages.CAMPAIGN_NOT_SCHEDULED + e.getMessage();
+        }
+    }
+
+    /**
+     * Cancels a campaign; an active campaign is expired right away.
+     * @param id the id of the campaign.
+     * @return a string message indicating the result of the operation.
+     */
+    public String cancelCampaign(String id) {
+        Optional<DiscountCampaign> campaign = campaignRepository.findById(id);
+        if (campaign.isEmpty()) {
+            LOGGER.error(PricingMessages.CAMPAIGN_NOT_FOUND + id);
+            return PricingMessages.CAMPAIGN_NOT_FOUND + id;
+        }
+        changeVersions.write(version -> transactionTemplate.execute(status -> expire(campaign.get(), version)));
+        announcementService.invalidateDetailsCache();
+        LOGGER.debug(PricingMessages.CAMPAIGN_CANCELLED_SUCCESSFULLY + id);
+        return PricingMessages.CAMPAIGN_CANCELLED_SUCCESSFULLY + id;
+    }
+
+    /**
+     * Finds the campaigns that are scheduled or active.
+     * @return a list of DiscountCampaignDTO objects, in the order they start.
+     */
+    public List<DiscountCampaignDTO> findCurrentCampaigns() {
+        return campaignRepository.findByStatusNotOrderByStartsAt(DiscountCampaign.EXPIRED).stream()
+                .map(campaign -> DiscountCampaignDTO.builder()
+                        .id(campaign.getId())
+                        .categoryId(campaign.getCategoryId())
+                        .userId(campaign.getUserId())
+                        .discount(campaign.getDiscount())
+                        .startsAt(campaign.getStartsAt())
+                        .endsAt(campaign.getEndsAt())
+                        .status(campaign.getStatus())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Activates the campaigns whose start time has come and expires those whose end time has passed, each in its own transaction.
+     */
+    @Scheduled(fixedDelayString = "${pricing.campaigns.poll-interval-ms:30000}")
+    public void runDueCampaigns() {
+        LocalDateTime now = LocalDateTime.now();
+        int changed = 0;
+        for (DiscountCampaign campaign : campaignRepository.findByStatusAndStartsAtLessThanEqualOrderByStartsAt(DiscountCampaign.SCHEDULED, now)) {
+            changeVersions.write(version -> transactionTemplate.execute(status -> activate(campaign, now, version)));
+            changed++;
+        }
+        for (DiscountCampaign campaign : campaignRepository.findByStatusAndEndsAtLessThanEqualOrderByEndsAt(DiscountCampaign.ACTIVE, now)) {
+            changeVersions.write(version -> transactionTemplate.execute(status -> expire(campaign, version)));
+            changed++;
+        }
+        if (changed > 0) {
+            announcementService.invalidateDetailsCache();
+            LOGGER.info("{} discount campaigns were activated or expired", changed);
+        }
+    }
+
+    private int activate(DiscountCampaign campaign, LocalDateTime now, long version) {
+        if (!campaign.getEndsAt().isAfter(now)) {
+            campaign.setStatus(DiscountCampaign.EXPIRED);
+            campaignRepository.save(campaign);
+            return 0;
+        }
+        campaign.setStatus(DiscountCampaign.ACTIVE);
+        campaignRepository.saveAndFlush(campaign);
+        int repriced = applyCampaigns(campaign, version);
+        LOGGER.debug("Campaign {} activated on {} announcements", campaign.getId(), repriced);
+        return repriced;
+    }
+
+    private int expire(DiscountCampaign campaign, long version) {
+        boolean active = DiscountCampaign.ACTIVE.equals(campaign.getStatus());
+        campaign.setStatus(DiscountCampaign.EXPIRED);
+        campaignRepository.saveAndFlush(campaign);
+        return active ? applyCampaigns(campaign, version) : 0;
+    }
+
+    /**
+     * Recomputes the campaign discount and the new price of the announcements targeted by a campaign that was just activated or expired.
+     */
+    private int applyCampaigns(DiscountCampaign campaign, long version) {
+        if (campaign.getCategoryId() != null) {
+            announcementRepository.applyCampaignsToCategory(campaign.getCategoryId());
+            return repriceCategory(campaign.getCategoryId(), version);
+        }
+        announcementRepository.applyCampaignsToSeller(campaign.getUserId());
+        return repriceSeller(campaign.getUserId(), version);
+    }
+
+    private int repriceCategory(String categoryId, long version) {
+        int repriced = announcementRepository.repriceCategory(categoryId, version);
+        favouriteTotals.categoryRepriced(categoryId);
+        return repriced;
+    }
+
+    private int repriceSeller(String userId, long version) {
+        int repriced = announcementRepository.repriceSeller(userId, version);
+        favouriteTotals.sellerRepriced(userId);
+        return repriced;
+    }
+}
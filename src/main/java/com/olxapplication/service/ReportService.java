@@ -1,8 +1,11 @@
 package com.olxapplication.service;
 
 import com.olxapplication.constants.ReportMessages;
+import com.olxapplication.dtos.ReportRequestDTO;
 import com.olxapplication.entity.Announcement;
 import com.olxapplication.entity.User;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.projections.MonthlyCount;
 import com.olxapplication.repository.AnnouncementRepository;
 import com.olxapplication.repository.UserRepository;
 import com.olxapplication.strategy.*;
@@ -11,8 +14,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.regex.Pattern;
 
 /**
  * Service class for generating reports in the OLX application.
@@ -21,6 +32,11 @@ import java.util.*;
 @AllArgsConstructor
 public class ReportService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReportService.class);
+    private static final Set<String> FORMATS = Set.of("csv", "txt", "pdf");
+    private static final LocalDateTime OPEN_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final Path OUTPUT_DIRECTORY = Path.of("Reports");
+    private static final Pattern REQUEST_ID_PATTERN = Pattern.compile("^[-a-zA-Z0-9]{1,64}$");
     private final AnnouncementRepository announcementRepository;
     private final UserRepository userRepository;
 
@@ -65,18 +81,66 @@ public class ReportService {
     }
 
     /**
-     * Generates a report in the specified file format.
-     * @param fileType The type of file to generate ("csv", "txt", or "pdf").
-     * @return A success message if the report is generated, otherwise an error message.
+     * Checks the format and the months of a report request before it is queued.
+     * @param request the report request.
+     * @throws PatternNotMathcedException if the id or the format is unknown or a month is malformed.
      */
-    public String generateReport(String fileType) {
-        Map<YearMonth, Integer> map = getData(getTimeSortedAnnounces());
-
-        StrategyFactory strategyFactory = new StrategyFactory();
-        FileGeneratorStrategy fileGeneratorStrategy = strategyFactory.getStrategy(fileType, map);
-        fileGeneratorStrategy.generateFile(map);
-        return ReportMessages.REPORT_GENERATED_SUCCESSFULLY;
+    public void validate(ReportRequestDTO request) {
+        if (request.getRequestId() == null || !REQUEST_ID_PATTERN.matcher(request.getRequestId()).matches()) {
+            throw new PatternNotMathcedException(ReportMessages.REQUEST_ID_NOT_MATCHED);
+        }
+        if (request.getFormat() == null || !FORMATS.contains(request.getFormat())) {
+            throw new PatternNotMathcedException(ReportMessages.FORMAT_NOT_MATCHED);
+        }
+        parseMonth(request.getFromMonth());
+        parseMonth(request.getToMonth());
     }
-}
 
+    /**
+     * Generates the report of a queued request into a file of its own.
+     * The months are counted by the database, so the announcements themselves are never loaded.
+     * @param request the report request.
+     * @return the generated file.
+     * @throws PatternNotMathcedException if the request is malformed.
+     * @throws UncheckedIOException if the file could not be written.
+     */
+    public File generateReport(ReportRequestDTO request) {
+        validate(request);
+        YearMonth fromMonth = parseMonth(request.getFromMonth());
+        YearMonth toMonth = parseMonth(request.getToMonth());
+        LocalDateTime from = fromMonth == null ? OPEN_START : fromMonth.atDay(1).atStartOfDay();
+        LocalDateTime to = toMonth == null ? OPEN_END : toMonth.plusMonths(1).atDay(1).atStartOfDay();
+
+        Map<YearMonth, Integer> map = new LinkedHashMap<>();
+        for (MonthlyCount count : announcementRepository.countPostedByMonth(from, to)) {
+            map.put(YearMonth.of(count.year(), count.month()), count.count().intValue());
+        }
+
+        FileGeneratorStrategy fileGeneratorStrategy = new StrategyFactory().getStrategy(request.getFormat(), map);
+        File file;
+        try {
+            Files.createDirectories(OUTPUT_DIRECTORY);
+            file = OUTPUT_DIRECTORY.resolve("Report_" + request.getRequestId() + "." + fileGeneratorStrategy.getExtension())
+                    .toAbsolutePath().toFile();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String msg = fileGeneratorStrategy.generateFile(map, file);
+        if (!ReportMessages.REPORT_GENERATED_SUCCESSFULLY.equals(msg)) {
+            throw new UncheckedIOException(new IOException(msg));
+        }
+        LOGGER.debug("Report {} generated in {}", request.getRequestId(), file);
+        return file;
+    }
 
+    private static YearMonth parseMonth(String month) {
+        if (month == null || month.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw new PatternNotMathcedException(ReportMessages.MONTH_NOT_MATCHED);
+        }
+    }
+}
@@ -2,25 +2,37 @@ package com.olxapplication.service;
 
 import com.olxapplication.constants.UserMessages;
 import com.olxapplication.dtos.UserDetailsDTO;
+import com.olxapplication.dtos.UserPageDTO;
 import com.olxapplication.entity.Announcement;
 import com.olxapplication.entity.Favourite;
 import com.olxapplication.exception.PatternNotMathcedException;
 import com.olxapplication.exception.ResourceNotFoundException;
 import com.olxapplication.mappers.UserMapper;
+import com.olxapplication.projections.UserCredentialsView;
+import com.olxapplication.projections.UserSummaryView;
 import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.repository.ConversationRepository;
 import com.olxapplication.repository.FavouriteRepository;
 import com.olxapplication.repository.UserRepository;
+import com.olxapplication.session.SessionPrincipal;
 import com.olxapplication.validators.UserValidators;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * This service layer class provides business logic operations for managing users within the application.
@@ -32,17 +44,80 @@ public class UserService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final FavouriteRepository favouriteRepository;
+    private final ConversationRepository conversationRepository;
+    private final AnnouncementService announcementService;
+    private final PopularityTracker popularityTracker;
+    private final TransactionTemplate transactionTemplate;
     private final UserValidators userValidators = new UserValidators();
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "firstname", "firstName",
+            "lastname", "lastName",
+            "email", "email",
+            "role", "role");
 
     /**
-     * Fetches all users from the repository and maps them to UserDetailsDTO objects.
-     * @return a list of UserDetailsDTO objects.
+     * Reads one page of the user directory, optionally restricted to the users whose first name, last name or email
+     * starts with the search text, ignoring case.
+     * @param search the text to search for; all users if blank.
+     * @param page the zero based index of the page.
+     * @param size the size of the page.
+     * @param sort the sort, of the form "field,direction;field,direction"; by last and first name if blank.
+     * @return a UserPageDTO holding the users of the page and the total number of matching users.
+     * @throws PatternNotMathcedException if a sort field or direction is not valid.
      */
-    public List<UserDetailsDTO> findUsers(){
-        List<User> userList = userRepository.findAll();
-        return userList.stream()
-                .map(UserMapper::toUserDetailsDTO)
-                .collect(Collectors.toList());
+    public UserPageDTO findUserPage(String search, Integer page, Integer size, String sort){
+        int pageIndex = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        PageRequest pageRequest = PageRequest.of(pageIndex, pageSize, parseSort(sort));
+        String text = search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
+        Page<UserSummaryView> users = text.isEmpty()
+                ? userRepository.findSummaries(pageRequest)
+                : userRepository.searchSummaries(escapeLike(text) + "%", pageRequest);
+        return UserPageDTO.builder()
+                .users(users.getContent())
+                .page(pageIndex)
+                .size(pageSize)
+                .totalElements(users.getTotalElements())
+                .totalPages(users.getTotalPages())
+                .search(text)
+                .sort(sort)
+                .build();
+    }
+
+    /**
+     * Parses a sort of the form "field,direction;field,direction", restricted to the sortable fields.
+     * The id is always appended as the last key, so that the order of the pages is stable.
+     */
+    private Sort parseSort(String sort){
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort == null || sort.isBlank()) {
+            orders.add(Sort.Order.asc("lastName"));
+            orders.add(Sort.Order.asc("firstName"));
+        } else {
+            for (String key : sort.split(";")) {
+                String[] parts = key.trim().split(",");
+                String property = SORTABLE_FIELDS.get(parts[0].trim().toLowerCase(Locale.ROOT));
+                if (property == null || parts.length > 2) {
+                    throw new PatternNotMathcedException(UserMessages.SORT_NOT_MATCHED + sort);
+                }
+                String direction = parts.length == 2 ? parts[1].trim().toLowerCase(Locale.ROOT) : "asc";
+                if (direction.equals("asc")) {
+                    orders.add(Sort.Order.asc(property));
+                } else if (direction.equals("desc")) {
+                    orders.add(Sort.Order.desc(property));
+                } else {
+                    throw new PatternNotMathcedException(UserMessages.SORT_NOT_MATCHED + sort);
+                }
+            }
+        }
+        orders.add(Sort.Order.asc("id"));
+        return Sort.by(orders);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     /**
@@ -58,7 +133,7 @@ public class UserService {
                 return UserMessages.USER_NOT_INSERTED + UserMessages.EMAIL_ALREADY_EXISTS;
             }
             User user = UserMapper.toEntity(userDTO);
-            Favourite favourite = new Favourite(null, user, new ArrayList<>(), 0.0);
+            Favourite favourite = new Favourite(null, user, new ArrayList<>(), 0L, 0L);
             user = userRepository.save(user);
             favourite = favouriteRepository.save(favourite);
             user.setFavouriteList(favourite);
@@ -72,35 +147,47 @@ public class UserService {
     }
 
     /**
-     * Deletes a user by ID from the repository.
+     * Deletes a user by ID from the repository, together with the conversation rows the user takes part in.
+     * The announcements the user posted are deleted first through the AnnouncementService, which takes them out of the
+     * favourite lists of the other users, recomputes their totals, writes their tombstones and evicts them from the search
+     * index, the details cache and the popularity ranking. Once the deletion of the user commits, the announcements of the
+     * user's favourite list lose one favourite each in the popularity ranking.
      * @param id the ID of the user to delete.
      * @return a message indicating the result of the operation.
      */
     public String deleteUserById(String id) {
-        Optional<User> userOptional = userRepository.findById(id);
-        if (userOptional.isEmpty()) {
+        if (!userRepository.existsById(id)) {
             LOGGER.error(UserMessages.USER_NOT_FOUND + id);
             return UserMessages.USER_NOT_FOUND + id;
-        } else {
-            if(userOptional.get().getId().equals("22b95bc0-2123-42d3-8234-69a8dd91c1bf")){
-                return UserMessages.ADMIN_DELETE;
-            }
-
-            userRepository.delete(userOptional.get());
-            LOGGER.debug(UserMessages.USER_DELETED_SUCCESSFULLY);
-            return UserMessages.USER_DELETED_SUCCESSFULLY + id;
         }
+        if (id.equals("22b95bc0-2123-42d3-8234-69a8dd91c1bf")) {
+            return UserMessages.ADMIN_DELETE;
+        }
+
+        announcementService.deleteAnnouncementsByUserId(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Integer> favourited = new HashMap<>();
+            favouriteRepository.findRefByUserId(id).ifPresent(favourite -> {
+                for (String announcementId : favouriteRepository.findAnnouncementIds(favourite.id())) {
+                    favourited.merge(announcementId, 1, Integer::sum);
+                }
+            });
+            conversationRepository.deleteByParticipant(id);
+            userRepository.findById(id).ifPresent(userRepository::delete);
+            favourited.forEach(popularityTracker::unfavourited);
+        });
+        LOGGER.debug(UserMessages.USER_DELETED_SUCCESSFULLY);
+        return UserMessages.USER_DELETED_SUCCESSFULLY + id;
     }
 
     /**
-     * Updates a user by ID in the repository after validating the input.
+     * Updates a user by ID in the repository after validating the input. A blank password keeps the current one.
      * @param id the ID of the user to update.
      * @param userDTO the UserDetailsDTO object containing the updated user data.
      * @return a message indicating the result of the operation.
      */
     public String updateUserById(String id, UserDetailsDTO userDTO) {
         try {
-            userValidators.userDtoValidator(userDTO);
             Optional<User> userOptional = userRepository.findById(id);
 
             if (userOptional.isEmpty()) {
@@ -108,6 +195,10 @@ public class UserService {
                 return UserMessages.USER_NOT_FOUND + id;
             } else {
                 User toBeUpdated = userOptional.get();
+                if (userDTO.getPassword() == null || userDTO.getPassword().isBlank()) {
+                    userDTO.setPassword(toBeUpdated.getPassword());
+                }
+                userValidators.userDtoValidator(userDTO);
                 toBeUpdated.setFirstName(userDTO.getFirstName());
                 toBeUpdated.setLastName(userDTO.getLastName());
                 toBeUpdated.setEmail(userDTO.getEmail());
@@ -129,18 +220,33 @@ public class UserService {
      * @return a message indicating the result of the operation or the user role.
      */
     public String checkUser(String email, String password){
-        Optional<User> userOptional = userRepository.findByEmailIgnoreCase(email);
-        if (userOptional.isEmpty()){
+        try {
+            return authenticate(email, password).role();
+        } catch (ResourceNotFoundException | PatternNotMathcedException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Checks the credentials of a user with a single query and resolves the principal to keep in the session.
+     * @param email the email of the user.
+     * @param password the password of the user.
+     * @return the SessionPrincipal of the user.
+     * @throws ResourceNotFoundException if there is no user with this email.
+     * @throws PatternNotMathcedException if the password does not match.
+     */
+    public SessionPrincipal authenticate(String email, String password) {
+        Optional<UserCredentialsView> credentials = userRepository.findCredentialsByEmail(email == null ? "" : email.trim());
+        if (credentials.isEmpty()) {
             LOGGER.error(UserMessages.INVALID_EMAIL);
-            return UserMessages.INVALID_EMAIL;
-        } else {
-            if(userOptional.get().getPassword().equals(password)){
-                return userOptional.get().getRole();
-            } else {
-                LOGGER.error(UserMessages.INVALID_PASSWORD);
-                return UserMessages.INVALID_PASSWORD;
-            }
+            throw new ResourceNotFoundException(UserMessages.INVALID_EMAIL);
+        }
+        UserCredentialsView user = credentials.get();
+        if (!user.password().equals(password)) {
+            LOGGER.error(UserMessages.INVALID_PASSWORD);
+            throw new PatternNotMathcedException(UserMessages.INVALID_PASSWORD);
         }
+        return new SessionPrincipal(user.id(), user.role(), user.firstName() + " " + user.lastName());
     }
 
     /**
@@ -0,0 +1,20 @@
+package com.olxapplication.session;
+
+import java.io.Serializable;
+
+/**
+ * The user signed in on an HTTP session, resolved once at login and kept in the session afterwards,
+ * so that the following requests know who is calling without reading the users table.
+ */
+public record SessionPrincipal(String id, String role, String displayName) implements Serializable {
+    /**
+     * The name of the session attribute holding the principal.
+     */
+    public static final String SESSION_ATTRIBUTE = "principal";
+    public static final String ADMIN = "admin";
+    public static final String USER = "user";
+
+    public boolean isAdmin() {
+        return ADMIN.equals(role);
+    }
+}
@@ -0,0 +1,63 @@
+package com.olxapplication.session;
+
+import com.olxapplication.constants.UserMessages;
+import com.olxapplication.exception.AccessDeniedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+/**
+ * Exposes the principal of the current session to every view as the "principal" model attribute.
+ * The principal is read from the session only; a request without a session does not create one.
+ */
+@ControllerAdvice
+public class SessionPrincipalAdvice {
+
+    /**
+     * @param request the current request.
+     * @return the principal signed in on the session of the request, or null.
+     */
+    @ModelAttribute(SessionPrincipal.SESSION_ATTRIBUTE)
+    public SessionPrincipal principal(HttpServletRequest request) {
+        return current(request);
+    }
+
+    /**
+     * @param request the current request.
+     * @return the principal signed in on the session of the request, or null.
+     */
+    public static SessionPrincipal current(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session == null ? null : (SessionPrincipal) session.getAttribute(SessionPrincipal.SESSION_ATTRIBUTE);
+    }
+
+    /**
+     * Checks that the user a request acts for is the one signed in on the session of the request.
+     * @param request the current request.
+     * @param userId the id of the user the request acts for, as found in its path.
+     * @return the id of the signed in user.
+     * @throws AccessDeniedException if nobody, or another user, is signed in on the session of the request.
+     */
+    public static String requireUser(HttpServletRequest request, String userId) {
+        SessionPrincipal principal = current(request);
+        if (principal == null || !principal.id().equals(userId)) {
+            throw new AccessDeniedException(UserMessages.ACCESS_DENIED + userId);
+        }
+        return principal.id();
+    }
+
+    /**
+     * Checks that an admin is signed in on the session of a request.
+     * @param request the current request.
+     * @return the id of the signed in admin.
+     * @throws AccessDeniedException if nobody, or a user who is not an admin, is signed in on the session of the request.
+     */
+    public static String requireAdmin(HttpServletRequest request) {
+        SessionPrincipal principal = current(request);
+        if (principal == null || !principal.isAdmin()) {
+            throw new AccessDeniedException(UserMessages.ADMIN_REQUIRED);
+        }
+        return principal.id();
+    }
+}
@@ -0,0 +1,309 @@
+package com.olxapplication.spool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped on-disk queue of records.
+ * Records are appended to fixed-size segment files as [length][crc32c][payload]; a length of -1 seals a segment and
+ * the next record goes to a new one. A single consumer reads the records from a checkpoint and moves the checkpoint
+ * forward once they are handled, which deletes the segments left behind; after a restart the reading starts over from
+ * the last checkpoint, so every record is handled at least once.
+ * A record is written to the page cache when append returns, which survives a crash of the process; with fsync enabled
+ * it is also forced to the disk, which survives a crash of the machine. A torn record at the end of the last segment,
+ * left by a crash in the middle of an append, fails its checksum and is dropped when the spool is opened.
+ */
+public class MessageSpool implements Closeable {
+    private static final int HEADER_SIZE = 8;
+    private static final int SEALED = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final FileChannel checkpointChannel;
+    private final Object appended = new Object();
+    private Segment head;
+    private volatile SpoolPosition checkpoint;
+
+    /**
+     * Opens the spool stored in a directory, creating it if needed, and recovers the records not yet checkpointed.
+     * @param directory the directory of the segment files.
+     * @param segmentSize the size of a segment file in bytes, which bounds the size of a record.
+     * @param fsync whether every append is forced to the disk.
+     * @throws IOException if the files can not be opened.
+     */
+    public MessageSpool(Path directory, int segmentSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, Segment.open(file, id, segmentSize));
+                }
+            }
+        }
+        checkpoint = readCheckpoint();
+        for (Segment segment : new ArrayList<>(segments.headMap(checkpoint.segment()).values())) {
+            segment.delete();
+            segments.remove(segment.id);
+        }
+        if (segments.isEmpty()) {
+            head = createSegment(checkpoint.segment());
+        } else {
+            head = segments.lastEntry().getValue();
+        }
+    }
+
+    /**
+     * Appends a record; it is visible to the consumer when this method returns.
+     * @param record the payload of the record.
+     * @return the position of the record.
+     * @throws IOException if a new segment can not be created.
+     * @throws IllegalArgumentException if the record does not fit in a segment.
+     */
+    public SpoolPosition append(byte[] record) throws IOException {
+        int size = HEADER_SIZE + record.length;
+        if (size + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes does not fit in a spool segment of " + segmentSize);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        SpoolPosition position;
+        synchronized (this) {
+            if (head.limit + size + Integer.BYTES > segmentSize) {
+                head.seal(fsync);
+                head = createSegment(head.id + 1);
+            }
+            position = new SpoolPosition(head.id, head.limit);
+            head.write(record, (int) crc.getValue(), fsync);
+        }
+        synchronized (appended) {
+            appended.notifyAll();
+        }
+        return position;
+    }
+
+    /**
+     * Reads the records following a position.
+     * @param from the position to read from, as returned by checkpoint or by a previous read.
+     * @param max the maximum number of records.
+     * @return the records read and the position after them.
+     */
+    public SpoolBatch read(SpoolPosition from, int max) {
+        List<byte[]> records = new ArrayList<>();
+        SpoolPosition position = from;
+        while (records.size() < max) {
+            Segment segment;
+            Segment next;
+            synchronized (this) {
+                segment = segments.get(position.segment());
+                next = segments.get(position.segment() + 1);
+            }
+            if (segment == null) {
+                break;
+            }
+            ByteBuffer view = segment.view();
+            int offset = position.offset();
+            if (offset >= segment.limit) {
+                if (segment.sealed && next != null) {
+                    position = new SpoolPosition(next.id, 0);
+                    continue;
+                }
+                break;
+            }
+            int length = view.getInt(offset);
+            byte[] record = new byte[length];
+            view.get(offset + HEADER_SIZE, record);
+            records.add(record);
+            position = new SpoolPosition(segment.id, offset + HEADER_SIZE + length);
+        }
+        return new SpoolBatch(records, position);
+    }
+
+    /**
+     * Waits until a record is appended or the timeout elapses.
+     * @param timeout the maximum time to wait.
+     * @param unit the unit of the timeout.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void awaitAppend(long timeout, TimeUnit unit) throws InterruptedException {
+        synchronized (appended) {
+            appended.wait(Math.max(1, unit.toMillis(timeout)));
+        }
+    }
+
+    /**
+     * @return the position of the first record not yet handled by the consumer.
+     */
+    public SpoolPosition checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Marks the records before a position as handled and deletes the segments that hold only handled records.
+     * @param position the position after the last handled record.
+     * @throws IOException if the checkpoint can not be written.
+     */
+    public synchronized void commit(SpoolPosition position) throws IOException {
+        if (position.compareTo(checkpoint) <= 0) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        buffer.putLong(position.segment()).putInt(position.offset()).flip();
+        checkpointChannel.write(buffer, 0);
+        if (fsync) {
+            checkpointChannel.force(false);
+        }
+        checkpoint = position;
+        for (Segment segment : new ArrayList<>(segments.headMap(position.segment()).values())) {
+            segment.delete();
+            segments.remove(segment.id);
+        }
+    }
+
+    /**
+     * @return the number of bytes appended and not yet checkpointed, headers included.
+     */
+    public synchronized long backlogBytes() {
+        long bytes = 0;
+        for (Map.Entry<Long, Segment> entry : segments.tailMap(checkpoint.segment()).entrySet()) {
+            Segment segment = entry.getValue();
+            bytes += segment.limit - (segment.id == checkpoint.segment() ? checkpoint.offset() : 0);
+        }
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+        checkpointChannel.close();
+    }
+
+    private SpoolPosition readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        if (checkpointChannel.read(buffer, 0) == buffer.capacity()) {
+            buffer.flip();
+            return new SpoolPosition(buffer.getLong(), buffer.getInt());
+        }
+        return new SpoolPosition(segments.isEmpty() ? 0 : segments.firstKey(), 0);
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Segment segment = Segment.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)), id, segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * One memory-mapped segment file; only the last segment is written to.
+     */
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private volatile int limit;
+        private volatile boolean sealed;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.recover();
+            return segment;
+        }
+
+        /**
+         * Finds the end of the valid records, and erases a torn record left by a crash.
+         */
+        private void recover() {
+            int capacity = buffer.capacity();
+            int offset = 0;
+            while (offset + Integer.BYTES <= capacity) {
+                int length = buffer.getInt(offset);
+                if (length == SEALED) {
+                    sealed = true;
+                    break;
+                }
+                if (length <= 0 || length > capacity - offset - HEADER_SIZE || checksum(offset, length) != buffer.getInt(offset + Integer.BYTES)) {
+                    if (length != 0) {
+                        for (int i = offset; i < Math.min(capacity, offset + HEADER_SIZE + Math.max(0, length)); i++) {
+                            buffer.put(i, (byte) 0);
+                        }
+                    }
+                    break;
+                }
+                offset += HEADER_SIZE + length;
+            }
+            limit = offset;
+        }
+
+        private int checksum(int offset, int length) {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(offset + HEADER_SIZE, length));
+            return (int) crc.getValue();
+        }
+
+        /**
+         * Writes the checksum and the payload before the length, so that a reader never sees a partial record.
+         */
+        private void write(byte[] record, int crc, boolean fsync) {
+            int offset = limit;
+            buffer.put(offset + HEADER_SIZE, record);
+            buffer.putInt(offset + Integer.BYTES, crc);
+            buffer.putInt(offset, record.length);
+            if (fsync) {
+                buffer.force(offset, HEADER_SIZE + record.length);
+            }
+            limit = offset + HEADER_SIZE + record.length;
+        }
+
+        private void seal(boolean fsync) {
+            buffer.putInt(limit, SEALED);
+            if (fsync) {
+                buffer.force(limit, Integer.BYTES);
+            }
+            sealed = true;
+        }
+
+        private ByteBuffer view() {
+            return buffer.duplicate();
+        }
+
+        private void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
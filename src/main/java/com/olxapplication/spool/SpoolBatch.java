@@ -0,0 +1,13 @@
+package com.olxapplication.spool;
+
+import java.util.List;
+
+/**
+ * Records read from the spool, and the position right after the last of them.
+ */
+public record SpoolBatch(List<byte[]> records, SpoolPosition next) {
+
+    public boolean isEmpty() {
+        return records.isEmpty();
+    }
+}
@@ -0,0 +1,13 @@
+package com.olxapplication.spool;
+
+/**
+ * Position of a record in the spool: the segment it is stored in and its byte offset inside the segment.
+ */
+public record SpoolPosition(long segment, int offset) implements Comparable<SpoolPosition> {
+
+    @Override
+    public int compareTo(SpoolPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Integer.compare(offset, other.offset);
+    }
+}
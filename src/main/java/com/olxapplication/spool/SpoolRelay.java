@@ -0,0 +1,114 @@
+package com.olxapplication.spool;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.olxapplication.config.AsyncRabbitPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the message spool to the broker in the background.
+ * The records are published in batches; the checkpoint of the spool moves past a batch only once the broker has
+ * confirmed every message of it, otherwise the batch is published again after a growing pause.
+ * Messages are therefore delivered at least once, and may be duplicated after a failure.
+ * A record that can not be decoded would block the spool forever, so it is logged and skipped: the checkpoint moves
+ * past it with the rest of its batch.
+ */
+@Component
+public class SpoolRelay {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpoolRelay.class);
+    private static final long IDLE_WAIT_MILLIS = 200;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    private final MessageSpool spool;
+    private final AsyncRabbitPublisher publisher;
+    private final int batchSize;
+    private final long confirmTimeoutMillis;
+    private volatile boolean running;
+    private Thread relay;
+
+    public SpoolRelay(MessageSpool spool, AsyncRabbitPublisher publisher,
+                      @Value("${rabbitmq.spool.batch-size:100}") int batchSize,
+                      @Value("${rabbitmq.spool.confirm-timeout-ms:10000}") long confirmTimeoutMillis) {
+        this.spool = spool;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMillis = confirmTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        relay = Thread.ofVirtual().name("spool-relay").start(this::relayLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+            relay.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void relayLoop() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        SpoolPosition position = spool.checkpoint();
+        while (running) {
+            try {
+                SpoolBatch batch = spool.read(position, batchSize);
+                if (batch.isEmpty()) {
+                    spool.awaitAppend(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                publish(batch.records());
+                spool.commit(batch.next());
+                position = batch.next();
+                backoff = MIN_BACKOFF_MILLIS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException | ExecutionException | TimeoutException e) {
+                LOGGER.warn("Relaying the spool to the broker failed, retrying in {} ms: {}", backoff, e.getMessage());
+                position = spool.checkpoint();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Publishes the messages of a batch, then waits for the broker to confirm all of them.
+     */
+    private void publish(List<byte[]> records) throws InterruptedException, ExecutionException, TimeoutException {
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            SpooledMessage message;
+            try {
+                message = SpooledMessage.decode(record);
+            } catch (RuntimeException e) {
+                LOGGER.error("Skipping a spooled record of {} bytes that can not be decoded: {}", record.length, e.getMessage());
+                continue;
+            }
+            confirms.add(publisher.publish(message.exchange(), message.routingKey(), message.toMessage()));
+        }
+        CompletableFuture.allOf(confirms.toArray(CompletableFuture[]::new)).get(confirmTimeoutMillis, TimeUnit.MILLISECONDS);
+        LOGGER.debug("Relayed {} spooled messages to the broker", records.size());
+    }
+}
@@ -0,0 +1,81 @@
+package com.olxapplication.spool;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An AMQP message waiting in the spool: where it goes, its content type, its string headers and its body.
+ */
+public record SpooledMessage(String exchange, String routingKey, String contentType, Map<String, String> headers, byte[] body) {
+
+    /**
+     * Captures a converted message with the string headers it carries, such as the type id of the JSON converter.
+     */
+    public static SpooledMessage of(String exchange, String routingKey, Message message) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        message.getMessageProperties().getHeaders().forEach((name, value) -> {
+            if (value instanceof String text) {
+                headers.put(name, text);
+            }
+        });
+        return new SpooledMessage(exchange, routingKey, message.getMessageProperties().getContentType(), headers, message.getBody());
+    }
+
+    /**
+     * @return the persistent AMQP message to publish.
+     */
+    public Message toMessage() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(contentType);
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        headers.forEach(properties::setHeader);
+        return new Message(body, properties);
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length + 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(exchange);
+            out.writeUTF(routingKey);
+            out.writeUTF(contentType == null ? "" : contentType);
+            out.writeShort(headers.size());
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(header.getValue());
+            }
+            out.writeInt(body.length);
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SpooledMessage decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String exchange = in.readUTF();
+            String routingKey = in.readUTF();
+            String contentType = in.readUTF();
+            int headerCount = in.readUnsignedShort();
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(in.readUTF(), in.readUTF());
+            }
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new SpooledMessage(exchange, routingKey, contentType.isEmpty() ? null : contentType, headers, body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -19,8 +19,11 @@ public class CsvGenerator implements FileGeneratorStrategy {
 
     @Override
     public String generateFile(Map<YearMonth, Integer> map) {
-        File file = new File("Reports/CSV_Report.csv");
+        return generateFile(map, new File("Reports/CSV_Report.csv"));
+    }
 
+    @Override
+    public String generateFile(Map<YearMonth, Integer> map, File file) {
         try{
             FileWriter outputFile = new FileWriter(file);
 
@@ -40,4 +43,9 @@ public class CsvGenerator implements FileGeneratorStrategy {
             return ReportMessages.REPORT_NOT_GENERATED + e.getMessage();
         }
     }
+
+    @Override
+    public String getExtension() {
+        return "csv";
+    }
 }
@@ -1,8 +1,22 @@
 package com.olxapplication.strategy;
 
+import java.io.File;
 import java.time.YearMonth;
 import java.util.Map;
 
 public interface FileGeneratorStrategy {
     String generateFile(Map<YearMonth, Integer> map);
+
+    /**
+     * Writes the report to the given file, so that concurrent reports do not overwrite each other.
+     * @param map the number of announcements posted in every month.
+     * @param file the file to write.
+     * @return a success message if the report is written, otherwise an error message.
+     */
+    String generateFile(Map<YearMonth, Integer> map, File file);
+
+    /**
+     * @return the extension of the files written by the strategy.
+     */
+    String getExtension();
 }
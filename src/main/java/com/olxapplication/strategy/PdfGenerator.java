@@ -7,6 +7,7 @@ import com.olxapplication.constants.ReportMessages;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.time.YearMonth;
@@ -17,9 +18,13 @@ public class PdfGenerator implements FileGeneratorStrategy{
     private static final Logger LOGGER = LoggerFactory.getLogger(PdfGenerator.class);
 
     public String generateFile(Map<YearMonth, Integer> map) {
+        return generateFile(map, new File("Reports/PDF_Report.pdf"));
+    }
+
+    public String generateFile(Map<YearMonth, Integer> map, File file) {
         Document document = new Document();
         try {
-            PdfWriter.getInstance(document, new FileOutputStream("Reports/PDF_Report.pdf"));
+            PdfWriter.getInstance(document, new FileOutputStream(file));
             document.open();
 
             Font font = new Font(Font.FontFamily.TIMES_ROMAN, 18, Font.BOLD);
@@ -49,4 +54,8 @@ public class PdfGenerator implements FileGeneratorStrategy{
             return ReportMessages.REPORT_NOT_GENERATED + e.getMessage();
         }
     }
+
+    public String getExtension() {
+        return "pdf";
+    }
 }
@@ -15,9 +15,10 @@ public class TxtGenerator implements FileGeneratorStrategy{
     private static final Logger LOGGER = LoggerFactory.getLogger(TxtGenerator.class);
 
     public String generateFile(Map<YearMonth, Integer> map) {
+        return generateFile(map, new File("Reports/TXT_Report.txt"));
+    }
 
-        File file = new File("Reports/TXT_Report.txt");
-
+    public String generateFile(Map<YearMonth, Integer> map, File file) {
         try {
             PrintWriter writer = new PrintWriter(new FileWriter(file));
 
@@ -35,4 +36,8 @@ public class TxtGenerator implements FileGeneratorStrategy{
             return ReportMessages.REPORT_NOT_GENERATED + e.getMessage();
         }
     }
+
+    public String getExtension() {
+        return "txt";
+    }
 }
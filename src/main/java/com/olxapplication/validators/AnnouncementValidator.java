@@ -48,7 +48,7 @@ public class AnnouncementValidator {
 
     public boolean discountValidator(Double discount) throws PatternNotMathcedException{
 
-        if(discount >= 0 && discount <= 100){
+        if(discount != null && discount >= 0 && discount <= 100){
 
             return true;
         } else {
@@ -0,0 +1,94 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.Favourite;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.FavouriteRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AnnouncementBulkDeleteTest {
+    private static final int ANNOUNCES = 1200;
+
+    @Autowired
+    private AnnouncementService announcementService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User seller;
+    private User buyer;
+    private List<Announcement> announcements;
+
+    @BeforeEach
+    void setup() {
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        Category category = categoryRepository.save(Category.builder().categoryName("Tools").build());
+        seller = userRepository.save(user("Seller"));
+        buyer = userRepository.save(user("Buyer"));
+        announcements = new ArrayList<>();
+        for (int i = 0; i < ANNOUNCES; i++) {
+            announcements.add(announcement("Hammer", 10.0, seller, category));
+        }
+        announcements = announcementRepository.saveAll(announcements);
+        Favourite favourite = buyer.getFavouriteList();
+        favourite.setFavouriteAnnouncements(new ArrayList<>(announcements.subList(0, 3)));
+        favourite.setTotalMinor(3000L);
+        favouriteRepository.save(favourite);
+    }
+
+    @Test
+    void deleteByIdsCleansFavouritesAndRecomputesTotals() {
+        String msg = announcementService.deleteAnnouncementsByIds(List.of(announcements.get(0).getId(), announcements.get(1).getId(), "missing"));
+
+        assertThat(msg).endsWith("2");
+        assertThat(announcementRepository.count()).isEqualTo(ANNOUNCES - 2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from favourite_announcement", Integer.class)).isEqualTo(1);
+        assertThat(favouriteRepository.findByUserId(buyer.getId()).get().getTotalMinor()).isEqualTo(1000L);
+    }
+
+    @Test
+    void deleteByUserRemovesEveryAnnouncementInChunks() {
+        String msg = announcementService.deleteAnnouncementsByUserId(seller.getId());
+
+        assertThat(msg).endsWith(String.valueOf(ANNOUNCES));
+        assertThat(announcementRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from favourite_announcement", Integer.class)).isZero();
+        assertThat(favouriteRepository.findByUserId(buyer.getId()).get().getTotalMinor()).isZero();
+    }
+}
@@ -0,0 +1,71 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.dtos.AnnouncementDetailsDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AnnouncementDetailsCacheTest {
+    @Autowired
+    private AnnouncementService announcementService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Announcement hammer;
+
+    @BeforeEach
+    void setup() {
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        announcementService.invalidateDetailsCache();
+        Category category = categoryRepository.save(Category.builder().categoryName("Tools").build());
+        User seller = userRepository.save(user("Seller"));
+        hammer = announcementRepository.save(announcement("Hammer", 10.0, seller, category));
+    }
+
+    @Test
+    void cachedDetailsCanNotBeAlteredByCallers() {
+        long hits = announcementService.getDetailsCacheStats().getHits();
+        AnnouncementDetailsDTO first = announcementService.findAnnouncementById(hammer.getId());
+        first.setTitle("Changed");
+        first.getUser().setFirstName("Changed");
+
+        AnnouncementDetailsDTO second = announcementService.findAnnouncementById(hammer.getId());
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getTitle()).isEqualTo("Hammer");
+        assertThat(second.getUser().getFirstName()).isEqualTo("Seller");
+        assertThat(announcementService.getDetailsCacheStats().getHits()).isEqualTo(hits + 1);
+    }
+}
@@ -0,0 +1,99 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.AnnouncementMessages;
+import com.olxapplication.dtos.ImportReportDTO;
+import com.olxapplication.dtos.ImportRowErrorDTO;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({AnnouncementImportService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AnnouncementImportServiceTest {
+    private static final int ROWS = 5000;
+
+    @Autowired
+    private AnnouncementImportService importService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private AnnouncementSearchIndex searchIndex;
+
+    private String userId;
+    private String categoryId;
+
+    @BeforeEach
+    void setup() {
+        announcementRepository.deleteAll();
+        userId = userRepository.save(User.builder().firstName("Seller").lastName("Test").email("seller@test.com")
+                .password("Password1!").role("user").build()).getId();
+        categoryId = categoryRepository.save(Category.builder().categoryName("Books").build()).getId();
+    }
+
+    @Test
+    void importsCsvInChunksAndReportsRejectedRows() {
+        StringBuilder csv = new StringBuilder("title,description,price,discount,user,category,imageURL\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Book;Novel,A good book number ").append(i).append(",100,25,").append(userId).append(',')
+                    .append(categoryId).append(",http://images/book.png\n");
+        }
+        csv.append("B,too short title,100,25,").append(userId).append(',').append(categoryId).append(",http://images/book.png\n");
+        csv.append("Another book,unknown seller,100,25,unknown-user,").append(categoryId).append(",http://images/book.png\n");
+        csv.append("Priced book,not a number,abc,25,").append(userId).append(',').append(categoryId).append(",http://images/book.png\n");
+
+        ImportReportDTO report = importService.importAnnouncements(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), "csv");
+
+        assertThat(report.getTotalRows()).isEqualTo(ROWS + 3);
+        assertThat(report.getImportedRows()).isEqualTo(ROWS);
+        assertThat(report.getFailedRows()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting("row").containsExactly((long) ROWS + 2, (long) ROWS + 3, (long) ROWS + 4);
+        assertThat(report.getRowsPerSecond()).isPositive();
+        assertThat(announcementRepository.count()).isEqualTo(ROWS);
+        assertThat(announcementRepository.findAll().get(0).getNewPrice()).isEqualTo(75.0);
+        assertThat(searchIndex.search("novel", null, 0, 10).getTotalHits()).isEqualTo(ROWS);
+    }
+
+    @Test
+    void importsJsonLines() {
+        String jsonLines = "{\"title\":\"Lamp\",\"description\":\"A desk lamp\",\"price\":40,\"discount\":10,\"user\":\"" + userId
+                + "\",\"category\":\"" + categoryId + "\",\"imageURL\":\"http://images/lamp.png\"}\n"
+                + "\n"
+                + "{not json}\n"
+                + "null\n"
+                + "[1]\n";
+
+        ImportReportDTO report = importService.importAnnouncements(
+                new ByteArrayInputStream(jsonLines.getBytes(StandardCharsets.UTF_8)), "jsonl");
+
+        assertThat(report.getImportedRows()).isEqualTo(1);
+        assertThat(report.getFailedRows()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ImportRowErrorDTO::getRow).containsExactlyInAnyOrder(3L, 4L, 5L);
+        assertThat(report.getErrors()).allSatisfy(error -> assertThat(error.getMessage()).startsWith(AnnouncementMessages.IMPORT_ROW_MALFORMED));
+        assertThat(announcementRepository.findAll().get(0).getNewPrice()).isEqualTo(36.0);
+    }
+}
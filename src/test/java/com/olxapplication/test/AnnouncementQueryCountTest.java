@@ -0,0 +1,138 @@
+package com.olxapplication.test;
+
+import com.olxapplication.dtos.AnnouncementDetailsDTO;
+import com.olxapplication.dtos.AnnouncementFilterDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.Favourite;
+import com.olxapplication.entity.User;
+import com.olxapplication.mappers.AnnouncementMapper;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.AnnouncementSpecifications;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that rendering a page of announcements costs a constant number of queries,
+ * whatever the number of sellers and the size of their announcement and message histories.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class AnnouncementQueryCountTest {
+    private static final int SELLERS = 5;
+    private static final int ANNOUNCES_PER_SELLER = 8;
+
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User buyer;
+
+    @BeforeEach
+    void setup() {
+        Category category = Category.builder().categoryName("Electronics").announces(new ArrayList<>()).build();
+        entityManager.persist(category);
+        List<Announcement> favourites = new ArrayList<>();
+        for (int s = 0; s < SELLERS; s++) {
+            User seller = user("Seller" + s);
+            for (int a = 0; a < ANNOUNCES_PER_SELLER; a++) {
+                Announcement announcement = Announcement.builder()
+                        .title("Phone " + s + "-" + a)
+                        .description("A used phone")
+                        .price(100.0 + a)
+                        .discount(10.0)
+                        .newPrice(90.0 + a)
+                        .date(LocalDateTime.now().minusMinutes(s * ANNOUNCES_PER_SELLER + a))
+                        .imageURL("http://images/phone.png")
+                        .user(seller)
+                        .category(category)
+                        .build();
+                entityManager.persist(announcement);
+                if (a == 0) {
+                    favourites.add(announcement);
+                }
+            }
+        }
+        buyer = user("Buyer");
+        buyer.getFavouriteList().setFavouriteAnnouncements(favourites);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void feedPageIsReadWithOneQuery() {
+        List<AnnouncementDetailsDTO> page = render(announcementRepository.findOtherFeedFirstPage(buyer.getId(), PageRequest.ofSize(21))
+                .stream().map(AnnouncementMapper::toAnnouncementDetailsDTO).collect(Collectors.toList()));
+
+        assertThat(page).hasSize(21);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void filteredPageIsReadWithOneQuery() {
+        AnnouncementFilterDTO filter = AnnouncementFilterDTO.builder().categoryName("electro").minNewPrice(92.0).build();
+        List<AnnouncementDetailsDTO> page = render(announcementRepository.findListViews(AnnouncementSpecifications.matching(filter),
+                        PageRequest.of(0, 10, Sort.by(Sort.Order.asc("newPrice"), Sort.Order.asc("id"))))
+                .stream().map(AnnouncementMapper::toAnnouncementDetailsDTO).collect(Collectors.toList()));
+
+        assertThat(page).hasSize(10);
+        assertThat(page.get(0).getNewPrice()).isEqualTo(92.0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void favouritesAreReadWithOneQuery() {
+        List<AnnouncementDetailsDTO> favourites = render(announcementRepository.findFavouriteListViews(buyer.getId(), PageRequest.ofSize(SELLERS))
+                .stream().map(AnnouncementMapper::toAnnouncementDetailsDTO).collect(Collectors.toList()));
+
+        assertThat(favourites).hasSize(SELLERS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    /**
+     * Touches every property the listing templates display, as Thymeleaf would.
+     */
+    private List<AnnouncementDetailsDTO> render(List<AnnouncementDetailsDTO> announces) {
+        for (AnnouncementDetailsDTO announcement : announces) {
+            assertThat(announcement.getUser().getFirstName() + " " + announcement.getUser().getLastName()).isNotBlank();
+            assertThat(announcement.getCategory().getCategoryName()).isEqualTo("Electronics");
+            assertThat(announcement.getTitle()).isNotBlank();
+        }
+        return announces;
+    }
+
+    private User user(String firstName) {
+        Favourite favourite = Favourite.builder().favouriteAnnouncements(new ArrayList<>()).totalMinor(0L).build();
+        User user = User.builder()
+                .firstName(firstName)
+                .lastName("Test")
+                .email(firstName.toLowerCase() + "@test.com")
+                .password("Password1!")
+                .role("user")
+                .favouriteList(favourite)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+}
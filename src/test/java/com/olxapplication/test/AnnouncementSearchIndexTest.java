@@ -0,0 +1,91 @@
+package com.olxapplication.test;
+
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.search.SearchHits;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnnouncementSearchIndexTest {
+    private AnnouncementSearchIndex searchIndex;
+
+    @BeforeEach
+    void setup(){
+        searchIndex = new AnnouncementSearchIndex(null);
+        searchIndex.index("a1", "Bicicleta de munte", "Bicicleta folosita, roti noi", "u1");
+        searchIndex.index("a2", "Telefon", "Telefon cu husa si incarcator pentru bicicleta", "u2");
+        searchIndex.index("a3", "Bicicletă copii", "Bicicleta mica, rosie", "u2");
+    }
+
+    @Test
+    void testTitleMatchesRankFirst(){
+        SearchHits hits = searchIndex.search("bicicleta", null, 0, 10);
+        assertThat(hits.getTotalHits()).isEqualTo(3);
+        assertThat(hits.getIds().get(2)).isEqualTo("a2");
+    }
+
+    @Test
+    void testAllTermsMustMatch(){
+        SearchHits hits = searchIndex.search("bicicleta rosie", null, 0, 10);
+        assertThat(hits.getIds()).containsExactly("a3");
+    }
+
+    @Test
+    void testExcludedOwnerAndPaging(){
+        SearchHits hits = searchIndex.search("bicicleta", "u1", 1, 1);
+        assertThat(hits.getTotalHits()).isEqualTo(2);
+        assertThat(hits.getIds()).hasSize(1);
+    }
+
+    @Test
+    void testUpdateAndRemove(){
+        searchIndex.index("a1", "Trotineta", "Trotineta electrica", "u1");
+        assertThat(searchIndex.search("munte", null, 0, 10).getTotalHits()).isZero();
+        assertThat(searchIndex.search("trotineta", null, 0, 10).getIds()).containsExactly("a1");
+
+        searchIndex.remove("a3");
+        assertThat(searchIndex.search("bicicleta", null, 0, 10).getIds()).containsExactly("a2");
+        assertThat(searchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocuments(){
+        for (int i = 0; i < 25000; i++) {
+            searchIndex.index("tmp" + i, "Masina " + i, "Masina de vanzare", "u3");
+        }
+        for (int i = 0; i < 25000; i++) {
+            searchIndex.remove("tmp" + i);
+        }
+        assertThat(searchIndex.size()).isEqualTo(3);
+        assertThat(searchIndex.search("masina", null, 0, 10).getTotalHits()).isZero();
+        assertThat(searchIndex.search("bicicleta", null, 0, 10).getTotalHits()).isEqualTo(3);
+    }
+
+    @Test
+    void testDocumentFrequenciesCountOnlyLiveDocuments(){
+        searchIndex.index("b1", "", "rosu rosu albastru", "u4");
+        searchIndex.index("b2", "", "rosu albastru albastru", "u4");
+        for (int i = 0; i < 3; i++) {
+            searchIndex.index("c" + i, "", "albastru deschis", "u4");
+        }
+        assertThat(searchIndex.search("rosu albastru", null, 0, 10).getIds()).containsExactly("b1", "b2");
+
+        for (int i = 0; i < 10; i++) {
+            searchIndex.index("d" + i, "", "rosu aprins", "u4");
+            searchIndex.index("d" + i, "", "aprins", "u4");
+        }
+        assertThat(searchIndex.search("rosu albastru", null, 0, 10).getIds()).containsExactly("b1", "b2");
+    }
+
+    @Test
+    void testReindexingCompactsThePostings(){
+        for (int i = 0; i < 25000; i++) {
+            searchIndex.index("a2", "Telefon " + i, "Telefon de vanzare", "u2");
+        }
+        assertThat(searchIndex.size()).isEqualTo(3);
+        assertThat(searchIndex.search("telefon", null, 0, 10).getIds()).containsExactly("a2");
+        assertThat(searchIndex.search("telefon 24999", null, 0, 10).getIds()).containsExactly("a2");
+        assertThat(searchIndex.search("telefon 12345", null, 0, 10).getTotalHits()).isZero();
+    }
+}
@@ -0,0 +1,111 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.AsyncRabbitPublisher;
+import com.olxapplication.dtos.PublisherStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the publisher against a mocked template whose confirms are completed by the test.
+ */
+public class AsyncRabbitPublisherTest {
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final List<CorrelationData> unconfirmed = new CopyOnWriteArrayList<>();
+    private final AtomicInteger batches = new AtomicInteger();
+    private AsyncRabbitPublisher publisher;
+
+    @SuppressWarnings("unchecked")
+    private void setup(int batchSize, int maxInFlight, long windowTimeoutMillis) {
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class))).thenAnswer(invocation -> {
+            batches.incrementAndGet();
+            return ((RabbitOperations.OperationsCallback<Object>) invocation.getArgument(0)).doInRabbit(operations);
+        });
+        doAnswer(invocation -> unconfirmed.add(invocation.getArgument(3)))
+                .when(operations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        publisher = new AsyncRabbitPublisher(rabbitTemplate, batchSize, 20, maxInFlight, windowTimeoutMillis, 5000);
+        publisher.start();
+    }
+
+    @AfterEach
+    void stop() {
+        publisher.stop();
+    }
+
+    @Test
+    void queuedMessagesAreSentInBatchesAndCompletedByTheirConfirms() throws Exception {
+        setup(50, 1000, 1000);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(publisher.publish("exchange", "key", message(i)));
+        }
+        await(() -> unconfirmed.size() == 200);
+        assertThat(batches.get()).isLessThan(200);
+
+        for (int i = 0; i < unconfirmed.size(); i++) {
+            unconfirmed.get(i).getFuture().complete(new CorrelationData.Confirm(i != 7, i == 7 ? "queue full" : null));
+        }
+
+        assertThat(futures.get(0).get(1, TimeUnit.SECONDS)).isNull();
+        assertThatThrownBy(() -> futures.get(7).get(1, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("queue full");
+        PublisherStatsDTO stats = publisher.getStats(0);
+        assertThat(stats.getPublished()).isEqualTo(200);
+        assertThat(stats.getAcked()).isEqualTo(199);
+        assertThat(stats.getNacked()).isEqualTo(1);
+        assertThat(stats.getInFlight()).isZero();
+    }
+
+    @Test
+    void fullWindowAppliesBackpressure() throws Exception {
+        setup(10, 5, 100);
+        for (int i = 0; i < 5; i++) {
+            publisher.publish("exchange", "key", message(i));
+        }
+        await(() -> unconfirmed.size() == 5);
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> rejected = publisher.publish("exchange", "key", message(5));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(90);
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(publisher.getStats(0).getRejected()).isEqualTo(1);
+
+        unconfirmed.get(0).getFuture().complete(new CorrelationData.Confirm(true, null));
+        CompletableFuture<Void> admitted = publisher.publish("exchange", "key", message(6));
+        await(() -> unconfirmed.size() == 6);
+        assertThat(admitted).isNotDone();
+    }
+
+    private static Message message(int i) {
+        return new Message(("{\"id\":" + i + "}").getBytes(), new MessageProperties());
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
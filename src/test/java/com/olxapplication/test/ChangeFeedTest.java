@@ -0,0 +1,120 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.dtos.AnnouncementChangeDTO;
+import com.olxapplication.dtos.AnnouncementChangesDTO;
+import com.olxapplication.dtos.AnnouncementWebDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.AnnouncementTombstoneRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.ChangeFeedService;
+import com.olxapplication.service.PricingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({ChangeFeedService.class, AnnouncementService.class, PricingService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChangeFeedTest {
+    @Autowired
+    private ChangeFeedService changeFeedService;
+    @Autowired
+    private AnnouncementService announcementService;
+    @Autowired
+    private PricingService pricingService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private AnnouncementTombstoneRepository tombstoneRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private User seller;
+    private Category category;
+
+    @BeforeEach
+    void setup() {
+        tombstoneRepository.deleteAllInBatch();
+        announcementRepository.deleteAllInBatch();
+        seller = userRepository.save(User.builder().firstName("Seller").lastName("Test").email("seller@test.com")
+                .password("Password1!").role("user").build());
+        category = categoryRepository.save(Category.builder().categoryName("Books").build());
+    }
+
+    @Test
+    void replayingTheFeedInPagesRebuildsTheCurrentState() {
+        for (int i = 0; i < 5; i++) {
+            announcementRepository.save(Announcement.builder().title("Book").description("A good book to read").price(20.0)
+                    .discount(0.0).newPrice(20.0).date(LocalDateTime.now()).imageURL("http://images/book.png")
+                    .user(seller).category(category).build());
+        }
+        changeFeedService.assignMissingVersions();
+        AnnouncementChangesDTO snapshot = changeFeedService.findChanges(0L, null, 100);
+        assertThat(snapshot.getChanges()).hasSize(5).allMatch(change -> AnnouncementChangeDTO.UPSERT.equals(change.getType()));
+        assertThat(snapshot.getHasMore()).isFalse();
+
+        String updated = snapshot.getChanges().get(0).getAnnouncementId();
+        String deleted = snapshot.getChanges().get(1).getAnnouncementId();
+        announcementService.updateAnnouncementById(updated, announcement("Book renamed"));
+        announcementService.deleteAnnouncementsByIds(List.of(deleted));
+        pricingService.applyDiscountToCategory(category.getId(), 10.0);
+
+        Map<String, AnnouncementChangeDTO> state = new HashMap<>();
+        snapshot.getChanges().forEach(change -> state.put(change.getAnnouncementId(), change));
+        List<AnnouncementChangeDTO> delta = new ArrayList<>();
+        AnnouncementChangesDTO page = snapshot;
+        do {
+            page = changeFeedService.findChanges(page.getNextSince(), page.getNextAfterId(), 2);
+            assertThat(page.getChanges()).hasSizeLessThanOrEqualTo(2);
+            delta.addAll(page.getChanges());
+        } while (page.getHasMore());
+        for (AnnouncementChangeDTO change : delta) {
+            if (AnnouncementChangeDTO.DELETE.equals(change.getType())) {
+                state.remove(change.getAnnouncementId());
+            } else {
+                state.put(change.getAnnouncementId(), change);
+            }
+        }
+
+        assertThat(delta).extracting(AnnouncementChangeDTO::getVersion).isSorted();
+        assertThat(delta).filteredOn(change -> AnnouncementChangeDTO.DELETE.equals(change.getType()))
+                .extracting(AnnouncementChangeDTO::getAnnouncementId).containsExactly(deleted);
+        assertThat(state).hasSize(4).doesNotContainKey(deleted);
+        assertThat(state.get(updated).getAnnouncement().getTitle()).isEqualTo("Book renamed");
+        assertThat(state.values()).allMatch(change -> change.getAnnouncement().getDiscount() == 10.0);
+
+        AnnouncementChangesDTO caughtUp = changeFeedService.findChanges(page.getNextSince(), page.getNextAfterId(), 2);
+        assertThat(caughtUp.getChanges()).isEmpty();
+        assertThat(caughtUp.getNextSince()).isEqualTo(page.getNextSince());
+    }
+
+    private AnnouncementWebDTO announcement(String title) {
+        return AnnouncementWebDTO.builder().title(title).description("A good book to read").price(20.0).discount(0.0)
+                .user(seller.getId()).category(category.getId()).imageURL("http://images/book.png").build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.olxapplication.test;
+
+import com.olxapplication.dtos.ChatMessageDTO;
+import com.olxapplication.dtos.ChatPageDTO;
+import com.olxapplication.entity.Message;
+import com.olxapplication.entity.User;
+import com.olxapplication.repository.MessageRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.service.MessageService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(MessageService.class)
+public class ChatHistoryTest {
+    private static final int MESSAGES = 75;
+
+    @Autowired
+    private MessageService messageService;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User ana;
+    private User bogdan;
+    private final List<String> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        ana = user("Ana");
+        bogdan = user("Bogdan");
+        User carmen = user("Carmen");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < MESSAGES; i++) {
+            boolean fromAna = i % 3 != 0;
+            // every two messages share a date, so the id breaks the tie
+            Message message = messageRepository.save(Message.builder().msg("Message " + i)
+                    .sender(fromAna ? ana : bogdan).receiver(fromAna ? bogdan : ana)
+                    .date(start.plusMinutes(i / 2)).build());
+            sent.add(message.getId());
+            messageRepository.save(Message.builder().msg("Other chat " + i).sender(carmen).receiver(ana)
+                    .date(start.plusMinutes(i)).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void scrollingBackReturnsTheWholeHistoryOnceInOrder() {
+        ChatPageDTO page = messageService.findChat(ana.getId(), bogdan.getId(), null, null, 30);
+        assertThat(page.getMessages()).hasSize(30);
+        assertThat(page.getHasOlder()).isTrue();
+        assertThat(page.getMessages().get(0).getDate()).isBeforeOrEqualTo(page.getMessages().get(29).getDate());
+
+        List<ChatMessageDTO> history = new ArrayList<>(page.getMessages());
+        while (page.getHasOlder()) {
+            page = messageService.findChat(ana.getId(), bogdan.getId(), page.getBeforeDate(), page.getBeforeId(), 30);
+            history.addAll(0, page.getMessages());
+        }
+
+        assertThat(history).hasSize(MESSAGES);
+        assertThat(history).allMatch(message -> message.getMsg().startsWith("Message "));
+        assertThat(history).extracting(ChatMessageDTO::getId).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(sent);
+        for (int i = 1; i < history.size(); i++) {
+            ChatMessageDTO previous = history.get(i - 1);
+            ChatMessageDTO current = history.get(i);
+            assertThat(previous.getDate().isBefore(current.getDate())
+                    || (previous.getDate().equals(current.getDate()) && previous.getId().compareTo(current.getId()) < 0)).isTrue();
+        }
+        assertThat(history).allMatch(message -> message.getSenderName()
+                .equals(message.getSenderId().equals(ana.getId()) ? "Ana Test" : "Bogdan Test"));
+    }
+
+    @Test
+    void olderWindowCostsOneQuery() {
+        ChatPageDTO latest = messageService.findChat(ana.getId(), bogdan.getId(), null, null, 10);
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ChatPageDTO older = messageService.findChat(bogdan.getId(), ana.getId(), latest.getBeforeDate(), latest.getBeforeId(), 10);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(older.getMessages()).hasSize(10);
+        assertThat(older.getMessages().get(9).getDate()).isBeforeOrEqualTo(latest.getMessages().get(0).getDate());
+    }
+
+    private User user(String name) {
+        return userRepository.save(User.builder().firstName(name).lastName("Test").email(name.toLowerCase() + "@test.com")
+                .password("Password1!").role("user").build());
+    }
+}
@@ -0,0 +1,145 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.dtos.ConversationPageDTO;
+import com.olxapplication.dtos.MessageWebDTO;
+import com.olxapplication.entity.Message;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.projections.ConversationView;
+import com.olxapplication.repository.ConversationRepository;
+import com.olxapplication.repository.MessageRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.MessageService;
+import com.olxapplication.service.UserService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({MessageService.class, UserService.class, AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+public class ConversationTest {
+    @Autowired
+    private MessageService messageService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MessageRepository messageRepository;
+    @Autowired
+    private ConversationRepository conversationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User ana;
+    private User bogdan;
+    private User carmen;
+
+    @BeforeEach
+    void setup() {
+        ana = user("Ana");
+        bogdan = user("Bogdan");
+        carmen = user("Carmen");
+    }
+
+    @Test
+    void inboxListsConversationsByLatestActivityWithUnreadCounts() {
+        send(bogdan, ana, "Is the bike still available?");
+        send(carmen, ana, "Hello");
+        send(carmen, ana, "Can you lower the price?");
+        send(ana, bogdan, "Yes, it is");
+
+        ConversationPageDTO inbox = messageService.findConversations(ana.getId(), 0, 10);
+        assertThat(inbox.getConversations()).extracting(ConversationView::firstName).containsExactly("Bogdan", "Carmen");
+        ConversationView withBogdan = inbox.getConversations().get(0);
+        assertThat(withBogdan.lastMessagePreview()).isEqualTo("Yes, it is");
+        assertThat(withBogdan.lastSenderId()).isEqualTo(ana.getId());
+        assertThat(withBogdan.unreadCount()).isZero();
+        assertThat(inbox.getConversations().get(1).unreadCount()).isEqualTo(2);
+
+        ConversationPageDTO bogdanInbox = messageService.findConversations(bogdan.getId(), null, null);
+        assertThat(bogdanInbox.getConversations()).singleElement()
+                .satisfies(conversation -> assertThat(conversation.unreadCount()).isEqualTo(1));
+
+        messageService.findChat(ana.getId(), carmen.getId(), null, null, null);
+        assertThat(messageService.findConversations(ana.getId(), 0, 10).getConversations().get(1).unreadCount()).isZero();
+    }
+
+    @Test
+    void inboxPageCostsOneQueryWhateverTheNumberOfMessages() {
+        for (int i = 0; i < 30; i++) {
+            send(i % 2 == 0 ? bogdan : carmen, ana, "Message " + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ConversationPageDTO first = messageService.findConversations(ana.getId(), 0, 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(first.getConversations()).extracting(ConversationView::firstName).containsExactly("Carmen");
+        assertThat(first.getHasNext()).isTrue();
+        assertThat(messageService.findConversations(ana.getId(), 1, 1).getHasNext()).isFalse();
+    }
+
+    @Test
+    void backfillBuildsTheConversationsOfExistingMessages() {
+        LocalDateTime now = LocalDateTime.now();
+        messageRepository.save(Message.builder().msg("First").sender(bogdan).receiver(ana).date(now.minusHours(2)).build());
+        messageRepository.save(Message.builder().msg("x".repeat(200)).sender(ana).receiver(bogdan).date(now.minusHours(1)).build());
+        messageRepository.save(Message.builder().msg("Hi").sender(carmen).receiver(bogdan).date(now).build());
+
+        messageService.backfillConversations();
+
+        assertThat(conversationRepository.count()).isEqualTo(4);
+        ConversationView anaWithBogdan = messageService.findConversations(ana.getId(), 0, 10).getConversations().get(0);
+        assertThat(anaWithBogdan.lastMessagePreview()).hasSize(100).endsWith("…");
+        assertThat(messageService.findConversations(bogdan.getId(), 0, 10).getConversations())
+                .extracting(ConversationView::firstName).containsExactly("Carmen", "Ana");
+
+        messageService.backfillConversations();
+        assertThat(conversationRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void deletingAUserDeletesTheConversationsTheyTakePartIn() {
+        send(bogdan, ana, "Is the bike still available?");
+        send(ana, carmen, "Hello");
+        send(carmen, bogdan, "Hi");
+        entityManager.flush();
+        entityManager.clear();
+
+        userService.deleteUserById(ana.getId());
+        entityManager.flush();
+
+        assertThat(conversationRepository.count()).isEqualTo(2);
+        assertThat(messageService.findConversations(bogdan.getId(), 0, 10).getConversations())
+                .extracting(ConversationView::firstName).containsExactly("Carmen");
+    }
+
+    private void send(User sender, User receiver, String text) {
+        messageService.insert(MessageWebDTO.builder().sender(sender.getId()).receiver(receiver.getId()).msg(text).build());
+    }
+
+    private User user(String name) {
+        return userRepository.save(User.builder().firstName(name).lastName("Test").email(name.toLowerCase() + "@test.com")
+                .password("Password1!").role("user").build());
+    }
+}
@@ -0,0 +1,126 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.DelayedRetryMessageRecoverer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.ImmediateRequeueAmqpException;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class DelayedRetryMessageRecovererTest {
+    private static final String QUEUE = "reports";
+
+    private final RabbitOperations rabbitOperations = mock(RabbitOperations.class);
+    private final DelayedRetryMessageRecoverer recoverer = new DelayedRetryMessageRecoverer(rabbitOperations, 1000, 5, 4, 100);
+
+    @BeforeEach
+    void confirmEveryMove() {
+        confirmWith(true);
+    }
+
+    @Test
+    void failedMessageBacksOffExponentiallyThenIsDeadLettered() {
+        assertThat(recoverer.getDelays()).containsExactly(1000, 5000, 25000);
+
+        Message message = message();
+        for (int attempt = 0; attempt < 4; attempt++) {
+            recoverer.recover(message, new ListenerExecutionFailedException("failed", new IllegalStateException("disk full"), message));
+        }
+
+        ArgumentCaptor<String> targets = ArgumentCaptor.forClass(String.class);
+        verify(rabbitOperations, times(4)).send(eq(""), targets.capture(), eq(message), any(CorrelationData.class));
+        assertThat(targets.getAllValues()).containsExactly("reports.retry.1000", "reports.retry.5000", "reports.retry.25000", "reports.dlq");
+        assertThat(message.getMessageProperties().<Integer>getHeader(DelayedRetryMessageRecoverer.ATTEMPT_HEADER)).isEqualTo(4);
+        assertThat(message.getMessageProperties().<String>getHeader(DelayedRetryMessageRecoverer.ORIGINAL_QUEUE_HEADER)).isEqualTo(QUEUE);
+        assertThat(message.getMessageProperties().<String>getHeader(DelayedRetryMessageRecoverer.EXCEPTION_HEADER))
+                .isEqualTo("java.lang.IllegalStateException: disk full");
+    }
+
+    @Test
+    void messageThatCanNeverSucceedIsDeadLetteredAtOnce() {
+        Message message = message();
+        recoverer.recover(message, new ListenerExecutionFailedException("failed",
+                new AmqpRejectAndDontRequeueException("Malformed report request"), message));
+
+        verify(rabbitOperations).send(eq(""), eq("reports.dlq"), eq(message), any(CorrelationData.class));
+    }
+
+    @Test
+    void messageIsRequeuedWhenItCannotBeMoved() {
+        doThrow(new AmqpConnectException(new RuntimeException("broker down")))
+                .when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        assertThatThrownBy(() -> recoverer.recover(message(), new IllegalStateException("failed")))
+                .isInstanceOf(ImmediateRequeueAmqpException.class);
+    }
+
+    @Test
+    void messageIsRequeuedWhenTheMoveIsNacked() {
+        confirmWith(false);
+
+        assertThatThrownBy(() -> recoverer.recover(message(), new IllegalStateException("failed")))
+                .isInstanceOf(ImmediateRequeueAmqpException.class)
+                .hasMessageContaining("nacked");
+    }
+
+    @Test
+    void messageIsRequeuedWhenTheMoveIsNotConfirmedInTime() {
+        doNothing().when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        assertThatThrownBy(() -> recoverer.recover(message(), new IllegalStateException("failed")))
+                .isInstanceOf(ImmediateRequeueAmqpException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void retryQueuesExpireBackIntoTheOriginalQueue() {
+        Declarables topology = recoverer.topology(QUEUE);
+        List<Queue> queues = topology.getDeclarablesByType(Queue.class);
+
+        assertThat(queues.stream().map(Queue::getName).collect(Collectors.toList()))
+                .containsExactly("reports.retry.1000", "reports.retry.5000", "reports.retry.25000", "reports.dlq");
+        Queue first = queues.get(0);
+        assertThat(first.getArguments()).containsEntry("x-message-ttl", 1000)
+                .containsEntry("x-dead-letter-exchange", "")
+                .containsEntry("x-dead-letter-routing-key", QUEUE);
+        assertThat(queues.get(3).getArguments()).isEmpty();
+    }
+
+    private void confirmWith(boolean ack) {
+        doAnswer(invocation -> {
+            invocation.<CorrelationData>getArgument(3).getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitOperations).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private static Message message() {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(QUEUE);
+        properties.setMessageId("report-1");
+        return new Message("{\"format\":\"pdf\"}".getBytes(), properties);
+    }
+}
@@ -0,0 +1,128 @@
+package com.olxapplication.test;
+
+import com.olxapplication.constants.FavouriteMessages;
+import com.olxapplication.dtos.AnnouncementDetailsDTO;
+import com.olxapplication.dtos.FavouritePageDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.FavouriteRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.service.FavouriteService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({FavouriteService.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FavouriteBulkTest {
+    private static final int ANNOUNCES = 300;
+
+    @Autowired
+    private FavouriteService favouriteService;
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User buyer;
+    private List<String> ids;
+
+    @BeforeEach
+    void setup() {
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        Category category = categoryRepository.save(Category.builder().categoryName("Tools").build());
+        User seller = userRepository.save(user("Seller"));
+        buyer = userRepository.save(user("Buyer"));
+        List<Announcement> announcements = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ANNOUNCES; i++) {
+            announcements.add(announcement("Hammer " + i, 1.5, seller, category, now.minusMinutes(i)));
+        }
+        ids = announcementRepository.saveAll(announcements).stream().map(Announcement::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void bulkAddSkipsUnknownAndAlreadyAddedAnnouncements() {
+        favouriteService.insertAnnouncement(buyer.getId(), ids.get(0));
+        List<String> selected = new ArrayList<>(ids.subList(0, 10));
+        selected.add(ids.get(1));
+        selected.add("missing");
+
+        assertThat(favouriteService.insertAnnouncements(buyer.getId(), selected)).isEqualTo(FavouriteMessages.FAVOURITES_ADDED + 9);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from favourite_announcement", Integer.class)).isEqualTo(10);
+        assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId())).contains(1500L);
+    }
+
+    @Test
+    void bulkRemoveSubtractsOnlyTheHeldAnnouncements() {
+        favouriteService.insertAnnouncements(buyer.getId(), ids.subList(0, 10));
+
+        assertThat(favouriteService.deleteAnnouncements(buyer.getId(), List.of(ids.get(0), ids.get(1), ids.get(20))))
+                .isEqualTo(FavouriteMessages.FAVOURITES_REMOVED + 2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from favourite_announcement", Integer.class)).isEqualTo(8);
+        assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId())).contains(1200L);
+    }
+
+    @Test
+    void bulkRequestsMustSelectBetweenOneAndTheMaximum() {
+        assertThat(favouriteService.insertAnnouncements(buyer.getId(), Collections.emptyList())).endsWith(FavouriteMessages.NO_ANNOUNCEMENTS_SELECTED);
+        List<String> tooMany = new ArrayList<>();
+        for (int i = 0; i <= FavouriteService.MAX_BULK_SIZE; i++) {
+            tooMany.add("id" + i);
+        }
+        assertThat(favouriteService.deleteAnnouncements(buyer.getId(), tooMany)).startsWith(FavouriteMessages.TOO_MANY_ANNOUNCEMENTS);
+    }
+
+    @Test
+    void pagesCostTheSameStatementsWhateverTheListSize() {
+        favouriteService.insertAnnouncements(buyer.getId(), ids);
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        FavouritePageDTO first = favouriteService.findFavouritePage(buyer.getId(), 0, 20);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(first.getAnnounces()).extracting(AnnouncementDetailsDTO::getId).containsExactlyElementsOf(ids.subList(0, 20));
+        assertThat(first.getHasNext()).isTrue();
+        assertThat(first.getTotal()).isEqualTo(450.0);
+
+        FavouritePageDTO last = favouriteService.findFavouritePage(buyer.getId(), ANNOUNCES / 20 - 1, 20);
+        assertThat(last.getAnnounces()).hasSize(20);
+        assertThat(last.getHasNext()).isFalse();
+    }
+}
@@ -0,0 +1,160 @@
+package com.olxapplication.test;
+
+import com.olxapplication.constants.FavouriteMessages;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.FavouriteRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.service.FavouriteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({FavouriteService.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FavouriteConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 25;
+    private static final int ANNOUNCES = 12;
+
+    @Autowired
+    private FavouriteService favouriteService;
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User seller;
+    private List<String> ids;
+
+    @BeforeEach
+    void setup() {
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        Category category = categoryRepository.save(Category.builder().categoryName("Tools").build());
+        seller = userRepository.save(user("Seller"));
+        List<Announcement> announcements = new ArrayList<>();
+        for (int i = 0; i < ANNOUNCES; i++) {
+            announcements.add(announcement("Tool " + i, 1.01 + i, seller, category));
+        }
+        ids = announcementRepository.saveAll(announcements).stream().map(Announcement::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void concurrentChangesOfOneListLoseNoUpdate() throws Exception {
+        User buyer = userRepository.save(user("Buyer"));
+        Map<String, AtomicInteger> balance = new ConcurrentHashMap<>();
+        AtomicInteger changes = new AtomicInteger();
+
+        run(thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < OPERATIONS; i++) {
+                String id = ids.get(random.nextInt(ANNOUNCES));
+                boolean add = random.nextBoolean();
+                String msg = add ? favouriteService.insertAnnouncement(buyer.getId(), id) : favouriteService.deleteAnnouncement(buyer.getId(), id);
+                if (msg.equals(FavouriteMessages.FAVOURITE_ADDED_SUCCESSFULLY) || msg.equals(FavouriteMessages.FAVOURITE_REMOVED_SUCCESSFULLY)) {
+                    balance.computeIfAbsent(id, key -> new AtomicInteger()).addAndGet(add ? 1 : -1);
+                    changes.incrementAndGet();
+                }
+            }
+        });
+
+        String favouriteId = favouriteRepository.findRefByUserId(buyer.getId()).orElseThrow().id();
+        for (String id : ids) {
+            int rows = jdbcTemplate.queryForObject("select count(*) from favourite_announcement where favourite_id = ? and announcement_id = ?",
+                    Integer.class, favouriteId, id);
+            assertThat(rows).isLessThanOrEqualTo(1);
+            assertThat(balance.getOrDefault(id, new AtomicInteger()).get()).isEqualTo(rows);
+        }
+        assertThat(changes.get()).isPositive();
+        assertThat(favouriteRepository.findRefByUserId(buyer.getId()).orElseThrow().version()).isEqualTo(changes.get());
+        assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId()).orElseThrow()).isEqualTo(heldTotalMinor(favouriteId));
+    }
+
+    @Test
+    void changesOfDifferentListsNeverConflict() throws Exception {
+        List<User> buyers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            buyers.add(userRepository.save(user("Buyer" + i)));
+        }
+        AtomicInteger failed = new AtomicInteger();
+
+        run(thread -> {
+            String buyerId = buyers.get(thread).getId();
+            for (String id : ids) {
+                if (!favouriteService.insertAnnouncement(buyerId, id).equals(FavouriteMessages.FAVOURITE_ADDED_SUCCESSFULLY)) {
+                    failed.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(failed.get()).isZero();
+        for (User buyer : buyers) {
+            assertThat(favouriteRepository.findRefByUserId(buyer.getId()).orElseThrow().version()).isEqualTo(ANNOUNCES);
+            assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId())).contains(heldTotalMinor(favouriteRepository.findRefByUserId(buyer.getId()).orElseThrow().id()));
+        }
+    }
+
+    private void run(ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private long heldTotalMinor(String favouriteId) {
+        return jdbcTemplate.queryForObject("select coalesce(sum(cast(cast(a.new_price as numeric(19, 2)) * 100 as bigint)), 0) "
+                + "from favourite_announcement fa join announces_table a on a.id = fa.announcement_id where fa.favourite_id = ?", Long.class, favouriteId);
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
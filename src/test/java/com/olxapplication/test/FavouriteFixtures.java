@@ -0,0 +1,54 @@
+package com.olxapplication.test;
+
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.Favourite;
+import com.olxapplication.entity.User;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+/**
+ * Test data shared by the tests of the favourite lists: users with an empty favourite list, priced announcements and
+ * the cleanup of the tables they fill, for the tests that commit their data instead of rolling it back.
+ */
+final class FavouriteFixtures {
+
+    private FavouriteFixtures() {
+    }
+
+    /**
+     * Deletes the favourite lists, the announcements and the users, join table first.
+     */
+    static void clear(JdbcTemplate jdbcTemplate, AnnouncementRepository announcementRepository, UserRepository userRepository) {
+        jdbcTemplate.update("delete from favourite_announcement");
+        announcementRepository.deleteAllInBatch();
+        userRepository.deleteAll();
+    }
+
+    /**
+     * @return a new user with an empty favourite list.
+     */
+    static User user(String firstName) {
+        return User.builder().firstName(firstName).lastName("Test").email(firstName + "@test.com").password("Password1!")
+                .role("user").favouriteList(Favourite.builder().favouriteAnnouncements(new ArrayList<>()).build()).build();
+    }
+
+    /**
+     * @return a new announcement without discount, posted now.
+     */
+    static Announcement announcement(String title, double price, User seller, Category category) {
+        return announcement(title, price, seller, category, LocalDateTime.now());
+    }
+
+    /**
+     * @return a new announcement without discount, posted at the specified date.
+     */
+    static Announcement announcement(String title, double price, User seller, Category category, LocalDateTime date) {
+        return Announcement.builder().title(title).description("A good " + title).price(price).discount(0.0).newPrice(price)
+                .date(date).imageURL("http://images/item.png").user(seller).category(category).build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.dtos.AnnouncementWebDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.DiscountCampaignRepository;
+import com.olxapplication.repository.FavouriteRepository;
+import com.olxapplication.repository.RepricedAnnouncementRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.FavouriteService;
+import com.olxapplication.service.PricingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({PricingService.class, AnnouncementService.class, FavouriteService.class, AnnouncementSearchIndex.class,
+        ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FavouriteTotalsPropagatorTest {
+    @Autowired
+    private FavouriteTotalsPropagator propagator;
+    @Autowired
+    private PricingService pricingService;
+    @Autowired
+    private AnnouncementService announcementService;
+    @Autowired
+    private FavouriteService favouriteService;
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private DiscountCampaignRepository campaignRepository;
+    @Autowired
+    private RepricedAnnouncementRepository repricedRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User seller;
+    private User phoneBuyer;
+    private User bookBuyer;
+    private Category phones;
+    private Category books;
+    private Announcement phone;
+    private Announcement book;
+
+    @BeforeEach
+    void setup() {
+        propagator.flush();
+        campaignRepository.deleteAll();
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        phones = categoryRepository.save(Category.builder().categoryName("Phones").build());
+        books = categoryRepository.save(Category.builder().categoryName("Books").build());
+        seller = userRepository.save(user("Seller"));
+        phoneBuyer = userRepository.save(user("PhoneBuyer"));
+        bookBuyer = userRepository.save(user("BookBuyer"));
+        phone = announcementRepository.save(announcement("Phone", 200.0, seller, phones));
+        announcementRepository.save(announcement("Charger", 20.0, seller, phones));
+        book = announcementRepository.save(announcement("Book", 30.0, seller, books));
+        favouriteService.insertAnnouncement(phoneBuyer.getId(), phone.getId());
+        favouriteService.insertAnnouncement(phoneBuyer.getId(), book.getId());
+        favouriteService.insertAnnouncement(bookBuyer.getId(), book.getId());
+    }
+
+    @Test
+    void categoryDiscountUpdatesOnlyTheListsHoldingItsAnnouncements() {
+        pricingService.applyDiscountToCategory(phones.getId(), 25.0);
+
+        assertThat(propagator.pendingCount()).isEqualTo(1);
+        assertThat(total(phoneBuyer)).isEqualTo(23000L);
+
+        assertThat(propagator.flush()).isEqualTo(1);
+        assertThat(propagator.pendingCount()).isZero();
+        assertThat(total(phoneBuyer)).isEqualTo(18000L);
+        assertThat(total(bookBuyer)).isEqualTo(3000L);
+    }
+
+    @Test
+    void pendingPriceChangesSurviveARestart() {
+        pricingService.applyDiscountToCategory(phones.getId(), 25.0);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from repriced_announcements_table", Integer.class)).isEqualTo(1);
+
+        FavouriteTotalsPropagator restarted = new FavouriteTotalsPropagator(favouriteRepository, repricedRepository, transactionTemplate);
+        assertThat(restarted.pendingCount()).isEqualTo(1);
+        assertThat(restarted.flush()).isEqualTo(1);
+
+        assertThat(total(phoneBuyer)).isEqualTo(18000L);
+        assertThat(propagator.pendingCount()).isZero();
+    }
+
+    @Test
+    void announcementUpdateIsPropagatedOnlyWhenThePriceChanges() {
+        announcementService.updateAnnouncementById(book.getId(), update("Book", 30.0));
+        assertThat(propagator.pendingCount()).isZero();
+
+        announcementService.updateAnnouncementById(book.getId(), update("Book", 40.0));
+        announcementService.updateAnnouncementById(book.getId(), update("Book", 50.0));
+        assertThat(propagator.pendingCount()).isEqualTo(1);
+
+        assertThat(propagator.flush()).isEqualTo(2);
+        assertThat(total(phoneBuyer)).isEqualTo(25000L);
+        assertThat(total(bookBuyer)).isEqualTo(5000L);
+    }
+
+    @Test
+    void listsChangedBeforeTheFlushStayExact() {
+        pricingService.applyDiscountToSeller(seller.getId(), 50.0);
+        favouriteService.deleteAnnouncement(phoneBuyer.getId(), phone.getId());
+        favouriteService.insertAnnouncement(bookBuyer.getId(), phone.getId());
+
+        propagator.flush();
+
+        assertThat(total(phoneBuyer)).isEqualTo(1500L);
+        assertThat(total(bookBuyer)).isEqualTo(11500L);
+    }
+
+    @Test
+    void removingARepricedAnnouncementBeforeTheFlushLeavesNoDrift() {
+        announcementService.updateAnnouncementById(phone.getId(), update("Phone", 100.0));
+        favouriteService.deleteAnnouncement(phoneBuyer.getId(), phone.getId());
+        assertThat(total(phoneBuyer)).isEqualTo(3000L);
+
+        favouriteService.insertAnnouncement(bookBuyer.getId(), phone.getId());
+        announcementService.updateAnnouncementById(phone.getId(), update("Phone", 150.0));
+        favouriteService.deleteAnnouncements(bookBuyer.getId(), List.of(phone.getId()));
+        assertThat(total(bookBuyer)).isEqualTo(3000L);
+
+        favouriteService.insertAnnouncement(phoneBuyer.getId(), phone.getId());
+        announcementService.updateAnnouncementById(phone.getId(), update("Phone", 120.0));
+        announcementService.deleteAnnouncementById(phone.getId());
+        assertThat(total(phoneBuyer)).isEqualTo(3000L);
+
+        propagator.flush();
+        assertThat(total(phoneBuyer)).isEqualTo(3000L);
+        assertThat(total(bookBuyer)).isEqualTo(3000L);
+    }
+
+    private long total(User user) {
+        return favouriteRepository.findTotalMinorByUserId(user.getId()).orElseThrow();
+    }
+
+    private AnnouncementWebDTO update(String title, double price) {
+        return AnnouncementWebDTO.builder().title(title).description("A good book to read").price(price).discount(0.0)
+                .user(seller.getId()).category(books.getId()).imageURL("http://images/book.png").build();
+    }
+}
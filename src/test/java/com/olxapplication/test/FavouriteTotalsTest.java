@@ -0,0 +1,113 @@
+package com.olxapplication.test;
+
+import com.olxapplication.constants.FavouriteMessages;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.FavouriteRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.service.FavouriteService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({FavouriteService.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class FavouriteTotalsTest {
+    @Autowired
+    private FavouriteService favouriteService;
+    @Autowired
+    private FavouriteRepository favouriteRepository;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User buyer;
+    private Announcement hammer;
+    private Announcement saw;
+
+    @BeforeEach
+    void setup() {
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        Category category = categoryRepository.save(Category.builder().categoryName("Tools").build());
+        User seller = userRepository.save(user("Seller"));
+        buyer = userRepository.save(user("Buyer"));
+        hammer = announcementRepository.save(announcement("Hammer", 10.1, seller, category));
+        saw = announcementRepository.save(announcement("Saw", 0.2, seller, category));
+    }
+
+    @Test
+    void totalIsAdjustedByDeltaWithoutRoundingDrift() {
+        assertThat(favouriteService.insertAnnouncement(buyer.getId(), hammer.getId())).isEqualTo(FavouriteMessages.FAVOURITE_ADDED_SUCCESSFULLY);
+        assertThat(favouriteService.insertAnnouncement(buyer.getId(), saw.getId())).isEqualTo(FavouriteMessages.FAVOURITE_ADDED_SUCCESSFULLY);
+        assertThat(favouriteService.findTotal(buyer.getId())).isEqualTo(10.3);
+
+        assertThat(favouriteService.deleteAnnouncement(buyer.getId(), hammer.getId())).isEqualTo(FavouriteMessages.FAVOURITE_REMOVED_SUCCESSFULLY);
+        assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId())).contains(20L);
+        assertThat(favouriteService.findFavouritePage(buyer.getId(), null, null).getAnnounces()).extracting("id").containsExactly(saw.getId());
+    }
+
+    @Test
+    void duplicatesAndMissingAnnouncementsLeaveTheTotalUnchanged() {
+        favouriteService.insertAnnouncement(buyer.getId(), hammer.getId());
+
+        assertThat(favouriteService.insertAnnouncement(buyer.getId(), hammer.getId())).startsWith(FavouriteMessages.ANNOUNCEMNT_ALREADY_ADDED);
+        assertThat(favouriteService.insertAnnouncement(buyer.getId(), "missing")).startsWith(FavouriteMessages.FAVOURITE_NOT_ADDED);
+        assertThat(favouriteService.deleteAnnouncement(buyer.getId(), saw.getId())).isEqualTo(FavouriteMessages.FAVOURITE_NOT_REMOVED);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from favourite_announcement", Integer.class)).isEqualTo(1);
+        assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId())).contains(1010L);
+    }
+
+    @Test
+    void readingFavouritesDoesNotWrite() {
+        favouriteService.insertAnnouncement(buyer.getId(), hammer.getId());
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        favouriteService.findByUserId(buyer.getId());
+        favouriteService.findFavouritePage(buyer.getId(), null, null);
+        favouriteService.findTotal(buyer.getId());
+
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getEntityInsertCount()).isZero();
+    }
+
+    @Test
+    void backfillComputesMissingTotals() {
+        favouriteService.insertAnnouncement(buyer.getId(), hammer.getId());
+        favouriteService.insertAnnouncement(buyer.getId(), saw.getId());
+        jdbcTemplate.update("update favourites_table set total_minor = 0");
+
+        favouriteService.backfillTotals();
+
+        assertThat(favouriteRepository.findTotalMinorByUserId(buyer.getId())).contains(1030L);
+    }
+}
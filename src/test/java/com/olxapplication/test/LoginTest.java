@@ -0,0 +1,100 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.UserMessages;
+import com.olxapplication.entity.User;
+import com.olxapplication.exception.AccessDeniedException;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.exception.ResourceNotFoundException;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.UserService;
+import com.olxapplication.session.SessionPrincipal;
+import com.olxapplication.session.SessionPrincipalAdvice;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks that signing in resolves the session principal with a single query.
+ */
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({UserService.class, AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+public class LoginTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        user = userRepository.save(User.builder().firstName("Ana").lastName("Pop").email("ana.pop@test.com")
+                .password("Password1!").role("user").build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void authenticateResolvesThePrincipalWithOneQuery() {
+        SessionPrincipal principal = userService.authenticate("Ana.Pop@test.com", "Password1!");
+
+        assertThat(principal).isEqualTo(new SessionPrincipal(user.getId(), "user", "Ana Pop"));
+        assertThat(principal.isAdmin()).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void wrongCredentialsAreRejected() {
+        assertThatThrownBy(() -> userService.authenticate("nobody@test.com", "Password1!"))
+                .isInstanceOf(ResourceNotFoundException.class).hasMessage(UserMessages.INVALID_EMAIL);
+        assertThatThrownBy(() -> userService.authenticate("ana.pop@test.com", "wrong"))
+                .isInstanceOf(PatternNotMathcedException.class).hasMessage(UserMessages.INVALID_PASSWORD);
+        assertThat(userService.checkUser("ana.pop@test.com", "wrong")).isEqualTo(UserMessages.INVALID_PASSWORD);
+    }
+
+    @Test
+    void pagesOfAnotherUserAreDenied() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertThatThrownBy(() -> SessionPrincipalAdvice.requireUser(request, user.getId())).isInstanceOf(AccessDeniedException.class);
+
+        request.getSession().setAttribute(SessionPrincipal.SESSION_ATTRIBUTE, userService.authenticate("ana.pop@test.com", "Password1!"));
+
+        assertThat(SessionPrincipalAdvice.requireUser(request, user.getId())).isEqualTo(user.getId());
+        assertThatThrownBy(() -> SessionPrincipalAdvice.requireUser(request, "another-user")).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void adminPagesAreDeniedToUsers() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertThatThrownBy(() -> SessionPrincipalAdvice.requireAdmin(request))
+                .isInstanceOf(AccessDeniedException.class).hasMessage(UserMessages.ADMIN_REQUIRED);
+
+        request.getSession().setAttribute(SessionPrincipal.SESSION_ATTRIBUTE, userService.authenticate("ana.pop@test.com", "Password1!"));
+        assertThatThrownBy(() -> SessionPrincipalAdvice.requireAdmin(request)).isInstanceOf(AccessDeniedException.class);
+
+        request.getSession().setAttribute(SessionPrincipal.SESSION_ATTRIBUTE, new SessionPrincipal("admin-id", SessionPrincipal.ADMIN, "Admin"));
+        assertThat(SessionPrincipalAdvice.requireAdmin(request)).isEqualTo("admin-id");
+    }
+}
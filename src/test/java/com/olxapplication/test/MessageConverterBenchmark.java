@@ -0,0 +1,68 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.Jackson2CborMessageConverter;
+import com.olxapplication.config.RabbitMQConfig;
+import com.olxapplication.dtos.UserMailDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON and the CBOR encoding of the user mail events: encode and decode time per message, and the size of
+ * the body, printed once per content type.
+ * It is not run by the build; run its main method from the IDE, or org.openjdk.jmh.Main with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageConverterBenchmark {
+    @Param({MessageProperties.CONTENT_TYPE_JSON, Jackson2CborMessageConverter.CONTENT_TYPE_CBOR})
+    public String contentType;
+
+    private MessageConverter converter;
+    private UserMailDTO event;
+    private Message encoded;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        converter = RabbitMQConfig.createMessageConverter(contentType);
+        event = new UserMailDTO("3f1c2a9e-7b44-4d1e-9a51-0c2b8d6e5f10", "Ana", "Popescu", "ana.popescu@example.com",
+                "update", "");
+        encoded = converter.toMessage(event, new MessageProperties());
+        System.out.printf("%n%s: %d bytes per message%n", contentType, encoded.getBody().length);
+    }
+
+    @Benchmark
+    public Message encode() {
+        return converter.toMessage(event, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.fromMessage(encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageConverterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.Jackson2CborMessageConverter;
+import com.olxapplication.config.RabbitMQConfig;
+import com.olxapplication.dtos.UserMailDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MessageConverterTest {
+    private final MessageConverter jsonProducer = RabbitMQConfig.createMessageConverter(MessageProperties.CONTENT_TYPE_JSON);
+    private final MessageConverter cborProducer = RabbitMQConfig.createMessageConverter(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR);
+
+    @Test
+    void producersEncodeWithTheConfiguredContentType() {
+        Message json = jsonProducer.toMessage(event(), new MessageProperties());
+        Message cbor = cborProducer.toMessage(event(), new MessageProperties());
+
+        assertThat(json.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat(cbor.getMessageProperties().getContentType()).isEqualTo(Jackson2CborMessageConverter.CONTENT_TYPE_CBOR);
+        assertThat(cbor.getBody().length).isLessThan(json.getBody().length);
+    }
+
+    @Test
+    void consumersDecodeBothContentTypesDuringTheRollout() {
+        for (MessageConverter consumer : new MessageConverter[]{jsonProducer, cborProducer}) {
+            for (MessageConverter producer : new MessageConverter[]{jsonProducer, cborProducer}) {
+                UserMailDTO decoded = (UserMailDTO) consumer.fromMessage(producer.toMessage(event(), new MessageProperties()));
+                assertThat(decoded.getId()).isEqualTo("3f1c2a9e-7b44-4d1e-9a51-0c2b8d6e5f10");
+                assertThat(decoded.getEmail()).isEqualTo("ana.popescu@example.com");
+                assertThat(decoded.getAction()).isEqualTo("report");
+                assertThat(decoded.getFilePath()).isEqualTo("/srv/olx/Reports/Report_1.pdf");
+            }
+        }
+    }
+
+    @Test
+    void unsupportedContentTypeIsRefused() {
+        assertThatThrownBy(() -> RabbitMQConfig.createMessageConverter("application/xml"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static UserMailDTO event() {
+        return new UserMailDTO("3f1c2a9e-7b44-4d1e-9a51-0c2b8d6e5f10", "Ana", "Popescu", "ana.popescu@example.com",
+                "report", "/srv/olx/Reports/Report_1.pdf");
+    }
+}
@@ -0,0 +1,168 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.AsyncRabbitPublisher;
+import com.olxapplication.spool.MessageSpool;
+import com.olxapplication.spool.SpoolBatch;
+import com.olxapplication.spool.SpoolRelay;
+import com.olxapplication.spool.SpooledMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MessageSpoolTest {
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadInOrderAcrossSegments() throws IOException {
+        try (MessageSpool spool = new MessageSpool(directory, SEGMENT_SIZE, false)) {
+            for (int i = 0; i < 500; i++) {
+                spool.append(record(i));
+            }
+            assertThat(segmentFiles()).isGreaterThan(1);
+
+            List<String> read = drain(spool, 64);
+
+            assertThat(read).hasSize(500);
+            for (int i = 0; i < 500; i++) {
+                assertThat(read.get(i)).isEqualTo("message " + i);
+            }
+            assertThat(spool.backlogBytes()).isZero();
+            assertThat(segmentFiles()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void uncommittedRecordsAreReplayedAfterARestart() throws IOException {
+        try (MessageSpool spool = new MessageSpool(directory, SEGMENT_SIZE, true)) {
+            for (int i = 0; i < 300; i++) {
+                spool.append(record(i));
+            }
+            SpoolBatch handled = spool.read(spool.checkpoint(), 120);
+            spool.commit(handled.next());
+            spool.read(handled.next(), 50);
+        }
+
+        try (MessageSpool reopened = new MessageSpool(directory, SEGMENT_SIZE, false)) {
+            List<String> read = drain(reopened, 1000);
+            assertThat(read).hasSize(180);
+            assertThat(read.get(0)).isEqualTo("message 120");
+            assertThat(read.get(179)).isEqualTo("message 299");
+
+            reopened.append(record(300));
+            assertThat(drain(reopened, 10)).containsExactly("message 300");
+        }
+    }
+
+    @Test
+    void tornRecordAtTheTailIsDropped() throws IOException {
+        try (MessageSpool spool = new MessageSpool(directory, SEGMENT_SIZE, false)) {
+            spool.append(record(0));
+            spool.append(record(1));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow();
+        }
+        int secondRecord = 8 + record(0).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondRecord + 10);
+        }
+
+        try (MessageSpool reopened = new MessageSpool(directory, SEGMENT_SIZE, false)) {
+            assertThat(drain(reopened, 10)).containsExactly("message 0");
+            reopened.append(record(2));
+            assertThat(drain(reopened, 10)).containsExactly("message 2");
+        }
+    }
+
+    @Test
+    void amqpMessageSurvivesTheRoundTrip() {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setHeader("__TypeId__", "com.olxapplication.dtos.UserMailDTO");
+        Message message = new Message("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8), properties);
+
+        SpooledMessage decoded = SpooledMessage.decode(SpooledMessage.of("exchange", "key", message).encode());
+        Message restored = decoded.toMessage();
+
+        assertThat(decoded.exchange()).isEqualTo("exchange");
+        assertThat(decoded.routingKey()).isEqualTo("key");
+        assertThat(restored.getBody()).isEqualTo(message.getBody());
+        assertThat(restored.getMessageProperties().getContentType()).isEqualTo(MessageProperties.CONTENT_TYPE_JSON);
+        assertThat((String) restored.getMessageProperties().getHeader("__TypeId__")).isEqualTo("com.olxapplication.dtos.UserMailDTO");
+    }
+
+    @Test
+    void relaySkipsRecordsThatCanNotBeDecoded() throws Exception {
+        AsyncRabbitPublisher publisher = mock(AsyncRabbitPublisher.class);
+        when(publisher.publish(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        try (MessageSpool spool = new MessageSpool(directory, SEGMENT_SIZE, false)) {
+            Message message = new Message("{}".getBytes(StandardCharsets.UTF_8), new MessageProperties());
+            spool.append(SpooledMessage.of("exchange", "first", message).encode());
+            spool.append(record(0));
+            spool.append(SpooledMessage.of("exchange", "second", message).encode());
+            SpoolRelay relay = new SpoolRelay(spool, publisher, 10, 1000);
+            relay.start();
+            try {
+                long deadline = System.currentTimeMillis() + 5000;
+                while (spool.backlogBytes() > 0 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                spool.append(SpooledMessage.of("exchange", "third", message).encode());
+                verify(publisher, timeout(5000)).publish(eq("exchange"), eq("third"), any());
+            } finally {
+                relay.stop();
+            }
+
+            assertThat(spool.backlogBytes()).isZero();
+            verify(publisher).publish(eq("exchange"), eq("first"), any());
+            verify(publisher).publish(eq("exchange"), eq("second"), any());
+        }
+    }
+
+    private static byte[] record(int i) {
+        return ("message " + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> drain(MessageSpool spool, int batchSize) throws IOException {
+        List<String> read = new ArrayList<>();
+        SpoolBatch batch;
+        do {
+            batch = spool.read(spool.checkpoint(), batchSize);
+            batch.records().forEach(record -> read.add(new String(record, StandardCharsets.UTF_8)));
+            spool.commit(batch.next());
+        } while (!batch.isEmpty());
+        return read;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+}
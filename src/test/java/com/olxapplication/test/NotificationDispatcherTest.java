@@ -0,0 +1,152 @@
+package com.olxapplication.test;
+
+import com.olxapplication.dtos.NotificationRequestDto;
+import com.olxapplication.notification.CircuitBreaker;
+import com.olxapplication.notification.NotificationDispatcher;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the notification dispatcher against a local stub of the notification service.
+ */
+public class NotificationDispatcherTest {
+    private HttpServer server;
+    private NotificationDispatcher dispatcher;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger received = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/microservice/receiver", exchange -> {
+            calls.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            received.incrementAndGet();
+            respond(exchange);
+        });
+        server.createContext("/microservice/receiver/batch", exchange -> {
+            batchCalls.incrementAndGet();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            received.addAndGet(body.split("\"email\"").length - 1);
+            respond(exchange);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void dispatchDoesNotWaitForASlowService() throws InterruptedException {
+        delayMillis = 2000;
+        dispatcher = dispatcher(false, 1000, 100);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            assertThat(dispatcher.dispatch(notification(i))).isTrue();
+        }
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+
+        await(() -> dispatcher.getFailed() == 20, 10000);
+        assertThat(dispatcher.getSent()).isZero();
+    }
+
+    @Test
+    void queuedNotificationsArePostedInBatches() throws InterruptedException {
+        dispatcher = dispatcher(true, 5000, 5);
+        for (int i = 0; i < 200; i++) {
+            dispatcher.dispatch(notification(i));
+        }
+
+        await(() -> dispatcher.getSent() == 200, 10000);
+        assertThat(received.get()).isEqualTo(200);
+        assertThat(batchCalls.get()).isBetween(4, 40);
+        assertThat(calls.get()).isLessThan(200);
+    }
+
+    @Test
+    void circuitOpensAfterRepeatedFailures() throws InterruptedException {
+        status = 500;
+        dispatcher = dispatcher(false, 5000, 3);
+        for (int i = 0; i < 200; i++) {
+            dispatcher.dispatch(notification(i));
+        }
+
+        await(() -> dispatcher.getCircuitState() == CircuitBreaker.State.OPEN, 10000);
+        Thread.sleep(300);
+        int callsWhenOpen = calls.get();
+        Thread.sleep(300);
+        assertThat(calls.get()).isEqualTo(callsWhenOpen).isLessThan(200);
+        assertThat(dispatcher.getQueued()).isPositive();
+    }
+
+    @Test
+    void breakerLetsOneTrialThroughAfterTheCoolDown() {
+        AtomicLong now = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofSeconds(1), now::get);
+        breaker.recordFailure();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.recordFailure();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.recordSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void respond(com.sun.net.httpserver.HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "{\"status\":\"OK\",\"message\":\"sent\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private NotificationDispatcher dispatcher(boolean batching, long requestTimeoutMillis, int failureThreshold) {
+        String base = "http://localhost:" + server.getAddress().getPort() + "/microservice/receiver";
+        NotificationDispatcher created = new NotificationDispatcher(base, batching ? base + "/batch" : "", 1000, requestTimeoutMillis,
+                1000, 8, 50, 20, failureThreshold, 60000);
+        created.start();
+        return created;
+    }
+
+    private static NotificationRequestDto notification(int i) {
+        return new NotificationRequestDto("id" + i, "User " + i, "user" + i + "@test.com", "insert", "");
+    }
+
+    private static void await(java.util.function.BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
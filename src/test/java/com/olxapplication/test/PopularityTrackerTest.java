@@ -0,0 +1,155 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.UserMessages;
+import com.olxapplication.dtos.AnnouncementWebDTO;
+import com.olxapplication.dtos.PopularAnnouncementDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.FavouriteService;
+import com.olxapplication.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.olxapplication.test.FavouriteFixtures.announcement;
+import static com.olxapplication.test.FavouriteFixtures.clear;
+import static com.olxapplication.test.FavouriteFixtures.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({FavouriteService.class, UserService.class, AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class,
+        FavouriteTotalsPropagator.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PopularityTrackerTest {
+    @Autowired
+    private PopularityTracker popularityTracker;
+    @Autowired
+    private FavouriteService favouriteService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AnnouncementService announcementService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User seller;
+    private List<User> buyers;
+    private Category phones;
+    private Category books;
+    private Announcement phone;
+    private Announcement tablet;
+    private Announcement book;
+
+    @BeforeEach
+    void setup() {
+        clear(jdbcTemplate, announcementRepository, userRepository);
+        phones = categoryRepository.save(Category.builder().categoryName("Phones").build());
+        books = categoryRepository.save(Category.builder().categoryName("Books").build());
+        seller = userRepository.save(user("Seller"));
+        buyers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            buyers.add(userRepository.save(user("Buyer" + i)));
+        }
+        phone = announcementRepository.save(announcement("Phone", 10.0, seller, phones));
+        tablet = announcementRepository.save(announcement("Tablet", 10.0, seller, phones));
+        book = announcementRepository.save(announcement("Book", 10.0, seller, books));
+        popularityTracker.rebuild();
+
+        favourite(phone, 0, 1, 2);
+        favourite(book, 0, 1);
+        favourite(tablet, 2);
+    }
+
+    @Test
+    void rankingFollowsFavouritesAsTheyChange() {
+        assertThat(popularityTracker.top(null)).extracting(PopularAnnouncementDTO::getAnnouncementId, PopularAnnouncementDTO::getFavourites)
+                .containsExactly(tuple(phone.getId(), 3L), tuple(book.getId(), 2L), tuple(tablet.getId(), 1L));
+        assertThat(popularityTracker.top(phones.getId(), 1)).extracting(PopularAnnouncementDTO::getAnnouncementId).containsExactly(phone.getId());
+
+        favouriteService.deleteAnnouncement(buyers.get(0).getId(), phone.getId());
+        favouriteService.deleteAnnouncement(buyers.get(1).getId(), phone.getId());
+        favouriteService.deleteAnnouncement(buyers.get(2).getId(), tablet.getId());
+        favouriteService.insertAnnouncement(buyers.get(2).getId(), book.getId());
+
+        assertThat(popularityTracker.top(null)).extracting(PopularAnnouncementDTO::getAnnouncementId, PopularAnnouncementDTO::getFavourites)
+                .containsExactly(tuple(book.getId(), 3L), tuple(phone.getId(), 1L));
+    }
+
+    @Test
+    void deletedUsersNoLongerCountTowardsTheRanking() {
+        userService.deleteUserById(buyers.get(2).getId());
+
+        assertThat(popularityTracker.top(phones.getId(), null)).extracting(PopularAnnouncementDTO::getAnnouncementId, PopularAnnouncementDTO::getFavourites)
+                .containsExactly(tuple(phone.getId(), 2L));
+        List<PopularAnnouncementDTO> incremental = popularityTracker.top(PopularityTracker.MAX_LIMIT);
+        popularityTracker.rebuild();
+        assertThat(popularityTracker.top(PopularityTracker.MAX_LIMIT)).usingRecursiveFieldByFieldElementComparator().isEqualTo(incremental);
+    }
+
+    @Test
+    void deletedSellersTakeTheirFavouritedAnnouncementsWithThem() {
+        String msg = userService.deleteUserById(seller.getId());
+
+        assertThat(msg).isEqualTo(UserMessages.USER_DELETED_SUCCESSFULLY + seller.getId());
+        assertThat(userRepository.existsById(seller.getId())).isFalse();
+        assertThat(userRepository.count()).isEqualTo(buyers.size());
+        assertThat(announcementRepository.count()).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from favourite_announcement", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select sum(total_minor) from favourites_table", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from announcement_tombstones_table where announcement_id in (?, ?, ?)",
+                Integer.class, phone.getId(), tablet.getId(), book.getId())).isEqualTo(3);
+        assertThat(popularityTracker.top(PopularityTracker.MAX_LIMIT)).isEmpty();
+    }
+
+    @Test
+    void deletedAndMovedAnnouncementsLeaveTheirRankings() {
+        announcementService.deleteAnnouncementsByIds(List.of(phone.getId()));
+        announcementService.updateAnnouncementById(tablet.getId(), AnnouncementWebDTO.builder().title("Tablet").description("A good tablet")
+                .price(10.0).discount(0.0).user(seller.getId()).category(books.getId()).imageURL("http://images/item.png").build());
+
+        assertThat(popularityTracker.top(phones.getId(), null)).isEmpty();
+        assertThat(popularityTracker.top(books.getId(), null)).extracting(PopularAnnouncementDTO::getAnnouncementId)
+                .containsExactly(book.getId(), tablet.getId());
+    }
+
+    @Test
+    void rebuildMatchesTheIncrementalCounts() {
+        List<PopularAnnouncementDTO> incremental = popularityTracker.top(PopularityTracker.MAX_LIMIT);
+
+        popularityTracker.rebuild();
+
+        assertThat(popularityTracker.top(PopularityTracker.MAX_LIMIT)).usingRecursiveFieldByFieldElementComparator().isEqualTo(incremental);
+    }
+
+    private void favourite(Announcement announcement, int... buyerIndexes) {
+        for (int index : buyerIndexes) {
+            favouriteService.insertAnnouncement(buyers.get(index).getId(), announcement.getId());
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.AnnouncementMessages;
+import com.olxapplication.constants.PricingMessages;
+import com.olxapplication.dtos.DiscountCampaignDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.pricing.PriceCalculator;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.DiscountCampaignRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.PricingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({PricingService.class, AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PricingTest {
+    @Autowired
+    private PricingService pricingService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private DiscountCampaignRepository campaignRepository;
+
+    private Category category;
+    private User seller;
+
+    @BeforeEach
+    void setup() {
+        campaignRepository.deleteAll();
+        announcementRepository.deleteAllInBatch();
+        seller = userRepository.save(User.builder().firstName("Seller").lastName("Test").email("seller@test.com")
+                .password("Password1!").role("user").build());
+        category = categoryRepository.save(Category.builder().categoryName("Phones").build());
+        announcementRepository.saveAll(List.of(announcement(seller, 19.99), announcement(seller, 0.05), announcement(seller, 1234.5)));
+    }
+
+    @Test
+    void discountedPriceIsRoundedHalfUpToTheCent() {
+        assertThat(PriceCalculator.discountedPrice(19.99, 15)).isEqualTo(16.99);
+        assertThat(PriceCalculator.discountedPrice(0.05, 50)).isEqualTo(0.03);
+        assertThat(PriceCalculator.discountedPrice(1234.5, 12.5)).isEqualTo(1080.19);
+        assertThat(PriceCalculator.discountedPrice(100, 0)).isEqualTo(100.0);
+        assertThat(PriceCalculator.discountedPrice(100, 100)).isEqualTo(0.0);
+        assertThat(PriceCalculator.discountedMinor(1999, 1500)).isEqualTo(1699);
+    }
+
+    @Test
+    void bulkRepricingMatchesTheCalculator() {
+        for (double discount : new double[]{15, 50, 12.5, 0}) {
+            pricingService.applyDiscountToCategory(category.getId(), discount);
+            for (Announcement announcement : announcementRepository.findAll()) {
+                assertThat(announcement.getDiscount()).isEqualTo(discount);
+                assertThat(announcement.getNewPrice()).isEqualTo(PriceCalculator.discountedPrice(announcement.getPrice(), discount));
+            }
+        }
+    }
+
+    @Test
+    void campaignIsActivatedAndExpiredOnSchedule() {
+        pricingService.scheduleCampaign(DiscountCampaignDTO.builder().categoryId(category.getId()).discount(50.0)
+                .startsAt(LocalDateTime.now().minusMinutes(1)).endsAt(LocalDateTime.now().plusHours(1)).build());
+        pricingService.runDueCampaigns();
+        assertThat(announcementRepository.findAll()).allSatisfy(a -> {
+            assertThat(a.getDiscount()).isEqualTo(0.0);
+            assertThat(a.getCampaignDiscount()).isEqualTo(50.0);
+            assertThat(a.getNewPrice()).isEqualTo(PriceCalculator.discountedPrice(a.getPrice(), 50));
+        });
+
+        campaignRepository.findAll().forEach(campaign -> {
+            campaign.setEndsAt(LocalDateTime.now().minusSeconds(1));
+            campaignRepository.save(campaign);
+        });
+        pricingService.runDueCampaigns();
+        assertThat(announcementRepository.findAll()).allSatisfy(a -> {
+            assertThat(a.getCampaignDiscount()).isNull();
+            assertThat(a.getNewPrice()).isEqualTo(a.getPrice());
+        });
+        assertThat(pricingService.findCurrentCampaigns()).isEmpty();
+    }
+
+    @Test
+    void expiredCampaignsGiveBackTheOwnDiscountOfTheAnnouncement() {
+        Announcement own = announcement(seller, 100.0);
+        own.setDiscount(15.0);
+        own.setNewPrice(85.0);
+        own = announcementRepository.save(own);
+        String ownId = own.getId();
+
+        String category10 = campaign(DiscountCampaignDTO.builder().categoryId(category.getId()).discount(10.0));
+        pricingService.runDueCampaigns();
+        assertThat(announcementRepository.findById(ownId).get())
+                .extracting(Announcement::getDiscount, Announcement::getNewPrice).containsExactly(15.0, 85.0);
+
+        String seller30 = campaign(DiscountCampaignDTO.builder().userId(seller.getId()).discount(30.0));
+        pricingService.runDueCampaigns();
+        assertThat(announcementRepository.findById(ownId).get().getNewPrice()).isEqualTo(70.0);
+
+        pricingService.cancelCampaign(category10);
+        assertThat(announcementRepository.findById(ownId).get().getNewPrice()).isEqualTo(70.0);
+
+        pricingService.cancelCampaign(seller30);
+        assertThat(announcementRepository.findById(ownId).get())
+                .extracting(Announcement::getDiscount, Announcement::getCampaignDiscount, Announcement::getNewPrice)
+                .containsExactly(15.0, null, 85.0);
+        assertThat(announcementRepository.findAll()).filteredOn(a -> !a.getId().equals(ownId))
+                .allSatisfy(a -> assertThat(a.getNewPrice()).isEqualTo(a.getPrice()));
+    }
+
+    @Test
+    void campaignWithoutDiscountIsRejected() {
+        String msg = pricingService.scheduleCampaign(DiscountCampaignDTO.builder().categoryId(category.getId())
+                .startsAt(LocalDateTime.now()).endsAt(LocalDateTime.now().plusHours(1)).build());
+
+        assertThat(msg).isEqualTo(PricingMessages.CAMPAIGN_NOT_SCHEDULED + AnnouncementMessages.DISCOUNT_PATTERN_NOT_MATCHED);
+        assertThat(campaignRepository.count()).isZero();
+    }
+
+    private String campaign(DiscountCampaignDTO.DiscountCampaignDTOBuilder campaign) {
+        String msg = pricingService.scheduleCampaign(campaign.startsAt(LocalDateTime.now().minusMinutes(1)).endsAt(LocalDateTime.now().plusHours(1)).build());
+        return msg.substring(PricingMessages.CAMPAIGN_SCHEDULED_SUCCESSFULLY.length());
+    }
+
+    private Announcement announcement(User seller, double price) {
+        return Announcement.builder().title("Phone").description("A phone").price(price).discount(0.0).newPrice(price)
+                .date(LocalDateTime.now()).imageURL("http://images/phone.png").user(seller).category(category).build();
+    }
+}
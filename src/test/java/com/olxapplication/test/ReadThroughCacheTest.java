@@ -0,0 +1,93 @@
+package com.olxapplication.test;
+
+import com.olxapplication.cache.ReadThroughCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReadThroughCacheTest {
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> cache.get("a", key -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "value-" + key;
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value-a");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.get("a", key -> "reloaded")).isEqualTo("value-a");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndExpired() {
+        AtomicLong now = new AtomicLong();
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(2, Duration.ofSeconds(10), now::get);
+        cache.get("a", key -> "1");
+        cache.get("b", key -> "2");
+        cache.get("a", key -> "x");
+        cache.get("c", key -> "3");
+
+        assertThat(cache.get("a", key -> "reloaded")).isEqualTo("1");
+        assertThat(cache.get("b", key -> "reloaded")).isEqualTo("reloaded");
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertThat(cache.get("a", key -> "expired")).isEqualTo("expired");
+        assertThat(cache.getEvictions()).isEqualTo(3);
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationDuringLoadDoesNotCacheStaleValue() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        String loaded = cache.get("a", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.get("a", key -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1));
+        assertThatThrownBy(() -> cache.get("a", key -> {
+            throw new IllegalStateException("not found");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("a", key -> "found")).isEqualTo("found");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,130 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.EventBus;
+import com.olxapplication.config.ReportRequestListener;
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.dtos.UserMailDTO;
+import com.olxapplication.entity.Announcement;
+import com.olxapplication.entity.Category;
+import com.olxapplication.entity.User;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.repository.AnnouncementRepository;
+import com.olxapplication.repository.CategoryRepository;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.service.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(ReportService.class)
+public class ReportRequestTest {
+    @Autowired
+    private ReportService reportService;
+    @Autowired
+    private AnnouncementRepository announcementRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private User admin;
+
+    @BeforeEach
+    void setup() {
+        admin = userRepository.save(User.builder().firstName("Admin").lastName("Test").email("admin@test.com")
+                .password("Password1!").role("admin").build());
+        Category category = categoryRepository.save(Category.builder().categoryName("Books").build());
+        for (LocalDateTime date : List.of(LocalDateTime.of(2024, 1, 5, 10, 0), LocalDateTime.of(2024, 1, 31, 23, 59),
+                LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 3, 15, 12, 0))) {
+            announcementRepository.save(Announcement.builder().title("Book").description("A good book to read").price(20.0)
+                    .discount(0.0).newPrice(20.0).date(date).imageURL("http://images/book.png")
+                    .user(admin).category(category).build());
+        }
+    }
+
+    @Test
+    void reportCountsTheMonthsOfTheRequestedInterval() throws Exception {
+        File file = reportService.generateReport(request("txt", "2024-01", "2024-02"));
+        try {
+            List<String> lines = Files.readAllLines(file.toPath());
+            assertThat(file.getName()).endsWith(".txt");
+            assertThat(lines).containsExactly("Year-Month\tNumber of posted announces", "2024-01\t\t2", "2024-02\t\t1");
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    void openIntervalCountsEveryMonthIntoAFileOfItsOwn() throws Exception {
+        File first = reportService.generateReport(request("csv", null, null));
+        File second = reportService.generateReport(request("csv", "", ""));
+        try {
+            assertThat(first).isNotEqualTo(second);
+            assertThat(Files.readAllLines(first.toPath())).hasSize(4);
+        } finally {
+            Files.deleteIfExists(first.toPath());
+            Files.deleteIfExists(second.toPath());
+        }
+    }
+
+    @Test
+    void malformedRequestsAreRejected() {
+        assertThatThrownBy(() -> reportService.validate(request("doc", null, null))).isInstanceOf(PatternNotMathcedException.class);
+        assertThatThrownBy(() -> reportService.validate(request("pdf", "2024-13", null))).isInstanceOf(PatternNotMathcedException.class);
+        ReportRequestDTO traversal = request("pdf", null, null);
+        traversal.setRequestId("../../etc");
+        assertThatThrownBy(() -> reportService.validate(traversal)).isInstanceOf(PatternNotMathcedException.class);
+    }
+
+    @Test
+    void listenerEmailsTheReportAndRejectsMalformedRequestsForGood() throws Exception {
+        List<UserMailDTO> events = new ArrayList<>();
+        EventBus eventBus = new EventBus() {
+            @Override
+            public void publish(UserMailDTO event) {
+                events.add(event);
+            }
+
+            @Override
+            public void publish(ReportRequestDTO request) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        ReportRequestListener listener = new ReportRequestListener(reportService, userRepository, eventBus);
+
+        listener.onReportRequest(request("txt", "2024-03", "2024-03"));
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getEmail()).isEqualTo("admin@test.com");
+        assertThat(events.get(0).getAction()).isEqualTo("report");
+        Files.deleteIfExists(new File(events.get(0).getFilePath()).toPath());
+
+        assertThatThrownBy(() -> listener.onReportRequest(request("doc", null, null)))
+                .isInstanceOf(AmqpRejectAndDontRequeueException.class);
+        ReportRequestDTO unknownRequester = request("txt", null, null);
+        unknownRequester.setRequesterId("missing");
+        assertThatThrownBy(() -> listener.onReportRequest(unknownRequester))
+                .isInstanceOf(AmqpRejectAndDontRequeueException.class);
+        assertThat(events).hasSize(1);
+    }
+
+    private ReportRequestDTO request(String format, String fromMonth, String toMonth) {
+        return ReportRequestDTO.builder().requestId(UUID.randomUUID().toString()).format(format)
+                .fromMonth(fromMonth).toMonth(toMonth).requesterId(admin.getId()).build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.olxapplication.test;
+
+import com.olxapplication.config.EventHandler;
+import com.olxapplication.config.MailEventForwarder;
+import com.olxapplication.config.RabbitMQSender;
+import com.olxapplication.config.RingBufferEventBus;
+import com.olxapplication.dtos.ReportRequestDTO;
+import com.olxapplication.dtos.UserMailDTO;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class RingBufferEventBusTest {
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 25000;
+
+    @Test
+    void everyHandlerReceivesEveryEventInPublishingOrder() throws Exception {
+        RecordingHandler first = new RecordingHandler(0);
+        RecordingHandler slow = new RecordingHandler(1000);
+        RingBufferEventBus bus = new RingBufferEventBus(256, List.of(first, slow));
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            String producer = "producer-" + p;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    bus.publish(new UserMailDTO(producer, null, null, null, "insert", String.valueOf(i)));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        bus.stop();
+
+        for (RecordingHandler handler : List.of(first, slow)) {
+            assertThat(handler.events).hasSize(PRODUCERS * EVENTS_PER_PRODUCER);
+            Map<String, Integer> lastByProducer = new HashMap<>();
+            long previousSequence = -1;
+            for (int i = 0; i < handler.events.size(); i++) {
+                UserMailDTO event = handler.events.get(i);
+                int index = Integer.parseInt(event.getFilePath());
+                assertThat(index).isEqualTo(lastByProducer.getOrDefault(event.getId(), -1) + 1);
+                lastByProducer.put(event.getId(), index);
+                assertThat(handler.sequences.get(i)).isEqualTo(previousSequence + 1);
+                previousSequence = handler.sequences.get(i);
+            }
+        }
+        assertThat(slow.batches.get()).isLessThan(PRODUCERS * EVENTS_PER_PRODUCER);
+    }
+
+    @Test
+    void failingHandlerDoesNotStopTheBus() throws Exception {
+        List<UserMailDTO> received = new ArrayList<>();
+        RingBufferEventBus bus = new RingBufferEventBus(8, List.of((event, sequence, endOfBatch) -> {
+            if ("report".equals(event.getAction())) {
+                throw new IllegalStateException("unsupported");
+            }
+            received.add(event);
+        }));
+        for (int i = 0; i < 20; i++) {
+            bus.publish(UserMailDTO.builder().id(String.valueOf(i)).action(i % 2 == 0 ? "report" : "update").build());
+        }
+        bus.stop();
+
+        assertThat(received).hasSize(10);
+        assertThatThrownBy(() -> bus.publish(new UserMailDTO())).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void mailEventsAreForwardedToTheMailService() {
+        RabbitMQSender sender = mock(RabbitMQSender.class);
+        RingBufferEventBus bus = new RingBufferEventBus(8, List.of(new MailEventForwarder(sender)));
+        List<UserMailDTO> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            events.add(UserMailDTO.builder().id(String.valueOf(i)).action("insert").build());
+            bus.publish(events.get(i));
+        }
+        bus.stop();
+
+        InOrder inOrder = inOrder(sender);
+        for (UserMailDTO event : events) {
+            inOrder.verify(sender).send(event);
+        }
+    }
+
+    @Test
+    void reportRequestsAreQueuedForTheReportWorkers() {
+        RabbitMQSender sender = mock(RabbitMQSender.class);
+        RingBufferEventBus bus = new RingBufferEventBus(8, List.of(), sender);
+        ReportRequestDTO request = ReportRequestDTO.builder().requestId("r1").format("csv").build();
+        bus.publish(request);
+        bus.stop();
+
+        verify(sender).send(request);
+        assertThatThrownBy(() -> bus.publish(request)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void bufferSizeMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new RingBufferEventBus(100, List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static final class RecordingHandler implements EventHandler {
+        private final int spinsPerEvent;
+        private final List<UserMailDTO> events = new ArrayList<>();
+        private final List<Long> sequences = new ArrayList<>();
+        private final AtomicLong batches = new AtomicLong();
+
+        private RecordingHandler(int spinsPerEvent) {
+            this.spinsPerEvent = spinsPerEvent;
+        }
+
+        @Override
+        public void onEvent(UserMailDTO event, long sequence, boolean endOfBatch) {
+            for (int i = 0; i < spinsPerEvent; i++) {
+                Thread.onSpinWait();
+            }
+            events.add(event);
+            sequences.add(sequence);
+            if (endOfBatch) {
+                batches.incrementAndGet();
+            }
+        }
+    }
+}
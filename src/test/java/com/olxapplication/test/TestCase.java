@@ -2,7 +2,7 @@ package com.olxapplication.test;
 
 import com.olxapplication.OlxApplication;
 import com.olxapplication.dtos.*;
-import com.olxapplication.entity.Message;
+import com.olxapplication.mappers.UserMapper;
 import com.olxapplication.repository.FavouriteRepository;
 import com.olxapplication.repository.UserRepository;
 import com.olxapplication.service.*;
@@ -62,7 +62,7 @@ public class TestCase {
                 .build();
         userService.insert(user1);
         userService.insert(user2);
-        List<UserDetailsDTO> list = userService.findUsers();
+        List<UserDetailsDTO> list = findUsers();
         for(UserDetailsDTO user : list){
             System.out.println(user);
         }
@@ -85,7 +85,7 @@ public class TestCase {
         AnnouncementDetailsDTO announcementDetailsDTO = announcementService.findAnnouncementByUserId(list.get(0).getId()).get(0);
 
         String response = favouriteService.insertAnnouncement(list.get(1).getId(), announcementDetailsDTO.getId());
-        list = userService.findUsers();
+        list = findUsers();
         for(UserDetailsDTO user : list){
             System.out.println(user.toString());
         }
@@ -111,7 +111,7 @@ public class TestCase {
                 .build();
         userService.insert(user1);
         userService.insert(user2);
-        List<UserDetailsDTO> list = userService.findUsers();
+        List<UserDetailsDTO> list = findUsers();
         for(UserDetailsDTO user : list){
             System.out.println(user);
         }
@@ -135,7 +135,7 @@ public class TestCase {
         favouriteService.insertAnnouncement(list.get(1).getId(), announcementDetailsDTO.getId());
         String response = favouriteService.deleteAnnouncement(list.get(1).getId(), announcementDetailsDTO.getId());
 
-        list = userService.findUsers();
+        list = findUsers();
         for(UserDetailsDTO user : list){
             System.out.println(user.toString());
         }
@@ -161,7 +161,7 @@ public class TestCase {
                 .build();
         userService.insert(user1);
         userService.insert(user2);
-        List<UserDetailsDTO> list = userService.findUsers();
+        List<UserDetailsDTO> list = findUsers();
 
         MessageWebDTO messageWebDTO = MessageWebDTO.builder()
                 .msg("Hello World")
@@ -172,13 +172,17 @@ public class TestCase {
 
 
         String response = messageService.insert(messageWebDTO);
-        list = userService.findUsers();
+        list = findUsers();
         for(UserDetailsDTO user : list){
             System.out.println(user.toString());
         }
-        for(Message m : messageService.findChat(list.get(0).getId(), list.get(1).getId())){
-            System.out.println(m.toString());
+        for(ChatMessageDTO m : messageService.findChat(list.get(0).getId(), list.get(1).getId(), null, null, null).getMessages()){
+            System.out.println(m.getSenderName() + ": " + m.getMsg());
         }
         assertThat(response).isEqualTo("The message was sent successfully");
     }
+
+    private List<UserDetailsDTO> findUsers() {
+        return userRepository.findAll().stream().map(UserMapper::toUserDetailsDTO).toList();
+    }
 }
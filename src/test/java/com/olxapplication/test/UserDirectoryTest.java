@@ -0,0 +1,95 @@
+package com.olxapplication.test;
+
+import com.olxapplication.changes.ChangeVersionSequence;
+import com.olxapplication.constants.UserMessages;
+import com.olxapplication.dtos.UserDetailsDTO;
+import com.olxapplication.dtos.UserPageDTO;
+import com.olxapplication.entity.User;
+import com.olxapplication.exception.PatternNotMathcedException;
+import com.olxapplication.popularity.PopularityTracker;
+import com.olxapplication.pricing.FavouriteTotalsPropagator;
+import com.olxapplication.projections.UserSummaryView;
+import com.olxapplication.repository.UserRepository;
+import com.olxapplication.search.AnnouncementSearchIndex;
+import com.olxapplication.service.AnnouncementService;
+import com.olxapplication.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(showSql = false, properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({UserService.class, AnnouncementService.class, AnnouncementSearchIndex.class, ChangeVersionSequence.class, FavouriteTotalsPropagator.class, PopularityTracker.class})
+public class UserDirectoryTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setup() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            users.add(User.builder().firstName("Ana").lastName("Pop" + (char) ('a' + i)).email("ana" + i + "@test.com")
+                    .password("Password1").role("user").build());
+        }
+        users.add(User.builder().firstName("Mihai").lastName("Ionescu").email("mihai_i@test.com").password("Password1").role("admin").build());
+        userRepository.saveAll(users);
+    }
+
+    @Test
+    void pagesAreSortedAndCounted() {
+        UserPageDTO first = userService.findUserPage(null, 0, 10, null);
+        UserPageDTO last = userService.findUserPage(null, 2, 10, null);
+
+        assertThat(first.getTotalElements()).isEqualTo(26);
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(first.getUsers()).hasSize(10);
+        assertThat(first.getUsers().get(0).lastName()).isEqualTo("Ionescu");
+        assertThat(first.getUsers()).extracting(UserSummaryView::lastName).isSorted();
+        assertThat(last.getUsers()).hasSize(6);
+        assertThat(last.getUsers().get(5).lastName()).isEqualTo("Popy");
+    }
+
+    @Test
+    void searchMatchesThePrefixOfTheNameOrEmail() {
+        assertThat(userService.findUserPage("MIH", 0, 10, null).getUsers()).extracting(UserSummaryView::email)
+                .containsExactly("mihai_i@test.com");
+        assertThat(userService.findUserPage("popa", 0, 10, null).getTotalElements()).isEqualTo(1);
+        assertThat(userService.findUserPage("ana", 0, 10, "email,desc").getTotalElements()).isEqualTo(25);
+        assertThat(userService.findUserPage("mihai_", 0, 10, null).getTotalElements()).isEqualTo(1);
+        assertThat(userService.findUserPage("ana_", 0, 10, null).getTotalElements()).isZero();
+        assertThat(userService.findUserPage("%", 0, 10, null).getTotalElements()).isZero();
+    }
+
+    @Test
+    void unknownSortFieldIsRejected() {
+        assertThatThrownBy(() -> userService.findUserPage(null, 0, 10, "password,asc"))
+                .isInstanceOf(PatternNotMathcedException.class);
+    }
+
+    @Test
+    void blankPasswordKeepsTheCurrentOneOnUpdate() {
+        User user = userRepository.findByEmailIgnoreCase("mihai_i@test.com").orElseThrow();
+        UserDetailsDTO update = new UserDetailsDTO();
+        update.setFirstName("Mihai");
+        update.setLastName("Popescu");
+        update.setEmail("mihai_i@test.com");
+        update.setPassword("");
+        update.setRole("admin");
+
+        assertThat(userService.updateUserById(user.getId(), update)).isEqualTo(UserMessages.USER_UPDATED_SUCCESSFULLY + user.getId());
+        User updated = userRepository.findById(user.getId()).orElseThrow();
+        assertThat(updated.getLastName()).isEqualTo("Popescu");
+        assertThat(updated.getPassword()).isEqualTo("Password1");
+    }
+}